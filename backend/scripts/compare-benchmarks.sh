@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Compare JMH results with the checked-in baseline and fail on regressions.
+#
+# Runs the whole suite first unless a results file is given (about 40 minutes).
+# Baselines are only comparable on the machine and JDK that produced them (see benchmarks/README.md).
+#
+# Usage: scripts/compare-benchmarks.sh [results.csv]
+#        THRESHOLD=1.5 scripts/compare-benchmarks.sh   # allowed slowdown factor (default 1.25)
+set -euo pipefail
+
+BASELINE=${BASELINE:-benchmarks/baseline.csv}
+THRESHOLD=${THRESHOLD:-1.25}
+RESULTS=${1:-}
+
+if [ -z "$RESULTS" ]; then
+  RESULTS=target/jmh-results.csv
+  mvn -B -q -Pjmh test-compile exec:exec -Djmh.args="-rf csv -rff $RESULTS"
+fi
+
+# Rows are keyed by benchmark name and parameter values; scores are times per operation
+awk -F, -v threshold="$THRESHOLD" '
+  function key(   k, i) {
+    k = $1
+    sub(/.*\.benchmark\./, "", k)
+    for (i = 8; i <= NF; i++) if ($i != "") k = k " " $i
+    return k
+  }
+  { gsub(/"/, "") }
+  FNR == 1 { next }
+  NR == FNR { base[key()] = $5; unit[key()] = $7; next }
+  {
+    k = key()
+    if (!(k in base)) { printf "%-58s %12s %12.3f %-6s %s\n", k, "-", $5, $7, "new"; next }
+    ratio = $5 / base[k]
+    status = ratio > threshold ? "REGRESSION" : (ratio < 1 / threshold ? "faster" : "ok")
+    if (status == "REGRESSION") failed = 1
+    printf "%-58s %12.3f %12.3f %-6s x%.2f %s\n", k, base[k], $5, $7, ratio, status
+  }
+  BEGIN { printf "%-58s %12s %12s %-6s %s\n", "benchmark", "baseline", "current", "unit", "ratio" }
+  END { exit failed }
+' "$BASELINE" "$RESULTS"
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Compare the JSON list reads with their NDJSON streams: throughput, tail latency and heap.
+#
+# Runs the in-process load test (src/loadtest, in-memory Mongo stand-in) with one read at a time,
+# as a JSON list and as NDJSON, at each concurrency. Platform-thread request handling, so the
+# heap figures cover every thread that serves the requests.
+#
+# Usage: scripts/compare-list-formats.sh [duration s] [concurrency...]
+#        e.g. scripts/compare-list-formats.sh 30 16 64
+set -euo pipefail
+
+DURATION=${1:-30}
+if [ $# -gt 0 ]; then shift; fi
+LEVELS=("$@")
+[ ${#LEVELS[@]} -gt 0 ] || LEVELS=(16 64)
+ARGS=${LOADTEST_ARGS:-"--warmup=10"}
+
+mvn -q -B -Ploadtest test-compile
+
+printf "%-24s %12s %10s %10s %10s %14s %12s\n" \
+  "read" "concurrency" "req/s" "p50 (ms)" "p99 (ms)" "KB/request" "peak MB"
+for concurrency in "${LEVELS[@]}"; do
+  for operation in points points-ndjson notifications notifications-ndjson; do
+    log="target/list-format-${operation}-c${concurrency}.log"
+    mvn -q -B -Ploadtest exec:exec -Dloadtest.args="$ARGS --duration=$DURATION --concurrency=$concurrency \
+--mix=$operation:1" > "$log" 2>&1
+    # Report columns: endpoint count errors req/s p50 p90 p99 p99.9 max
+    awk -v op="$operation" -v c="$concurrency" '
+      $1 == "total" {rps = $4; p50 = $5; p99 = $7}
+      /^Heap:/ {kb = $5; peak = $12}
+      END {printf "%-24s %12s %10s %10s %10s %14s %12s\n", op, c, rps, p50, p99, kb, peak}' "$log"
+  done
+done
@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Compare time-to-first-request and resident memory of the startup modes.
+#
+#   jar     fat jar, JIT only
+#   aot     fat jar with the AOT-generated bean definitions (-Dspring.aot.enabled=true)
+#   cds     exploded AOT jar with the Class Data Sharing archive from the training run
+#   native  GraalVM native image, only when target/waste-management exists (mvn -Pnative native:compile)
+#
+# Needs a MongoDB at MONGODB_URI (default localhost:27017). Build first:  mvn -B -Paot package -DskipTests
+#
+# Usage: scripts/compare-startup.sh [runs per mode]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8081}
+URL="http://localhost:${PORT}/api/collection-points"
+JAR=$(ls target/waste-management-*.jar | head -1)
+NATIVE=target/waste-management
+CDS_DIR=target/cds
+
+[ -f "$CDS_DIR/application.jsa" ] || { echo "No CDS archive, build with: mvn -Paot package" >&2; exit 1; }
+
+start_mode() {
+  case $1 in
+    jar)    java -jar "$JAR" ;;
+    aot)    java -Dspring.aot.enabled=true -jar "$JAR" ;;
+    cds)    cd "$CDS_DIR" && exec java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar application.jar ;;
+    native) "$NATIVE" ;;
+  esac
+}
+
+# Prints "<ms until the first 200 on GET /collection-points> <RSS in MB right after it>"
+measure() {
+  local begin pid
+  begin=$(date +%s%N)
+  ( PORT=$PORT start_mode "$1" > "target/startup-$1.log" 2>&1 ) &
+  pid=$!
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" = 200 ]; do
+    kill -0 $pid 2>/dev/null || { echo "$1 did not start, see target/startup-$1.log" >&2; return 1; }
+    sleep 0.05
+  done
+  local elapsed=$(( ($(date +%s%N) - begin) / 1000000 ))
+  local java_pid
+  java_pid=$(pgrep -P $pid | head -1 || true)
+  local rss
+  rss=$(awk '/VmRSS/ {print int($2 / 1024)}' "/proc/${java_pid:-$pid}/status")
+  kill $pid ${java_pid:-} 2>/dev/null || true
+  wait $pid 2>/dev/null || true
+  echo "$elapsed $rss"
+}
+
+modes="jar aot cds"
+[ -x "$NATIVE" ] && modes="$modes native"
+
+printf "%-8s %22s %14s\n" "mode" "first request (ms)" "RSS (MB)"
+for mode in $modes; do
+  total_ms=0
+  total_rss=0
+  for _ in $(seq 1 "$RUNS"); do
+    read -r ms rss < <(measure "$mode")
+    total_ms=$(( total_ms + ms ))
+    total_rss=$(( total_rss + rss ))
+  done
+  printf "%-8s %22d %14d\n" "$mode" $(( total_ms / RUNS )) $(( total_rss / RUNS ))
+done
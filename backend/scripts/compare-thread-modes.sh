@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Compare throughput and tail latency of platform-thread and virtual-thread request handling.
+#
+# Runs the in-process load test (src/loadtest, in-memory Mongo stand-in) once per mode and
+# concurrency, with the same seed and traffic mix. Needs a Java 21 JDK as JAVA_HOME and first on the
+# PATH; no MongoDB or external load generator.
+#
+# Usage: scripts/compare-thread-modes.sh [duration s] [concurrency...]
+#        e.g. scripts/compare-thread-modes.sh 60 16 256
+set -euo pipefail
+
+DURATION=${1:-60}
+if [ $# -gt 0 ]; then shift; fi
+LEVELS=("$@")
+[ ${#LEVELS[@]} -gt 0 ] || LEVELS=(16 256)
+ARGS=${LOADTEST_ARGS:-"--warmup=20"}
+
+mvn -q -B -Pjava21,loadtest test-compile
+
+printf "%-10s %12s %10s %8s %10s %10s\n" "mode" "concurrency" "req/s" "errors" "p50 (ms)" "p99 (ms)"
+for concurrency in "${LEVELS[@]}"; do
+  for mode in false true; do
+    label=$([ "$mode" = true ] && echo virtual || echo platform)
+    log="target/thread-mode-${label}-c${concurrency}.log"
+    mvn -q -B -Pjava21,loadtest exec:exec -Dloadtest.args="$ARGS --duration=$DURATION \
+--concurrency=$concurrency --csv=target/thread-mode-${label}-c${concurrency}.csv \
+--spring.threads.virtual.enabled=$mode" > "$log" 2>&1
+    # Report columns: endpoint count errors req/s p50 p90 p99 p99.9 max
+    awk -v mode="$label" -v c="$concurrency" '$1 == "total" {printf "%-10s %12s %10s %8s %10s %10s\n", mode, c, $4, $3, $5, $7}' "$log"
+  done
+done
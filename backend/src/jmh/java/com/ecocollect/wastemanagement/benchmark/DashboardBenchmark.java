@@ -0,0 +1,51 @@
+package com.ecocollect.wastemanagement.benchmark;
+
+import com.ecocollect.wastemanagement.dto.DashboardStatsResponse;
+import com.ecocollect.wastemanagement.repository.AlertRepository;
+import com.ecocollect.wastemanagement.repository.EmployeeRepository;
+import com.ecocollect.wastemanagement.repository.RouteRepository;
+import com.ecocollect.wastemanagement.service.CitySnapshotService;
+import com.ecocollect.wastemanagement.service.DashboardService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory aggregation of {@link DashboardService#getDashboardStats()} over large lists,
+ * {@code size} documents per collection; collection points are counted on the city snapshot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 3, jvmArgsAppend = "-Xmx2g")
+public class DashboardBenchmark {
+
+    @Param({"5000", "50000", "500000"})
+    private int size;
+
+    private DashboardService dashboardService;
+
+    @Setup
+    public void setUp() {
+        RouteRepository routes = SyntheticCity.stub(RouteRepository.class);
+        when(routes.findAll()).thenReturn(SyntheticCity.routes(size, Instant.parse("2026-03-02T00:00:00Z"), 2));
+        EmployeeRepository employees = SyntheticCity.stub(EmployeeRepository.class);
+        when(employees.findAll()).thenReturn(SyntheticCity.employees(size, 3));
+        AlertRepository alerts = SyntheticCity.stub(AlertRepository.class);
+        when(alerts.findAll()).thenReturn(SyntheticCity.alerts(size, 4));
+        CitySnapshotService points = SyntheticCity.snapshotService(SyntheticCity.collectionPoints(size, 1));
+        dashboardService = new DashboardService(points, routes, employees, alerts,
+                SyntheticCity.stub(ReactiveMongoTemplate.class));
+    }
+
+    @Benchmark
+    public DashboardStatsResponse getDashboardStats() {
+        return dashboardService.getDashboardStats();
+    }
+}
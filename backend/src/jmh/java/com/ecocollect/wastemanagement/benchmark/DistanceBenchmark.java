@@ -0,0 +1,69 @@
+package com.ecocollect.wastemanagement.benchmark;
+
+import com.ecocollect.wastemanagement.config.RoutingProperties;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.repository.CollectionPointRepository;
+import com.ecocollect.wastemanagement.repository.DepotRepository;
+import com.ecocollect.wastemanagement.routing.GeoUtils;
+import com.ecocollect.wastemanagement.routing.TravelMatrix;
+import com.ecocollect.wastemanagement.service.RoadNetworkService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The straight-line distance function, per pair and as the full n x n matrix
+ * {@link RoadNetworkService} computes when no matrix store is available
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 3, jvmArgsAppend = "-Xmx2g")
+public class DistanceBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int points;
+
+    private List<CollectionPoint> city;
+    private RoadNetworkService roadNetworkService;
+    private double[] lat;
+    private double[] lon;
+    private int pair;
+
+    /**
+     * A service whose store was never opened, so matrices are computed densely per call
+     */
+    static RoadNetworkService straightLineService() {
+        return new RoadNetworkService(new RoutingProperties(), SyntheticCity.stub(CollectionPointRepository.class),
+                SyntheticCity.stub(DepotRepository.class), new SimpleMeterRegistry());
+    }
+
+    @Setup
+    public void setUp() {
+        city = SyntheticCity.collectionPoints(points, 42);
+        roadNetworkService = straightLineService();
+        lat = city.stream().mapToDouble(CollectionPoint::getLatitude).toArray();
+        lon = city.stream().mapToDouble(CollectionPoint::getLongitude).toArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double haversine() {
+        int i = pair;
+        int j = (i + 1) % lat.length;
+        pair = j;
+        return GeoUtils.haversineMeters(lat[i], lon[i], lat[j], lon[j]);
+    }
+
+    @Benchmark
+    public TravelMatrix travelMatrix() {
+        try (TravelMatrix matrix = roadNetworkService.travelMatrix(city)) {
+            return matrix;
+        }
+    }
+}
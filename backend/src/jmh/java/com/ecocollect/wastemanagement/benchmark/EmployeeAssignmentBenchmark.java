@@ -0,0 +1,71 @@
+package com.ecocollect.wastemanagement.benchmark;
+
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
+import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.service.EmployeeAssignmentService;
+import com.ecocollect.wastemanagement.service.EmployeeReservationService;
+import com.ecocollect.wastemanagement.service.EmployeeService;
+import com.ecocollect.wastemanagement.service.RouteService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Crew selection for one route (filter and sort) and for a whole day of routes
+ * (min-cost assignment over one route per 20 employees, three seats each).
+ * Reservations always succeed and nobody is booked yet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 3, jvmArgsAppend = "-Xmx2g")
+public class EmployeeAssignmentBenchmark {
+
+    private static final int CREW = 3;
+
+    @Param({"50", "500", "5000"})
+    private int employees;
+
+    private EmployeeAssignmentService assignmentService;
+    private List<Route> routes;
+
+    @Setup
+    public void setUp() {
+        routes = SyntheticCity.routes(Math.max(2, employees / 20), Instant.parse("2026-03-02T00:00:00Z"), 7);
+
+        EmployeeService employeeService = SyntheticCity.stub(EmployeeService.class);
+        when(employeeService.getAllEmployees()).thenReturn(SyntheticCity.employees(employees, 5));
+
+        RouteService routeService = SyntheticCity.stub(RouteService.class);
+        when(routeService.getRouteById(anyString())).thenReturn(routes.get(0));
+        when(routeService.getRoutesByIds(anyList())).thenReturn(routes);
+
+        EmployeeReservationService reservationService = SyntheticCity.stub(EmployeeReservationService.class);
+        when(reservationService.dayOf(any())).thenReturn("2026-03-02");
+        when(reservationService.bookingsForDay(anyString())).thenReturn(Map.of());
+        when(reservationService.reserve(anyString(), any())).thenReturn(true);
+
+        assignmentService = new EmployeeAssignmentService(employeeService, routeService, reservationService,
+                new SchedulingProperties());
+    }
+
+    @Benchmark
+    public Route assignEmployeesToRoute() {
+        return assignmentService.assignEmployeesToRoute(routes.get(0).getId(), CREW);
+    }
+
+    @Benchmark
+    public List<Route> assignEmployeesToRoutes() {
+        return assignmentService.assignEmployeesToRoutes(routes, CREW);
+    }
+}
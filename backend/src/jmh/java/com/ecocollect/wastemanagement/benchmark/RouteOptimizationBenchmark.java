@@ -0,0 +1,101 @@
+package com.ecocollect.wastemanagement.benchmark;
+
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
+import com.ecocollect.wastemanagement.config.VolumeProperties;
+import com.ecocollect.wastemanagement.dto.RouteOptimizationRequest;
+import com.ecocollect.wastemanagement.dto.RouteOptimizationResponse;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Vehicle;
+import com.ecocollect.wastemanagement.routing.TravelMatrix;
+import com.ecocollect.wastemanagement.service.CitySnapshotService;
+import com.ecocollect.wastemanagement.service.DepotService;
+import com.ecocollect.wastemanagement.service.RoadNetworkService;
+import com.ecocollect.wastemanagement.service.RouteOptimizationService;
+import com.ecocollect.wastemanagement.service.VehicleService;
+import com.ecocollect.wastemanagement.service.WasteVolumeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link RouteOptimizationService#optimizeRoute} over a synthetic city, with points read from the city
+ * snapshot and the travel matrix served from memory (as a warm matrix store would).
+ * {@code construction} runs with a zero local-search budget; {@code optimizeRoute} with the default budget.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 3, jvmArgsAppend = "-Xmx2g")
+public class RouteOptimizationBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int points;
+
+    private RouteOptimizationService optimizer;
+    private RouteOptimizationService constructionOnly;
+    private RouteOptimizationRequest request;
+
+    @Setup
+    public void setUp() {
+        List<CollectionPoint> city = SyntheticCity.collectionPoints(points, 42);
+        CitySnapshotService snapshotService = SyntheticCity.snapshotService(city);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId("truck-1");
+        vehicle.setCapacity(100_000);
+        VehicleService vehicleService = SyntheticCity.stub(VehicleService.class);
+        when(vehicleService.getVehicleById(anyString())).thenReturn(vehicle);
+
+        // The service orders points by fill level before asking for the matrix
+        List<CollectionPoint> sorted = new ArrayList<>(city);
+        sorted.sort(Comparator.comparing(CollectionPoint::getFillLevel).reversed());
+        TravelMatrix matrix = DistanceBenchmark.straightLineService().travelMatrix(sorted);
+        RoadNetworkService roadNetworkService = SyntheticCity.stub(RoadNetworkService.class);
+        DepotService depotService = SyntheticCity.stub(DepotService.class);
+        when(depotService.tourDepot(any(), any(), anyList())).thenReturn(Optional.empty());
+        when(roadNetworkService.travelMatrix(anyList())).thenReturn(matrix);
+
+        SchedulingProperties scheduling = new SchedulingProperties();
+        scheduling.setTimeZone("Africa/Tunis");
+        SchedulingProperties noSearch = new SchedulingProperties();
+        noSearch.setTimeZone("Africa/Tunis");
+        noSearch.setLocalSearchMillis(0);
+
+        WasteVolumeService volume = new WasteVolumeService(new VolumeProperties());
+        optimizer = new RouteOptimizationService(snapshotService, vehicleService, depotService, roadNetworkService,
+                scheduling, volume, new VolumeProperties(), new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+        constructionOnly = new RouteOptimizationService(snapshotService, vehicleService, depotService, roadNetworkService,
+                noSearch, volume, new VolumeProperties(), new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+
+        request = new RouteOptimizationRequest();
+        request.setVehicleId(vehicle.getId());
+        request.setCollectionPointIds(city.stream().map(CollectionPoint::getId).collect(Collectors.toList()));
+        request.setStartTime(Instant.parse("2026-03-02T05:00:00Z"));
+        request.setShiftMinutes(480);
+    }
+
+    @Benchmark
+    public RouteOptimizationResponse construction() {
+        return constructionOnly.optimizeRoute(request);
+    }
+
+    @Benchmark
+    public RouteOptimizationResponse optimizeRoute() {
+        return optimizer.optimizeRoute(request);
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecocollect.wastemanagement.benchmark;
+
+import com.ecocollect.wastemanagement.config.SnapshotProperties;
+import com.ecocollect.wastemanagement.model.Alert;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Employee;
+import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.repository.CollectionPointRepository;
+import com.ecocollect.wastemanagement.service.ChangeSequenceService;
+import com.ecocollect.wastemanagement.service.CitySnapshotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Deterministic fake data around the Tunis sample points, so every run benchmarks the same city
+ */
+final class SyntheticCity {
+
+    static final String[] ZONES = {"North District", "Central District", "South District", "East District"};
+    private static final String[] WASTE_TYPES = {"plastic", "glass", "paper", "organic", "metal", "mixed"};
+
+    // About 15 km x 15 km
+    private static final double CENTER_LAT = 36.8065;
+    private static final double CENTER_LON = 10.1815;
+    private static final double SPAN_DEGREES = 0.14;
+
+    private SyntheticCity() {
+    }
+
+    /**
+     * Collection points; one in five has a two-hour service window between 06:00 and 16:00
+     */
+    static List<CollectionPoint> collectionPoints(int count, long seed) {
+        Random random = new Random(seed);
+        List<CollectionPoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CollectionPoint p = new CollectionPoint();
+            p.setId("cp-" + i);
+            p.setName("Point " + i);
+            p.setAddress(i + " Avenue Habib Bourguiba");
+            p.setWasteType(WASTE_TYPES[random.nextInt(WASTE_TYPES.length)]);
+            p.setFillLevel(random.nextInt(101));
+            p.setStatus(random.nextInt(20) == 0 ? "full" : "operational");
+            p.setLatitude(CENTER_LAT + (random.nextDouble() - 0.5) * SPAN_DEGREES);
+            p.setLongitude(CENTER_LON + (random.nextDouble() - 0.5) * SPAN_DEGREES);
+            p.setAssignedZone(ZONES[random.nextInt(ZONES.length)]);
+            p.setServiceMinutes(5 + random.nextInt(11));
+            if (random.nextInt(5) == 0) {
+                LocalTime start = LocalTime.of(6 + random.nextInt(9), 0);
+                p.setServiceWindowStart(start);
+                p.setServiceWindowEnd(start.plusHours(2));
+            }
+            points.add(p);
+        }
+        return points;
+    }
+
+    static List<Employee> employees(int count, long seed) {
+        Random random = new Random(seed);
+        String[] statuses = {"available", "available", "on_duty", "off_duty"};
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee e = new Employee();
+            e.setId("emp-" + i);
+            e.setName("Employee " + i);
+            e.setRole("collector");
+            e.setStatus(statuses[random.nextInt(statuses.length)]);
+            e.setAssignedZone(ZONES[random.nextInt(ZONES.length)]);
+            e.setShiftsThisWeek(random.nextInt(6));
+            employees.add(e);
+        }
+        return employees;
+    }
+
+    static List<Route> routes(int count, Instant day, long seed) {
+        Random random = new Random(seed);
+        String[] statuses = {"scheduled", "scheduled", "in_progress", "completed"};
+        List<Route> routes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Route r = new Route();
+            r.setId("route-" + i);
+            r.setName("Route " + i);
+            r.setStatus(statuses[random.nextInt(statuses.length)]);
+            r.setZone(ZONES[random.nextInt(ZONES.length)]);
+            r.setScheduledStart(day.plusSeconds(6 * 3600 + random.nextInt(8) * 1800));
+            r.setCollectionPoints(10 + random.nextInt(30));
+            r.setAssignedEmployees(new ArrayList<>());
+            routes.add(r);
+        }
+        return routes;
+    }
+
+    static List<Alert> alerts(int count, long seed) {
+        Random random = new Random(seed);
+        String[] severities = {"info", "warning", "critical"};
+        List<Alert> alerts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Alert a = new Alert();
+            a.setId("alert-" + i);
+            a.setSeverity(severities[random.nextInt(severities.length)]);
+            a.setTitle("Alert " + i);
+            a.setAcknowledged(random.nextBoolean());
+            alerts.add(a);
+        }
+        return alerts;
+    }
+
+    /**
+     * A city snapshot service loaded with {@code points}, as it would be at startup
+     */
+    static CitySnapshotService snapshotService(List<CollectionPoint> points) {
+        MongoTemplate mongoTemplate = stub(MongoTemplate.class);
+        when(mongoTemplate.estimatedCount(CollectionPoint.class)).thenReturn((long) points.size());
+        when(mongoTemplate.stream(any(Query.class), eq(CollectionPoint.class))).thenAnswer(invocation -> points.stream());
+        CitySnapshotService snapshotService = new CitySnapshotService(mongoTemplate,
+                stub(CollectionPointRepository.class), stub(ChangeSequenceService.class), new SnapshotProperties(),
+                new SimpleMeterRegistry());
+        snapshotService.load();
+        return snapshotService;
+    }
+
+    /**
+     * A Mockito mock that keeps no record of its calls: a plain one holds on to every call of a run,
+     * and the growing heap shows up as GC pauses in the sub-millisecond benchmarks
+     */
+    static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,186 @@
+package com.ecocollect.wastemanagement.loadtest;
+
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
+import com.ecocollect.wastemanagement.dto.CollectionPointRequest;
+import com.ecocollect.wastemanagement.dto.DepotRequest;
+import com.ecocollect.wastemanagement.dto.EmployeeRequest;
+import com.ecocollect.wastemanagement.dto.VehicleRequest;
+import com.ecocollect.wastemanagement.dto.ZoneApplyRequest;
+import com.ecocollect.wastemanagement.dto.ZoneAssignment;
+import com.ecocollect.wastemanagement.dto.ZoneProposalResponse;
+import com.ecocollect.wastemanagement.model.Depot;
+import com.ecocollect.wastemanagement.model.Notification;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Synthetic city around the Tunis sample points: points, vehicles and employees go through the bulk
+ * endpoints (so the travel matrix and change feed see them), historical notifications straight to Mongo
+ */
+final class CitySeeder {
+
+    static final String[] ZONES = {"North District", "Central District", "South District", "East District"};
+    private static final String[] WASTE_TYPES = {"plastic", "glass", "paper", "organic", "metal", "mixed"};
+    private static final String[] NOTIFICATION_TYPES = {"warning", "info", "success", "error"};
+    private static final double CENTER_LAT = 36.8065;
+    private static final double CENTER_LON = 10.1815;
+    private static final double SPAN_DEGREES = 0.14;
+    private static final int BATCH = 1000;
+
+    private final ApiClient api;
+    private final Random random;
+
+    /**
+     * Seeded points by id, reused as the body of telemetry updates
+     */
+    final Map<String, CollectionPointRequest> points = new LinkedHashMap<>();
+    final List<String> depotIds = new ArrayList<>();
+    final List<String> vehicleIds = new ArrayList<>();
+    final List<String> employeeIds = new ArrayList<>();
+
+    CitySeeder(ApiClient api, long seed) {
+        this.api = api;
+        this.random = new Random(seed);
+    }
+
+    void seedPoints(int count) {
+        List<CollectionPointRequest> requests = generate(count, i -> {
+            CollectionPointRequest p = new CollectionPointRequest();
+            p.setName("Point " + i);
+            p.setAddress(i + " Avenue Habib Bourguiba");
+            p.setWasteType(WASTE_TYPES[random.nextInt(WASTE_TYPES.length)]);
+            p.setFillLevel(random.nextInt(101));
+            p.setLatitude(CENTER_LAT + (random.nextDouble() - 0.5) * SPAN_DEGREES);
+            p.setLongitude(CENTER_LON + (random.nextDouble() - 0.5) * SPAN_DEGREES);
+            p.setServiceMinutes(5 + random.nextInt(11));
+            if (random.nextInt(5) == 0) {
+                LocalTime start = LocalTime.of(6 + random.nextInt(9), 0);
+                p.setServiceWindowStart(start);
+                p.setServiceWindowEnd(start.plusHours(2));
+            }
+            return p;
+        });
+        List<String> ids = bulkCreate("/collection-points/bulk", requests);
+        for (int i = 0; i < ids.size(); i++) {
+            points.put(ids.get(i), requests.get(i));
+        }
+    }
+
+    /**
+     * Partition the points with the zone proposal endpoint, under the names route planning asks for
+     */
+    void seedZones() {
+        ZoneProposalResponse proposal = api.call("POST", "/zones/proposals?count=" + ZONES.length, null,
+                ZoneProposalResponse.class);
+        List<ZoneAssignment> zones = new ArrayList<>();
+        for (int i = 0; i < proposal.getAssignments().size(); i++) {
+            zones.add(new ZoneAssignment(ZONES[i], proposal.getAssignments().get(i).getPointIds()));
+        }
+        api.call("POST", "/zones/apply", new ZoneApplyRequest(zones), Object.class);
+    }
+
+    /**
+     * One depot west and one east of the centre, the first also an unload site
+     */
+    void seedDepots() {
+        for (int i = 0; i < 2; i++) {
+            DepotRequest d = new DepotRequest("Depot " + (i + 1), null, CENTER_LAT,
+                    CENTER_LON + (i == 0 ? -0.6 : 0.6) * SPAN_DEGREES, i == 0);
+            depotIds.add(api.call("POST", "/depots", d, Depot.class).getId());
+        }
+    }
+
+    void seedVehicles(int count) {
+        vehicleIds.addAll(bulkCreate("/vehicles/bulk", generate(count, i -> {
+            VehicleRequest v = new VehicleRequest();
+            v.setPlateNumber(String.format("%03d TU %04d", 100 + i % 900, i));
+            v.setType(i % 3 == 0 ? "compactor" : "truck");
+            v.setCapacity(6000 + 2000 * random.nextInt(4));
+            v.setLastMaintenance(LocalDate.now().minusDays(random.nextInt(90)).toString());
+            if (!depotIds.isEmpty()) {
+                v.setDepotId(depotIds.get(i % depotIds.size()));
+            }
+            return v;
+        })));
+    }
+
+    void seedEmployees(int count) {
+        String[] statuses = {"available", "available", "on_duty", "off_duty"};
+        employeeIds.addAll(bulkCreate("/employees/bulk", generate(count, i -> {
+            EmployeeRequest e = new EmployeeRequest();
+            e.setName("Employee " + i);
+            e.setRole(i % 10 == 0 ? "driver" : "collector");
+            e.setStatus(statuses[random.nextInt(statuses.length)]);
+            e.setPhone("+216 20 " + String.format("%06d", i));
+            e.setEmail("employee" + i + "@ecocollect.tn");
+            e.setAssignedZone(ZONES[random.nextInt(ZONES.length)]);
+            e.setShiftsThisWeek(random.nextInt(6));
+            e.setJoinDate(LocalDate.now().minusDays(random.nextInt(2000)).toString());
+            return e;
+        })));
+    }
+
+    /**
+     * Up to 90 days of history, mostly read
+     */
+    void seedNotifications(MongoTemplate mongoTemplate, int count) {
+        Instant now = Instant.now();
+        for (int from = 0; from < count; from += BATCH) {
+            List<Notification> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(count, from + BATCH); i++) {
+                Notification n = new Notification();
+                n.setId(UUID.randomUUID().toString());
+                n.setType(NOTIFICATION_TYPES[random.nextInt(NOTIFICATION_TYPES.length)]);
+                n.setTitle("Notification " + i);
+                n.setMessage("Collection point " + random.nextInt(Math.max(1, points.size())) + " needs attention");
+                n.setTimestamp(now.minus(random.nextInt(90 * 24 * 60), ChronoUnit.MINUTES));
+                n.setRead(random.nextInt(10) != 0);
+                n.setReadAt(n.getRead() ? n.getTimestamp() : null);
+                batch.add(n);
+            }
+            mongoTemplate.insertAll(batch);
+        }
+    }
+
+    private <T> List<T> generate(int count, IntFunction<T> factory) {
+        List<T> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(factory.apply(i));
+        }
+        return items;
+    }
+
+    /**
+     * Ids of the created documents, in request order
+     */
+    private <T> List<String> bulkCreate(String path, List<T> items) {
+        List<String> ids = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += BATCH) {
+            BulkRequest<T> request = new BulkRequest<>();
+            request.setCreate(items.subList(from, Math.min(items.size(), from + BATCH)));
+            BulkResponse response = api.call("POST", path, request, BulkResponse.class);
+            if (response.getFailed() > 0) {
+                throw new IllegalStateException("Seeding " + path + " failed: " + response.getResults().stream()
+                        .filter(r -> !r.isSucceeded()).findFirst().map(BulkResponse.ItemResult::getError).orElse(""));
+            }
+            response.getResults().stream()
+                    .sorted(Comparator.comparing(BulkResponse.ItemResult::getIndex))
+                    .map(BulkResponse.ItemResult::getId)
+                    .forEach(ids::add);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecocollect.wastemanagement.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every response time per endpoint, kept whole so percentiles are exact
+ */
+final class LatencyReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Samples> byEndpoint = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, int status) {
+        byEndpoint.computeIfAbsent(endpoint, e -> new Samples()).add(nanos, status);
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.printf("%-36s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Samples total = new Samples();
+        for (Map.Entry<String, Samples> entry : new TreeMap<>(byEndpoint).entrySet()) {
+            Samples s = entry.getValue();
+            printRow(out, entry.getKey(), s, seconds);
+            total.addAll(s);
+        }
+        printRow(out, "total", total, seconds);
+        byEndpoint.forEach((endpoint, s) -> {
+            if (!s.statuses.isEmpty()) {
+                out.printf("  %s errors by status: %s%n", endpoint, new TreeMap<>(s.statuses));
+            }
+        });
+    }
+
+    /**
+     * Responses recorded, failed ones included
+     */
+    int requests() {
+        return byEndpoint.values().stream().mapToInt(s -> s.sorted().length).sum();
+    }
+
+    void writeCsv(Path file, double seconds) throws IOException {
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(file))) {
+            csv.println("endpoint,count,errors,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            new TreeMap<>(byEndpoint).forEach((endpoint, s) -> {
+                long[] sorted = s.sorted();
+                csv.printf("\"%s\",%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f%n", endpoint, sorted.length, s.errors,
+                        sorted.length / seconds, millis(sorted, 50), millis(sorted, 90), millis(sorted, 99),
+                        millis(sorted, 99.9), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+            });
+        }
+    }
+
+    private static void printRow(PrintStream out, String endpoint, Samples s, double seconds) {
+        long[] sorted = s.sorted();
+        out.printf("%-36s %8d %7d %9.1f", endpoint, sorted.length, s.errors, sorted.length / seconds);
+        for (double p : PERCENTILES) {
+            out.printf(" %9.2f", millis(sorted, p));
+        }
+        out.printf(" %9.2f%n", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    /**
+     * Nearest-rank percentile
+     */
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+        synchronized void add(long latency, int status) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latency;
+            if (status < 200 || status >= 300) {
+                errors++;
+                statuses.merge(status, 1, Integer::sum);
+            }
+        }
+
+        synchronized void addAll(Samples other) {
+            long[] theirs = other.sorted();
+            for (long latency : theirs) {
+                add(latency, 200);
+            }
+            errors += other.errors;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
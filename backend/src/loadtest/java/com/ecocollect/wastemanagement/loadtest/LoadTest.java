@@ -0,0 +1,182 @@
+package com.ecocollect.wastemanagement.loadtest;
+
+import com.ecocollect.wastemanagement.WasteManagementApplication;
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
+import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.service.EmployeeReservationService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the backend against an in-memory Mongo stand-in (or {@code --mongodb-uri}), seeds a synthetic city,
+ * then drives the {@link TrafficMix} from {@code --concurrency} closed-loop workers and prints throughput and
+ * latency percentiles per endpoint. Exits with 1 if an employee ended up on two routes of the same day.
+ * <p>
+ * Load generator and backend share the JVM and the machine: compare runs with each other, not with production.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        MongoServer mongoServer = null;
+        String uri = options.mongodbUri;
+        if (uri == null) {
+            mongoServer = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = mongoServer.bind();
+            uri = "mongodb://" + address.getHostString() + ":" + address.getPort();
+            System.out.println("In-memory Mongo stand-in on " + uri);
+        } else {
+            dropDatabase(uri, options.database);
+        }
+
+        ConfigurableApplicationContext context = SpringApplication.run(WasteManagementApplication.class,
+                applicationArgs(options, uri));
+        int exitCode = 0;
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ApiClient api = new ApiClient(port);
+
+            long start = System.nanoTime();
+            CitySeeder city = new CitySeeder(api, options.seed);
+            city.seedPoints(options.points);
+            city.seedZones();
+            city.seedDepots();
+            city.seedVehicles(options.vehicles);
+            city.seedEmployees(options.employees);
+            city.seedNotifications(context.getBean(MongoTemplate.class), options.notifications);
+            System.out.printf("Seeded %d points, %d vehicles, %d employees, %d notifications in %d ms%n",
+                    city.points.size(), city.vehicleIds.size(), city.employeeIds.size(), options.notifications,
+                    (System.nanoTime() - start) / 1_000_000);
+
+            TrafficMix mix = new TrafficMix(options.mix, api, city, context.getBean(SchedulingProperties.class).zoneId());
+            System.out.printf("Warm-up: %d s with %d workers%n", options.warmup.toSeconds(), options.concurrency);
+            drive(mix, api, options.concurrency, options.warmup, null);
+
+            System.out.printf("Measuring: %d s with %d workers, mix %s%n", options.duration.toSeconds(),
+                    options.concurrency, options.mix);
+            LatencyReport report = new LatencyReport();
+            MemoryUse memory = MemoryUse.start();
+            double seconds = drive(mix, api, options.concurrency, options.duration, report);
+            System.out.println();
+            report.print(System.out, seconds);
+            memory.print(System.out, report.requests());
+            if (options.csv != null) {
+                report.writeCsv(Path.of(options.csv), seconds);
+                System.out.println("CSV written to " + options.csv);
+            }
+
+            int doubleBookings = countDoubleBookings(context);
+            System.out.println(doubleBookings == 0
+                    ? "No employee booked on two routes of the same day"
+                    : "DOUBLE BOOKINGS: " + doubleBookings + " employee-days on more than one route");
+            exitCode = doubleBookings == 0 ? 0 : 1;
+        } finally {
+            SpringApplication.exit(context);
+            if (mongoServer != null) {
+                mongoServer.shutdownNow();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Harness defaults first, unless the command line sets the same property
+     */
+    private static String[] applicationArgs(LoadTestOptions options, String uri) throws IOException {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("spring.data.mongodb.uri", uri);
+        defaults.put("spring.data.mongodb.database", options.database);
+        defaults.put("server.port", "0");
+        defaults.put("routing.cache-dir", Files.createTempDirectory("ecocollect-loadtest").toString());
+        defaults.put("logging.level.com.ecocollect", "INFO");
+        List<String> args = new ArrayList<>();
+        defaults.forEach((name, value) -> {
+            if (options.applicationArgs.stream().noneMatch(a -> a.startsWith("--" + name + "="))) {
+                args.add("--" + name + "=" + value);
+            }
+        });
+        args.addAll(options.applicationArgs);
+        return args.toArray(String[]::new);
+    }
+
+    private static void dropDatabase(String uri, String database) {
+        if ("ecocollect".equals(database)) {
+            throw new IllegalArgumentException("Refusing to drop the application database, pass --database=<scratch db>");
+        }
+        try (MongoClient client = MongoClients.create(uri)) {
+            client.getDatabase(database).drop();
+        }
+    }
+
+    /**
+     * Runs the mix for {@code length}; returns the elapsed seconds
+     */
+    private static double drive(TrafficMix mix, ApiClient api, int workers, Duration length, LatencyReport report)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + length.toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        for (int w = 0; w < workers; w++) {
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    TrafficMix.Call call = mix.next();
+                    long sent = System.nanoTime();
+                    int status;
+                    try {
+                        status = api.send(call.request());
+                    } catch (IOException e) {
+                        status = 0;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (report != null) {
+                        report.record(call.endpoint(), System.nanoTime() - sent, status);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(length.toSeconds() + 120, TimeUnit.SECONDS);
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static int countDoubleBookings(ConfigurableApplicationContext context) {
+        EmployeeReservationService reservations = context.getBean(EmployeeReservationService.class);
+        Map<String, Integer> routesPerEmployeeDay = new HashMap<>();
+        for (Route route : context.getBean(MongoTemplate.class).findAll(Route.class)) {
+            if (route.getAssignedEmployees() == null) {
+                continue;
+            }
+            String day = reservations.dayOf(route);
+            for (String employeeId : route.getAssignedEmployees()) {
+                routesPerEmployeeDay.merge(day + ":" + employeeId, 1, Integer::sum);
+            }
+        }
+        return (int) routesPerEmployeeDay.values().stream().filter(routes -> routes > 1).count();
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecocollect.wastemanagement.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of {@link LoadTest}: {@code --name=value} options, anything else is passed to the application
+ */
+final class LoadTestOptions {
+
+    static final String DEFAULT_MIX =
+            "telemetry:40,point:15,points:5,dashboard:15,notifications:5,routes:5,optimize:10,plan:5";
+
+    int points = 2000;
+    int vehicles = 40;
+    int employees = 200;
+    int notifications = 20_000;
+    int concurrency = 16;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(60);
+    long seed = 42;
+    Map<String, Integer> mix = parseMix(DEFAULT_MIX);
+
+    /**
+     * Existing MongoDB (e.g. a local mongod) instead of the in-memory stand-in; the database is dropped first
+     */
+    String mongodbUri;
+    String database = "ecocollect-loadtest";
+    String csv;
+    final List<String> applicationArgs = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = arg.startsWith("--") && eq > 0 ? arg.substring(2, eq) : "";
+            String value = eq > 0 ? arg.substring(eq + 1) : "";
+            switch (name) {
+                case "points" -> options.points = Integer.parseInt(value);
+                case "vehicles" -> options.vehicles = Integer.parseInt(value);
+                case "employees" -> options.employees = Integer.parseInt(value);
+                case "notifications" -> options.notifications = Integer.parseInt(value);
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "warmup" -> options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> options.duration = Duration.ofSeconds(Long.parseLong(value));
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "mongodb-uri" -> options.mongodbUri = value;
+                case "database" -> options.database = value;
+                case "csv" -> options.csv = value;
+                default -> options.applicationArgs.add(arg);
+            }
+        }
+        if (options.points < 2 || options.vehicles < 1 || options.employees < 1 || options.concurrency < 1) {
+            throw new IllegalArgumentException("Need at least 2 points, 1 vehicle, 1 employee and 1 worker");
+        }
+        return options;
+    }
+
+    /**
+     * {@code operation:weight,...}, see {@link TrafficMix} for the operation names
+     */
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry '" + entry + "', expected operation:weight");
+            }
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecocollect.wastemanagement.loadtest;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Heap allocated and peak heap in use over a measurement, for the whole JVM (backend and load generator).
+ * Allocation is read per platform thread: virtual threads and threads that end during the measurement
+ * are not counted, so compare runs with platform-thread request handling.
+ */
+final class MemoryUse {
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Map<Long, Long> allocatedAtStart = new HashMap<>();
+
+    private MemoryUse() {
+    }
+
+    static MemoryUse start() {
+        MemoryUse memory = new MemoryUse();
+        System.gc();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+        memory.allocatedByThread().forEach(memory.allocatedAtStart::put);
+        return memory;
+    }
+
+    void print(PrintStream out, int requests) {
+        long allocated = 0;
+        for (Map.Entry<Long, Long> thread : allocatedByThread().entrySet()) {
+            allocated += thread.getValue() - allocatedAtStart.getOrDefault(thread.getKey(), 0L);
+        }
+        // Sum of each pool's own peak: an upper bound of the heap in use at any one time
+        long peak = heapPools().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        out.printf("Heap: %d MB allocated, %d KB per request; peak in use %d MB%n", allocated >> 20,
+                requests == 0 ? 0 : (allocated / requests) >> 10, peak >> 20);
+    }
+
+    private Map<Long, Long> allocatedByThread() {
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+
+    private static Stream<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream().filter(pool -> pool.getType() == MemoryType.HEAP);
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecocollect.wastemanagement.loadtest;
+
+import com.ecocollect.wastemanagement.dto.CollectionPointRequest;
+import com.ecocollect.wastemanagement.dto.RouteOptimizationRequest;
+
+import java.net.http.HttpRequest;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Weighted request mix. Operations:
+ * <ul>
+ *     <li>{@code telemetry}: a sensor reports a new fill level (PATCH of one point)</li>
+ *     <li>{@code point}, {@code points}, {@code routes}, {@code notifications}, {@code dashboard}: reads</li>
+ *     <li>{@code points-ndjson}, {@code notifications-ndjson}, {@code dashboard-ndjson}: the same reads
+ *     with {@code Accept: application/x-ndjson}, served by the reactive streams</li>
+ *     <li>{@code optimize}: ordering of 20 random points</li>
+ *     <li>{@code plan}: full planning with a crew of two, on one of the next three days</li>
+ * </ul>
+ */
+final class TrafficMix {
+
+    private static final int OPTIMIZE_POINTS = 20;
+
+    /**
+     * Endpoint label (what the report groups by) and the request to send
+     */
+    record Call(String endpoint, HttpRequest request) {
+    }
+
+    private final List<Function<ThreadLocalRandom, Call>> operations = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    TrafficMix(Map<String, Integer> weights, ApiClient api, CitySeeder city, ZoneId zone) {
+        List<String> pointIds = new ArrayList<>(city.points.keySet());
+        Map<String, Function<ThreadLocalRandom, Call>> known = new HashMap<>();
+        known.put("telemetry", random -> {
+            String id = pointIds.get(random.nextInt(pointIds.size()));
+            CollectionPointRequest body = copy(city.points.get(id));
+            body.setFillLevel(random.nextInt(101));
+            return new Call("PATCH /collection-points/{id}", api.request("PATCH", "/collection-points/" + id, body));
+        });
+        known.put("point", random -> new Call("GET /collection-points/{id}",
+                api.request("GET", "/collection-points/" + pointIds.get(random.nextInt(pointIds.size())), null)));
+        known.put("points", random -> new Call("GET /collection-points", api.request("GET", "/collection-points", null)));
+        known.put("routes", random -> new Call("GET /routes", api.request("GET", "/routes", null)));
+        known.put("notifications", random -> new Call("GET /notifications", api.request("GET", "/notifications", null)));
+        known.put("dashboard", random -> new Call("GET /dashboard/stats", api.request("GET", "/dashboard/stats", null)));
+        known.put("points-ndjson", random -> new Call("GET /collection-points (ndjson)",
+                api.request("GET", "/collection-points", null, ApiClient.NDJSON)));
+        known.put("notifications-ndjson", random -> new Call("GET /notifications (ndjson)",
+                api.request("GET", "/notifications", null, ApiClient.NDJSON)));
+        known.put("dashboard-ndjson", random -> new Call("GET /dashboard/stats (ndjson)",
+                api.request("GET", "/dashboard/stats", null, ApiClient.NDJSON)));
+        known.put("optimize", random -> {
+            RouteOptimizationRequest body = new RouteOptimizationRequest();
+            body.setCollectionPointIds(random.ints(0, pointIds.size()).distinct()
+                    .limit(Math.min(OPTIMIZE_POINTS, pointIds.size()))
+                    .mapToObj(pointIds::get).toList());
+            body.setVehicleId(city.vehicleIds.get(random.nextInt(city.vehicleIds.size())));
+            body.setStartTime(startOfShift(random, zone));
+            return new Call("POST /routes/optimize", api.request("POST", "/routes/optimize", body));
+        });
+        known.put("plan", random -> {
+            Map<String, Object> body = new HashMap<>();
+            body.put("zone", CitySeeder.ZONES[random.nextInt(CitySeeder.ZONES.length)]);
+            body.put("vehicleId", city.vehicleIds.get(random.nextInt(city.vehicleIds.size())));
+            body.put("numberOfEmployees", 2);
+            body.put("startTime", startOfShift(random, zone).toString());
+            return new Call("POST /routes/plan", api.request("POST", "/routes/plan", body));
+        });
+
+        cumulativeWeights = new int[weights.size()];
+        int sum = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Function<ThreadLocalRandom, Call> operation = known.get(entry.getKey());
+            if (operation == null) {
+                throw new IllegalArgumentException("Unknown operation '" + entry.getKey() + "', expected one of "
+                        + known.keySet());
+            }
+            sum += entry.getValue();
+            cumulativeWeights[operations.size()] = sum;
+            operations.add(operation);
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("Mix weights must add up to more than zero");
+        }
+        totalWeight = sum;
+    }
+
+    Call next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pick = random.nextInt(totalWeight);
+        int i = 0;
+        while (cumulativeWeights[i] <= pick) {
+            i++;
+        }
+        return operations.get(i).apply(random);
+    }
+
+    /**
+     * 06:00-09:30 on one of the next three days, so plans of different workers compete for the same crews
+     */
+    private static Instant startOfShift(ThreadLocalRandom random, ZoneId zone) {
+        return LocalDate.now(zone).plusDays(1 + random.nextInt(3))
+                .atTime(6, 0).plusMinutes(30L * random.nextInt(8))
+                .atZone(zone).toInstant();
+    }
+
+    private static CollectionPointRequest copy(CollectionPointRequest p) {
+        CollectionPointRequest c = new CollectionPointRequest();
+        c.setName(p.getName());
+        c.setAddress(p.getAddress());
+        c.setWasteType(p.getWasteType());
+        c.setFillLevel(p.getFillLevel());
+        c.setStatus(p.getStatus());
+        c.setLatitude(p.getLatitude());
+        c.setLongitude(p.getLongitude());
+        c.setServiceWindowStart(p.getServiceWindowStart());
+        c.setServiceWindowEnd(p.getServiceWindowEnd());
+        c.setServiceMinutes(p.getServiceMinutes());
+        return c;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecocollect.wastemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Server-sent alert/notification stream settings ({@code live-events.*} in application.yml)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "live-events")
+@Data
+public class LiveEventProperties {
+
+    /**
+     * Events held for one subscriber that reads slower than they arrive; beyond it the oldest are dropped
+     */
+    private int subscriberBuffer = 256;
+
+    /**
+     * Interval of the keep-alive comments, which also detect clients that went away
+     */
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
@@ -0,0 +1,64 @@
+package com.ecocollect.wastemanagement.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the {@code @Indexed} / {@code @CompoundIndex} indexes once the application is ready, on a
+ * background thread, instead of during context refresh (spring.data.mongodb.auto-index-creation is off).
+ * Until it finishes, queries may scan and unique constraints (plate numbers, usernames) are not enforced.
+ */
+@Slf4j
+@Component
+public class MongoIndexInitializer {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final TaskExecutor taskExecutor;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+            MongoMappingContext mappingContext,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexesInBackground() {
+        taskExecutor.execute(this::createIndexes);
+    }
+
+    void createIndexes() {
+        long start = System.nanoTime();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        int created = 0;
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                try {
+                    indexOps.ensureIndex(index);
+                    created++;
+                } catch (RuntimeException e) {
+                    log.error("Could not create index {} on {}", index.getIndexKeys(), entity.getCollection(), e);
+                }
+            }
+        }
+        log.info("Ensured {} Mongo indexes in {} ms", created, (System.nanoTime() - start) / 1_000_000);
+    }
+}
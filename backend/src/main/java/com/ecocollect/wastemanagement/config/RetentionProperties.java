@@ -0,0 +1,31 @@
+package com.ecocollect.wastemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Notification and alert retention settings ({@code retention.*} in application.yml)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "retention")
+@Data
+public class RetentionProperties {
+
+    /**
+     * How long a notification is kept after it was marked read (TTL index on readAt)
+     */
+    private Duration readNotificationTtl = Duration.ofDays(30);
+
+    /**
+     * Acknowledged alerts older than this are folded into per-day summaries and deleted
+     */
+    private Duration alertCompactionAge = Duration.ofDays(30);
+
+    /**
+     * Alerts read, summarized and deleted per round of the compaction job
+     */
+    private int compactionBatchSize = 1000;
+}
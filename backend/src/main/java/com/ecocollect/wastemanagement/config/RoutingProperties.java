@@ -0,0 +1,29 @@
+package com.ecocollect.wastemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Road-network routing settings ({@code routing.*} in application.yml)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "routing")
+@Data
+public class RoutingProperties {
+
+    /**
+     * OpenStreetMap XML extract (.osm or .osm.gz). When empty, straight-line distances are used.
+     */
+    private String osmFile;
+
+    /**
+     * Directory holding memory-mapped travel matrices
+     */
+    private String cacheDir;
+
+    /**
+     * Speed assumed for straight-line fallbacks and for the leg between a point and its snapped node
+     */
+    private double fallbackSpeedKmh = 30.0;
+}
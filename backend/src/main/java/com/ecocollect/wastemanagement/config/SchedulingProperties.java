@@ -0,0 +1,45 @@
+package com.ecocollect.wastemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.ZoneId;
+
+/**
+ * Route scheduling settings ({@code scheduling.*} in application.yml)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "scheduling")
+@Data
+public class SchedulingProperties {
+
+    /**
+     * Time spent at a collection point that does not define its own service time
+     */
+    private int defaultServiceMinutes = 10;
+
+    /**
+     * Crew shift length used when a request does not give one
+     */
+    private int defaultShiftMinutes = 480;
+
+    /**
+     * Time zone in which collection point service windows are expressed; empty for the system zone
+     */
+    private String timeZone;
+
+    /**
+     * Wall-clock budget of the optimizer's local search per route
+     */
+    private long localSearchMillis = 200;
+
+    /**
+     * Wall-clock budget of the local search when re-planning the rest of a route in progress
+     */
+    private long reoptimizeMillis = 100;
+
+    public ZoneId zoneId() {
+        return timeZone != null && !timeZone.isBlank() ? ZoneId.of(timeZone) : ZoneId.systemDefault();
+    }
+}
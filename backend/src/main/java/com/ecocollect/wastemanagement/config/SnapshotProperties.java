@@ -0,0 +1,32 @@
+package com.ecocollect.wastemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * In-memory city snapshot settings ({@code city-snapshot.*} in application.yml)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "city-snapshot")
+@Data
+public class SnapshotProperties {
+
+    /**
+     * Delay between two reads of the collection point change feed
+     */
+    private Duration refreshInterval = Duration.ofSeconds(1);
+
+    /**
+     * The snapshot is rebuilt from the whole collection this often, as a safety net
+     * for writes made outside the services (e.g. directly in the database)
+     */
+    private Duration fullReloadInterval = Duration.ofMinutes(10);
+
+    /**
+     * Changes read per change feed page
+     */
+    private int feedBatchSize = 5000;
+}
@@ -0,0 +1,51 @@
+package com.ecocollect.wastemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Live vehicle tracking settings ({@code tracking.*} in application.yml)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "tracking")
+@Data
+public class TrackingProperties {
+
+    /**
+     * Vehicles whose latest position can be held in memory at once
+     */
+    private int maxVehicles = 4096;
+
+    /**
+     * A ping is kept in the track once this long after the previous track point...
+     */
+    private Duration trackInterval = Duration.ofSeconds(30);
+
+    /**
+     * ...or once this far from it
+     */
+    private double trackDistanceMeters = 50;
+
+    /**
+     * Track points waiting to be written; beyond it new ones are dropped
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * Track points written per insert
+     */
+    private int flushBatchSize = 1000;
+
+    /**
+     * Delay between two writes of the queued track points
+     */
+    private Duration flushInterval = Duration.ofSeconds(5);
+
+    /**
+     * How long a positions snapshot is served before it is rebuilt
+     */
+    private Duration snapshotMaxAge = Duration.ofSeconds(1);
+}
@@ -0,0 +1,53 @@
+package com.ecocollect.wastemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Waste volume model and unload site settings ({@code volume.*} in application.yml)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "volume")
+@Data
+public class VolumeProperties {
+
+    /**
+     * Container size of points that do not give their own, in liters
+     */
+    private int defaultContainerLiters = 1100;
+
+    /**
+     * Share of a container's volume left once compacted in the vehicle, per waste type
+     */
+    private Map<String, Double> compactionFactors = new HashMap<>();
+
+    /**
+     * Compaction factor of waste types missing from {@link #compactionFactors}
+     */
+    private double defaultCompactionFactor = 0.5;
+
+    /**
+     * Where full vehicles empty themselves; without it, routes are only checked against capacity
+     */
+    private Double unloadLatitude;
+
+    private Double unloadLongitude;
+
+    /**
+     * Time spent emptying a vehicle at the unload site
+     */
+    private int unloadMinutes = 20;
+
+    /**
+     * Unload trips a planned route may include, which bounds how many liters planning selects
+     */
+    private int maxUnloadTrips = 2;
+
+    public boolean hasUnloadSite() {
+        return unloadLatitude != null && unloadLongitude != null;
+    }
+}
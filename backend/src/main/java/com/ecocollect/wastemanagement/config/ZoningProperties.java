@@ -0,0 +1,34 @@
+package com.ecocollect.wastemanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Automatic zone partitioning settings ({@code zoning.*} in application.yml)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "zoning")
+@Data
+public class ZoningProperties {
+
+    /**
+     * How far above the average expected volume a proposed zone may go (0.1 = 10%)
+     */
+    private double capacitySlack = 0.1;
+
+    /**
+     * Limit on the clustering rounds of one proposal
+     */
+    private int maxIterations = 100;
+
+    /**
+     * Largest number of zones a proposal may ask for
+     */
+    private int maxZones = 200;
+
+    /**
+     * Seed of the initial centroid choice, so the same points give the same proposal
+     */
+    private long seed = 42;
+}
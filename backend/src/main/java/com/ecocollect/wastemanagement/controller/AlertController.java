@@ -1,14 +1,18 @@
 package com.ecocollect.wastemanagement.controller;
 
 import com.ecocollect.wastemanagement.dto.AlertRequest;
+import com.ecocollect.wastemanagement.exception.ValidationException;
 import com.ecocollect.wastemanagement.model.Alert;
+import com.ecocollect.wastemanagement.model.AlertDailySummary;
 import com.ecocollect.wastemanagement.service.AlertService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -23,6 +27,25 @@ public class AlertController {
         return ResponseEntity.ok(service.getAllAlerts());
     }
     
+    @GetMapping(params = "acknowledged")
+    public ResponseEntity<List<Alert>> getAlerts(
+            @RequestParam boolean acknowledged,
+            @RequestParam(required = false) String severity,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 500) {
+            throw new ValidationException("page must be >= 0 and size between 1 and 500");
+        }
+        return ResponseEntity.ok(service.getAlerts(acknowledged, severity, page, size));
+    }
+    
+    @GetMapping("/summaries")
+    public ResponseEntity<List<AlertDailySummary>> getDailySummaries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.getDailySummaries(from, to));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Alert> getAlert(@PathVariable String id) {
         return ResponseEntity.ok(service.getAlertById(id));
@@ -1,13 +1,21 @@
 package com.ecocollect.wastemanagement.controller;
 
+import com.ecocollect.wastemanagement.dto.ChangeFeedResponse;
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
 import com.ecocollect.wastemanagement.dto.CollectionPointRequest;
+import com.ecocollect.wastemanagement.exception.ValidationException;
 import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.service.ChangeSequenceService;
 import com.ecocollect.wastemanagement.service.CollectionPointService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -19,13 +27,44 @@ public class CollectionPointController {
     private final CollectionPointService service;
     
     @GetMapping
-    public ResponseEntity<List<CollectionPoint>> getAllCollectionPoints() {
-        return ResponseEntity.ok(service.getAllCollectionPoints());
+    public ResponseEntity<List<CollectionPoint>> getAllCollectionPoints(WebRequest webRequest) {
+        // The tag is the committed change sequence (writes still in flight are not in it).
+        // The list only carries it if nothing was committed while the list was read.
+        String eTag = service.getListETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        List<CollectionPoint> body = service.getAllCollectionPoints();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag.equals(service.getListETag())) {
+            response.eTag(eTag);
+        }
+        return response.body(body);
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CollectionPoint> streamAllCollectionPoints() {
+        return service.streamAllCollectionPoints();
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeFeedResponse<CollectionPoint>> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "1000") int limit) {
+        if (since < 0 || limit < 1 || limit > 10000) {
+            throw new ValidationException("since must be >= 0 and limit between 1 and 10000");
+        }
+        return ResponseEntity.ok(service.getChangesSince(since, limit));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<CollectionPoint> getCollectionPoint(@PathVariable String id) {
-        return ResponseEntity.ok(service.getCollectionPointById(id));
+    public ResponseEntity<CollectionPoint> getCollectionPoint(@PathVariable String id, WebRequest webRequest) {
+        CollectionPoint point = service.getCollectionPointById(id);
+        String eTag = ChangeSequenceService.entityETag(point.getChangeSeq());
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(point);
     }
     
     @PostMapping
@@ -35,6 +74,11 @@ public class CollectionPointController {
                 .body(service.createCollectionPoint(request));
     }
     
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResponse> bulkWrite(@RequestBody BulkRequest<CollectionPointRequest> request) {
+        return ResponseEntity.ok(service.bulkWrite(request));
+    }
+    
     @PatchMapping("/{id}")
     public ResponseEntity<CollectionPoint> updateCollectionPoint(
             @PathVariable String id,
@@ -3,10 +3,12 @@ package com.ecocollect.wastemanagement.controller;
 import com.ecocollect.wastemanagement.dto.DashboardStatsResponse;
 import com.ecocollect.wastemanagement.service.DashboardService;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -22,4 +24,10 @@ public class DashboardController {
     public ResponseEntity<DashboardStatsResponse> getStats() {
         return ResponseEntity.ok(service.getDashboardStats());
     }
+
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DashboardStatsResponse> countStats() {
+        // Streamed as a single NDJSON line; MVC only writes NDJSON for multi-value types
+        return service.countDashboardStats().flux();
+    }
 }
@@ -0,0 +1,49 @@
+package com.ecocollect.wastemanagement.controller;
+
+import com.ecocollect.wastemanagement.dto.DepotRequest;
+import com.ecocollect.wastemanagement.model.Depot;
+import com.ecocollect.wastemanagement.service.DepotService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/depots")
+@RequiredArgsConstructor
+public class DepotController {
+    
+    private final DepotService service;
+    
+    @GetMapping
+    public ResponseEntity<List<Depot>> getAllDepots() {
+        return ResponseEntity.ok(service.getAllDepots());
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<Depot> getDepot(@PathVariable String id) {
+        return ResponseEntity.ok(service.getDepotById(id));
+    }
+    
+    @PostMapping
+    public ResponseEntity<Depot> createDepot(@Valid @RequestBody DepotRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(service.createDepot(request));
+    }
+    
+    @PatchMapping("/{id}")
+    public ResponseEntity<Depot> updateDepot(
+            @PathVariable String id,
+            @Valid @RequestBody DepotRequest request) {
+        return ResponseEntity.ok(service.updateDepot(id, request));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteDepot(@PathVariable String id) {
+        service.deleteDepot(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,5 +1,7 @@
 package com.ecocollect.wastemanagement.controller;
 
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
 import com.ecocollect.wastemanagement.dto.EmployeeRequest;
 import com.ecocollect.wastemanagement.model.Employee;
 import com.ecocollect.wastemanagement.service.EmployeeService;
@@ -34,6 +36,11 @@ public class EmployeeController {
                 .body(service.createEmployee(request));
     }
     
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResponse> bulkWrite(@RequestBody BulkRequest<EmployeeRequest> request) {
+        return ResponseEntity.ok(service.bulkWrite(request));
+    }
+    
     @PatchMapping("/{id}")
     public ResponseEntity<Employee> updateEmployee(
             @PathVariable String id,
@@ -0,0 +1,29 @@
+package com.ecocollect.wastemanagement.controller;
+
+import com.ecocollect.wastemanagement.service.LiveEventService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class LiveEventController {
+    
+    private final LiveEventService service;
+    
+    /**
+     * New alerts and notifications as server-sent events, e.g. {@code ?kind=alert&severity=critical&zone=Centre}
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamEvents(
+            @RequestParam(required = false) Set<String> kind,
+            @RequestParam(required = false) Set<String> severity,
+            @RequestParam(required = false) Set<String> zone) {
+        return service.subscribe(kind, severity, zone);
+    }
+}
@@ -1,13 +1,16 @@
 package com.ecocollect.wastemanagement.controller;
 
 import com.ecocollect.wastemanagement.dto.NotificationRequest;
+import com.ecocollect.wastemanagement.exception.ValidationException;
 import com.ecocollect.wastemanagement.model.Notification;
 import com.ecocollect.wastemanagement.service.NotificationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.HashMap;
 import java.util.List;
@@ -25,6 +28,27 @@ public class NotificationController {
         return ResponseEntity.ok(service.getAllNotifications());
     }
     
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Notification> streamAllNotifications() {
+        return service.streamAllNotifications();
+    }
+    
+    @GetMapping(params = "read")
+    public ResponseEntity<List<Notification>> getNotifications(
+            @RequestParam boolean read,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 500) {
+            throw new ValidationException("page must be >= 0 and size between 1 and 500");
+        }
+        return ResponseEntity.ok(service.getNotifications(read, page, size));
+    }
+    
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount() {
+        return ResponseEntity.ok(Map.of("count", service.countUnread()));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Notification> getNotification(@PathVariable String id) {
         return ResponseEntity.ok(service.getNotificationById(id));
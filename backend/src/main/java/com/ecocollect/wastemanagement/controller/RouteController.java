@@ -2,7 +2,13 @@ package com.ecocollect.wastemanagement.controller;
 
 import com.ecocollect.wastemanagement.dto.RouteOptimizationRequest;
 import com.ecocollect.wastemanagement.dto.RouteOptimizationResponse;
+import com.ecocollect.wastemanagement.dto.RouteReoptimizationRequest;
+import com.ecocollect.wastemanagement.dto.RouteReoptimizationResponse;
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
 import com.ecocollect.wastemanagement.dto.RouteRequest;
+import com.ecocollect.wastemanagement.dto.RouteStopResponse;
+import com.ecocollect.wastemanagement.exception.ValidationException;
 import com.ecocollect.wastemanagement.model.Route;
 import com.ecocollect.wastemanagement.service.*;
 import jakarta.validation.Valid;
@@ -10,7 +16,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -23,15 +33,32 @@ public class RouteController {
     private final RouteOptimizationService optimizationService;
     private final EmployeeAssignmentService assignmentService;
     private final RoutePlanningService planningService;
+    private final RouteReoptimizationService reoptimizationService;
     
     @GetMapping
-    public ResponseEntity<List<Route>> getAllRoutes() {
-        return ResponseEntity.ok(service.getAllRoutes());
+    public ResponseEntity<List<Route>> getAllRoutes(WebRequest webRequest) {
+        // The tag is the committed change sequence (writes still in flight are not in it).
+        // The list only carries it if nothing was committed while the list was read.
+        String eTag = service.getListETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        List<Route> body = service.getAllRoutes();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag.equals(service.getListETag())) {
+            response.eTag(eTag);
+        }
+        return response.body(body);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Route> getRoute(@PathVariable String id) {
-        return ResponseEntity.ok(service.getRouteById(id));
+    public ResponseEntity<Route> getRoute(@PathVariable String id, WebRequest webRequest) {
+        Route route = service.getRouteById(id);
+        String eTag = ChangeSequenceService.entityETag(route.getChangeSeq());
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(route);
     }
     
     @PostMapping
@@ -40,6 +67,11 @@ public class RouteController {
                 .body(service.createRoute(request));
     }
     
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResponse> bulkWrite(@RequestBody BulkRequest<RouteRequest> request) {
+        return ResponseEntity.ok(service.bulkWrite(request));
+    }
+    
     @PatchMapping("/{id}")
     public ResponseEntity<Route> updateRoute(
             @PathVariable String id,
@@ -59,6 +91,18 @@ public class RouteController {
         return ResponseEntity.ok(optimizationService.optimizeRoute(request));
     }
     
+    @GetMapping("/{id}/stops")
+    public ResponseEntity<List<RouteStopResponse>> getRouteStops(@PathVariable String id) {
+        return ResponseEntity.ok(service.getRouteStops(id));
+    }
+    
+    @PostMapping("/{id}/reoptimize")
+    public ResponseEntity<RouteReoptimizationResponse> reoptimizeRoute(
+            @PathVariable String id,
+            @Valid @RequestBody RouteReoptimizationRequest request) {
+        return ResponseEntity.ok(reoptimizationService.reoptimize(id, request));
+    }
+    
     @PostMapping("/{id}/assign-employees")
     public ResponseEntity<Route> assignEmployees(
             @PathVariable String id,
@@ -67,6 +111,26 @@ public class RouteController {
         return ResponseEntity.ok(assignmentService.assignEmployeesToRoute(id, numberOfEmployees));
     }
     
+    @PostMapping("/assign-employees")
+    public ResponseEntity<List<Route>> assignEmployeesForDay(
+            @RequestBody Map<String, Object> request) {
+        Integer numberOfEmployees = request.get("numberOfEmployees") != null ?
+            ((Number) request.get("numberOfEmployees")).intValue() : null;
+        if (request.get("routeIds") != null) {
+            @SuppressWarnings("unchecked")
+            List<String> routeIds = (List<String>) request.get("routeIds");
+            return ResponseEntity.ok(assignmentService.assignEmployeesToRoutes(
+                service.getRoutesByIds(routeIds), numberOfEmployees));
+        }
+        LocalDate date;
+        try {
+            date = request.get("date") != null ? LocalDate.parse((String) request.get("date")) : LocalDate.now();
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("date must be an ISO-8601 date (yyyy-MM-dd)");
+        }
+        return ResponseEntity.ok(assignmentService.assignEmployeesForDay(date, numberOfEmployees));
+    }
+    
     @PostMapping("/plan")
     public ResponseEntity<Route> planRoute(
             @RequestBody Map<String, Object> request) {
@@ -74,8 +138,18 @@ public class RouteController {
         String vehicleId = (String) request.get("vehicleId");
         Integer numberOfEmployees = request.get("numberOfEmployees") != null ? 
             ((Number) request.get("numberOfEmployees")).intValue() : null;
+        Instant startTime = null;
+        if (request.get("startTime") != null) {
+            try {
+                startTime = Instant.parse((String) request.get("startTime"));
+            } catch (DateTimeParseException e) {
+                throw new ValidationException("startTime must be an ISO-8601 instant");
+            }
+        }
+        Integer shiftMinutes = request.get("shiftMinutes") != null ?
+            ((Number) request.get("shiftMinutes")).intValue() : null;
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(planningService.planRoute(zone, vehicleId, numberOfEmployees));
+                .body(planningService.planRoute(zone, vehicleId, numberOfEmployees, startTime, shiftMinutes));
     }
 }
 
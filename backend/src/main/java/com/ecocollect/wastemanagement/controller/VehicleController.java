@@ -1,14 +1,24 @@
 package com.ecocollect.wastemanagement.controller;
 
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
+import com.ecocollect.wastemanagement.dto.VehiclePingRequest;
+import com.ecocollect.wastemanagement.dto.VehiclePositionResponse;
 import com.ecocollect.wastemanagement.dto.VehicleRequest;
+import com.ecocollect.wastemanagement.exception.ValidationException;
 import com.ecocollect.wastemanagement.model.Vehicle;
+import com.ecocollect.wastemanagement.model.VehicleTrackPoint;
 import com.ecocollect.wastemanagement.service.VehicleService;
+import com.ecocollect.wastemanagement.service.VehicleTrackingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -17,12 +27,21 @@ import java.util.List;
 public class VehicleController {
     
     private final VehicleService service;
+    private final VehicleTrackingService trackingService;
     
     @GetMapping
     public ResponseEntity<List<Vehicle>> getAllVehicles() {
         return ResponseEntity.ok(service.getAllVehicles());
     }
     
+    /**
+     * Latest known position of every tracked vehicle, for the map
+     */
+    @GetMapping("/positions")
+    public ResponseEntity<List<VehiclePositionResponse>> getPositions() {
+        return ResponseEntity.ok(trackingService.getPositions());
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Vehicle> getVehicle(@PathVariable String id) {
         return ResponseEntity.ok(service.getVehicleById(id));
@@ -34,6 +53,11 @@ public class VehicleController {
                 .body(service.createVehicle(request));
     }
     
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResponse> bulkWrite(@RequestBody BulkRequest<VehicleRequest> request) {
+        return ResponseEntity.ok(service.bulkWrite(request));
+    }
+    
     @PatchMapping("/{id}")
     public ResponseEntity<Vehicle> updateVehicle(
             @PathVariable String id,
@@ -41,6 +65,30 @@ public class VehicleController {
         return ResponseEntity.ok(service.updateVehicle(id, request));
     }
     
+    @PostMapping("/{id}/position")
+    public ResponseEntity<Void> recordPosition(
+            @PathVariable String id,
+            @Valid @RequestBody VehiclePingRequest request) {
+        trackingService.recordPing(id, request);
+        return ResponseEntity.accepted().build();
+    }
+    
+    /**
+     * Stored (downsampled) track, by default the last 24 hours
+     */
+    @GetMapping("/{id}/track")
+    public ResponseEntity<List<VehicleTrackPoint>> getTrack(
+            @PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        if (!start.isBefore(end)) {
+            throw new ValidationException("from must be before to");
+        }
+        return ResponseEntity.ok(trackingService.getTrack(id, start, end));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteVehicle(@PathVariable String id) {
         service.deleteVehicle(id);
@@ -0,0 +1,45 @@
+package com.ecocollect.wastemanagement.controller;
+
+import com.ecocollect.wastemanagement.dto.ZoneApplyRequest;
+import com.ecocollect.wastemanagement.dto.ZoneProposalResponse;
+import com.ecocollect.wastemanagement.model.Zone;
+import com.ecocollect.wastemanagement.service.ZoneService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/zones")
+@RequiredArgsConstructor
+public class ZoneController {
+    
+    private final ZoneService service;
+    
+    @GetMapping
+    public ResponseEntity<List<Zone>> getAllZones() {
+        return ResponseEntity.ok(service.getAllZones());
+    }
+    
+    @GetMapping("/{name}")
+    public ResponseEntity<Zone> getZone(@PathVariable String name) {
+        return ResponseEntity.ok(service.getZoneByName(name));
+    }
+    
+    /**
+     * Balanced partition of all collection points into {@code count} zones; nothing is saved
+     */
+    @PostMapping("/proposals")
+    public ResponseEntity<ZoneProposalResponse> proposeZones(
+            @RequestParam int count,
+            @RequestParam(required = false) String prefix) {
+        return ResponseEntity.ok(service.proposeZones(count, prefix));
+    }
+    
+    @PostMapping("/apply")
+    public ResponseEntity<List<Zone>> applyZones(@Valid @RequestBody ZoneApplyRequest request) {
+        return ResponseEntity.ok(service.applyZones(request));
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,8 +22,10 @@ public class AlertRequest {
     
     private String location;
     
-    @NotBlank(message = "Timestamp is required")
-    private String timestamp;
+    private String zone;
+    
+    @NotNull(message = "Timestamp is required")
+    private Instant timestamp;
     
     private Boolean acknowledged = false;
 }
@@ -0,0 +1,28 @@
+package com.ecocollect.wastemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Many creates, updates and deletes of one entity type in a single call.
+ * Items are validated and written independently; see {@link BulkResponse}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRequest<T> {
+    private List<T> create = new ArrayList<>();
+    private List<Update<T>> update = new ArrayList<>();
+    private List<String> delete = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Update<T> {
+        private String id;
+        private T data;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecocollect.wastemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResponse {
+    private List<ItemResult> results;
+    private Integer succeeded;
+    private Integer failed;
+    
+    public static BulkResponse of(List<ItemResult> results) {
+        int succeeded = (int) results.stream().filter(ItemResult::isSucceeded).count();
+        return new BulkResponse(results, succeeded, results.size() - succeeded);
+    }
+    
+    /**
+     * Outcome of one item; {@code index} is its position in the create, update or delete array
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private String operation;
+        private Integer index;
+        private String id;
+        private Integer status;
+        private String error;
+        
+        public boolean isSucceeded() {
+            return status < 400;
+        }
+    }
+}
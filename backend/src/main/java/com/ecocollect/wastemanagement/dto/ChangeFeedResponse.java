@@ -0,0 +1,31 @@
+package com.ecocollect.wastemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedResponse<T> {
+    /**
+     * Pass as {@code since} on the next poll
+     */
+    private Long seq;
+    
+    /**
+     * Created or updated since the requested sequence, current state
+     */
+    private List<T> upserts;
+    
+    /**
+     * Ids deleted since the requested sequence
+     */
+    private List<String> deletes;
+    
+    /**
+     * More changes are waiting beyond {@link #seq}
+     */
+    private Boolean hasMore;
+}
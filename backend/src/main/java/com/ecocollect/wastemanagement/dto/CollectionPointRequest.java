@@ -4,6 +4,7 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalTime;
 
 @Data
 @NoArgsConstructor
@@ -35,5 +36,15 @@ public class CollectionPointRequest {
     @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
     @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
     private Double longitude;
+    
+    private LocalTime serviceWindowStart;
+    
+    private LocalTime serviceWindowEnd;
+    
+    @Min(value = 0, message = "Service minutes must be non-negative")
+    private Integer serviceMinutes;
+    
+    @Min(value = 1, message = "Container size must be at least 1 liter")
+    private Integer containerLiters;
 }
 
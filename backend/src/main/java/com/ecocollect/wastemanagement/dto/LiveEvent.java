@@ -0,0 +1,19 @@
+package com.ecocollect.wastemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An alert or notification pushed to /api/events subscribers.
+ * For notifications, {@code severity} is the notification type.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveEvent {
+    private String kind;
+    private String severity;
+    private String zone;
+    private Object data;
+}
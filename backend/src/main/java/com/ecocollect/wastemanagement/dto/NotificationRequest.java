@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,8 +20,10 @@ public class NotificationRequest {
     @NotBlank(message = "Message is required")
     private String message;
     
-    @NotBlank(message = "Timestamp is required")
-    private String timestamp;
+    private String zone;
+    
+    @NotNull(message = "Timestamp is required")
+    private Instant timestamp;
     
     private Boolean read = false;
 }
@@ -4,6 +4,7 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.Instant;
 import java.util.List;
 
 @Data
@@ -17,5 +18,21 @@ public class RouteOptimizationRequest {
     private String vehicleId;
     
     private String zone;
+    
+    /**
+     * Depot to start and end at; defaults to the vehicle's home depot, then to the nearest one
+     */
+    private String depotId;
+    
+    /**
+     * Planned departure; defaults to now
+     */
+    private Instant startTime;
+    
+    /**
+     * Crew shift limit for the whole route; defaults to scheduling.default-shift-minutes
+     */
+    @Min(value = 1, message = "Shift minutes must be positive")
+    private Integer shiftMinutes;
 }
 
@@ -1,8 +1,11 @@
 package com.ecocollect.wastemanagement.dto;
 
+import com.ecocollect.wastemanagement.model.RouteStop;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @Data
@@ -13,5 +16,32 @@ public class RouteOptimizationResponse {
     private Double totalDistance;
     private String estimatedDuration;
     private String message;
+    private Instant startTime;
+    private Duration plannedDuration;
+    private Duration travelTime;
+    private Duration serviceTime;
+    private Duration waitingTime;
+    private List<Instant> serviceStarts;
+    private List<String> lateStopIds;
+    private Boolean withinShift;
+    private Integer distanceMeters;
+    private List<RouteStop> stops;
+    /**
+     * Depot the tour leaves from and returns to, null for an open tour
+     */
+    private String depotId;
+    /**
+     * Compacted liters picked up, see WasteVolumeService
+     */
+    private Long collectedLiters;
+    private Integer unloadTrips;
+    /**
+     * False when some trip carries more than the vehicle capacity (no unload site, or a single oversized stop)
+     */
+    private Boolean withinCapacity;
+    /**
+     * Liters above the vehicle capacity on the fullest trip, 0 when within capacity
+     */
+    private Long overloadLiters;
 }
 
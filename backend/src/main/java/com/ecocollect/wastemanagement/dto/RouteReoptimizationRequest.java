@@ -0,0 +1,49 @@
+package com.ecocollect.wastemanagement.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteReoptimizationRequest {
+    /**
+     * Stops not served yet, in their current order; defaults to the route's stops after completedPoints
+     */
+    private List<String> remainingPointIds;
+    
+    /**
+     * Vehicle position; defaults to the live position of the route's vehicle
+     */
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
+    /**
+     * Points to add to the route if they still fit
+     */
+    private List<String> insertPointIds;
+    
+    /**
+     * Also try to add the zone's critical points (fill level >= 90) not on the route yet
+     */
+    private Boolean includeCriticalPoints = true;
+    
+    /**
+     * Shift time left; defaults to the default shift minus the time since the scheduled start
+     */
+    @Min(value = 1, message = "Shift minutes must be positive")
+    private Integer shiftMinutes;
+    
+    /**
+     * Save the new order as the route's remaining stops
+     */
+    private Boolean apply = false;
+}
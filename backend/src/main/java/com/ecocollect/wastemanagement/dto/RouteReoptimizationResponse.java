@@ -0,0 +1,36 @@
+package com.ecocollect.wastemanagement.dto;
+
+import com.ecocollect.wastemanagement.model.RouteStop;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteReoptimizationResponse {
+    private String routeId;
+    private List<String> optimizedPointIds;
+    private List<String> insertedPointIds;
+    /**
+     * Requested or critical points left out because they no longer fit in the shift or their windows
+     */
+    private List<String> skippedPointIds;
+    private List<Instant> serviceStarts;
+    private List<String> lateStopIds;
+    private Boolean withinShift;
+    private Double totalDistance;
+    private Duration remainingDuration;
+    private Long computeMillis;
+    private List<RouteStop> stops;
+    private Long collectedLiters;
+    private Integer unloadTrips;
+    private Boolean withinCapacity;
+    /**
+     * Whether the new order was saved on the route
+     */
+    private Boolean applied;
+}
@@ -1,9 +1,13 @@
 package com.ecocollect.wastemanagement.dto;
 
+import com.ecocollect.wastemanagement.model.RouteStop;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @Data
@@ -37,5 +41,20 @@ public class RouteRequest {
     
     @NotBlank(message = "Distance is required")
     private String distance;
+    
+    private String depotId;
+    
+    private Instant scheduledStart;
+    
+    private Duration plannedDuration;
+    
+    @Min(value = 0, message = "Distance meters must be non-negative")
+    private Integer distanceMeters;
+    
+    /**
+     * Ordered stops; when given, they also set collectionPoints
+     */
+    @Valid
+    private List<RouteStop> stops;
 }
 
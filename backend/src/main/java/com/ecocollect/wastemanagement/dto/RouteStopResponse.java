@@ -0,0 +1,27 @@
+package com.ecocollect.wastemanagement.dto;
+
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStopResponse {
+    private Integer sequence;
+    private String pointId;
+    private Integer legMeters;
+    private Integer legSeconds;
+    private Instant eta;
+    private Boolean unloadBefore;
+    /**
+     * Stops before the route's completedPoints count are done
+     */
+    private Boolean completed;
+    /**
+     * Null when the collection point was deleted after the route was planned
+     */
+    private CollectionPoint point;
+}
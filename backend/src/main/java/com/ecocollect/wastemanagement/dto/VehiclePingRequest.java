@@ -0,0 +1,35 @@
+package com.ecocollect.wastemanagement.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehiclePingRequest {
+    @NotNull(message = "Latitude is required")
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @NotNull(message = "Longitude is required")
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
+    @PositiveOrZero(message = "Speed must be positive")
+    private Double speedKmh;
+    
+    @DecimalMin(value = "0.0", message = "Heading must be between 0 and 360")
+    @DecimalMax(value = "360.0", message = "Heading must be between 0 and 360")
+    private Double heading;
+    
+    /**
+     * When the device took the fix; the server's clock when absent
+     */
+    private Instant recordedAt;
+}
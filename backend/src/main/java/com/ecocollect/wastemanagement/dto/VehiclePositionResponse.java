@@ -0,0 +1,19 @@
+package com.ecocollect.wastemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehiclePositionResponse {
+    private String vehicleId;
+    private Double latitude;
+    private Double longitude;
+    private Double speedKmh;
+    private Double heading;
+    private Instant recordedAt;
+}
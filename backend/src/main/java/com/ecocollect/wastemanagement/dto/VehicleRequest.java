@@ -34,5 +34,7 @@ public class VehicleRequest {
     private String assignedDriver;
     
     private String currentRoute;
+    
+    private String depotId;
 }
 
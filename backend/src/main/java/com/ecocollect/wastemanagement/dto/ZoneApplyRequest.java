@@ -0,0 +1,20 @@
+package com.ecocollect.wastemanagement.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZoneApplyRequest {
+    /**
+     * Zones to create or replace; zones not listed are left as they are
+     */
+    @NotEmpty(message = "Zones are required")
+    @Valid
+    private List<ZoneAssignment> zones;
+}
@@ -0,0 +1,18 @@
+package com.ecocollect.wastemanagement.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZoneAssignment {
+    @NotBlank(message = "Zone name is required")
+    private String name;
+    
+    @NotEmpty(message = "Zone point IDs are required")
+    private List<String> pointIds;
+}
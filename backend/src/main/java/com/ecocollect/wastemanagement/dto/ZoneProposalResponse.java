@@ -0,0 +1,24 @@
+package com.ecocollect.wastemanagement.dto;
+
+import com.ecocollect.wastemanagement.model.Zone;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZoneProposalResponse {
+    private List<Zone> zones;
+    /**
+     * Points of each proposed zone; post them to /api/zones/apply to adopt the proposal
+     */
+    private List<ZoneAssignment> assignments;
+    /**
+     * Expected volume a zone may carry (average plus zoning.capacity-slack)
+     */
+    private Double capacity;
+    private Integer iterations;
+    private Long computeMillis;
+}
@@ -1,13 +1,16 @@
 package com.ecocollect.wastemanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.Instant;
 
 @Document(collection = "alerts")
+@CompoundIndex(name = "acknowledged_severity_timestamp", def = "{'acknowledged': 1, 'severity': 1, 'timestamp': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,8 +30,11 @@ public class Alert {
     @Field("location")
     private String location;
     
+    @Field("zone")
+    private String zone;
+    
     @Field("timestamp")
-    private String timestamp;
+    private Instant timestamp;
     
     @Field("acknowledged")
     private Boolean acknowledged = false;
@@ -0,0 +1,41 @@
+package com.ecocollect.wastemanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Counts of the acknowledged alerts of one day that were compacted away.
+ * The id is the day ({@code yyyy-MM-dd} in the scheduling time zone).
+ */
+@Document(collection = "alert_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertDailySummary {
+    @Id
+    private String day;
+    
+    @Field("total")
+    private Long total;
+    
+    @Field("bySeverity")
+    private Map<String, Long> bySeverity;
+    
+    @Field("byTitle")
+    private Map<String, Long> byTitle;
+    
+    @Field("firstAt")
+    private Instant firstAt;
+    
+    @Field("lastAt")
+    private Instant lastAt;
+    
+    @Field("compactedAt")
+    private Instant compactedAt;
+}
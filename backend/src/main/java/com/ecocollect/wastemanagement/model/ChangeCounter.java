@@ -0,0 +1,23 @@
+package com.ecocollect.wastemanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last change sequence handed out for a collection; the id is the collection name
+ */
+@Document(collection = "counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeCounter {
+    @Id
+    private String id;
+    
+    @Field("seq")
+    private Long seq = 0L;
+}
@@ -1,11 +1,13 @@
 package com.ecocollect.wastemanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalTime;
 
 @Document(collection = "collectionPoints")
 @Data
@@ -39,7 +41,29 @@ public class CollectionPoint {
     @Field("longitude")
     private Double longitude;
     
+    @Indexed
     @Field("assignedZone")
     private String assignedZone;
+    
+    @Field("serviceWindowStart")
+    private LocalTime serviceWindowStart;
+    
+    @Field("serviceWindowEnd")
+    private LocalTime serviceWindowEnd;
+    
+    @Field("serviceMinutes")
+    private Integer serviceMinutes;
+    
+    /**
+     * Container size in liters, volume.default-container-liters when not set
+     */
+    @Field("containerLiters")
+    private Integer containerLiters;
+    
+    /**
+     * Change sequence of the last write, see ChangeSequenceService
+     */
+    @Indexed
+    @Field("changeSeq")
+    private Long changeSeq;
 }
-
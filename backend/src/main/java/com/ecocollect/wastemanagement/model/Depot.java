@@ -0,0 +1,38 @@
+package com.ecocollect.wastemanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where vehicles start and end their tours
+ */
+@Document(collection = "depots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Depot {
+    @Id
+    private String id;
+    
+    @Field("name")
+    private String name;
+    
+    @Field("address")
+    private String address;
+    
+    @Field("latitude")
+    private Double latitude;
+    
+    @Field("longitude")
+    private Double longitude;
+    
+    /**
+     * Vehicles can empty themselves here in the middle of a tour
+     */
+    @Field("unloadSite")
+    private Boolean unloadSite = false;
+}
@@ -0,0 +1,34 @@
+package com.ecocollect.wastemanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+
+/**
+ * An employee booked on a route for one day.
+ * The id is {@code day:employeeId}, so the unique _id index makes each booking atomic.
+ */
+@Document(collection = "employee_reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeReservation {
+    @Id
+    private String id;
+    
+    @Field("employeeId")
+    private String employeeId;
+    
+    @Field("day")
+    private String day;
+    
+    @Field("routeId")
+    private String routeId;
+    
+    @Field("reservedAt")
+    private Instant reservedAt;
+}
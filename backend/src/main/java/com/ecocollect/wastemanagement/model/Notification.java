@@ -1,13 +1,19 @@
 package com.ecocollect.wastemanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.Instant;
 
+/**
+ * The read_timestamp index serves the unread list newest first and answers the unread count from the index alone
+ */
 @Document(collection = "notifications")
+@CompoundIndex(name = "read_timestamp", def = "{'read': 1, 'timestamp': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,10 +30,19 @@ public class Notification {
     @Field("message")
     private String message;
     
+    @Field("zone")
+    private String zone;
+    
     @Field("timestamp")
-    private String timestamp;
+    private Instant timestamp;
     
     @Field("read")
     private Boolean read = false;
+    
+    /**
+     * When the notification was marked read; read notifications expire through a TTL index on it
+     */
+    @Field("readAt")
+    private Instant readAt;
 }
 
@@ -1,11 +1,14 @@
 package com.ecocollect.wastemanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @Document(collection = "routes")
@@ -45,5 +48,35 @@ public class Route {
     
     @Field("distance")
     private String distance;
+    
+    /**
+     * Depot the route starts and ends at; routes without one are open paths
+     */
+    @Field("depotId")
+    private String depotId;
+    
+    /**
+     * Total road distance of {@link #stops}, with the legs from and back to the depot
+     */
+    @Field("distanceMeters")
+    private Integer distanceMeters;
+    
+    /**
+     * Collection points in visiting order
+     */
+    @Field("stops")
+    private List<RouteStop> stops;
+    
+    @Field("scheduledStart")
+    private Instant scheduledStart;
+    
+    @Field("plannedDuration")
+    private Duration plannedDuration;
+    
+    /**
+     * Change sequence of the last write, see ChangeSequenceService
+     */
+    @Indexed
+    @Field("changeSeq")
+    private Long changeSeq;
 }
-
@@ -0,0 +1,49 @@
+package com.ecocollect.wastemanagement.model;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+
+/**
+ * One stop of a route, embedded in the route in visiting order.
+ * Short field names keep routes with hundreds of stops small.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStop {
+    @NotBlank(message = "Stop point ID is required")
+    @Field("p")
+    private String pointId;
+    
+    /**
+     * Road distance from the previous stop (0 for the first stop)
+     */
+    @Min(value = 0, message = "Leg meters must be non-negative")
+    @Field("m")
+    private Integer legMeters;
+    
+    /**
+     * Driving time from the previous stop
+     */
+    @Min(value = 0, message = "Leg seconds must be non-negative")
+    @Field("s")
+    private Integer legSeconds;
+    
+    /**
+     * Planned arrival at the stop
+     */
+    @Field("eta")
+    private Instant eta;
+    
+    /**
+     * The vehicle empties itself at the unload site on the way to this stop;
+     * the leg then includes that detour
+     */
+    @Field("u")
+    private Boolean unloadBefore;
+}
@@ -0,0 +1,35 @@
+package com.ecocollect.wastemanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+
+/**
+ * Marker left behind by a delete, so change feeds can report it
+ */
+@Document(collection = "tombstones")
+@CompoundIndex(name = "collection_changeSeq", def = "{'collection': 1, 'changeSeq': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tombstone {
+    @Id
+    private String id;
+    
+    @Field("collection")
+    private String collection;
+    
+    @Field("entityId")
+    private String entityId;
+    
+    @Field("changeSeq")
+    private Long changeSeq;
+    
+    @Field("deletedAt")
+    private Instant deletedAt;
+}
@@ -2,6 +2,7 @@ package com.ecocollect.wastemanagement.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import lombok.AllArgsConstructor;
@@ -26,6 +27,9 @@ public class Vehicle {
     @Field("status")
     private String status = "available";
     
+    /**
+     * Liters of compacted waste the vehicle can carry
+     */
     @Field("capacity")
     private Integer capacity;
     
@@ -43,5 +47,17 @@ public class Vehicle {
     
     @Field("currentRoute")
     private String currentRoute;
+    
+    /**
+     * Depot the vehicle's tours start and end at
+     */
+    @Field("depotId")
+    private String depotId;
+    
+    /**
+     * Change sequence of the last write, see ChangeSequenceService
+     */
+    @Indexed
+    @Field("changeSeq")
+    private Long changeSeq;
 }
-
@@ -0,0 +1,43 @@
+package com.ecocollect.wastemanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+
+/**
+ * A downsampled GPS ping; points expire after 30 days
+ */
+@Document(collection = "vehicle_tracks")
+@CompoundIndex(name = "vehicleId_recordedAt", def = "{'vehicleId': 1, 'recordedAt': -1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleTrackPoint {
+    @Id
+    private String id;
+    
+    @Field("vehicleId")
+    private String vehicleId;
+    
+    @Field("latitude")
+    private Double latitude;
+    
+    @Field("longitude")
+    private Double longitude;
+    
+    @Field("speedKmh")
+    private Double speedKmh;
+    
+    @Field("heading")
+    private Double heading;
+    
+    @Indexed(name = "recordedAt_ttl", expireAfter = "30d")
+    @Field("recordedAt")
+    private Instant recordedAt;
+}
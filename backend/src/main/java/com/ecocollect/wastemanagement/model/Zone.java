@@ -0,0 +1,49 @@
+package com.ecocollect.wastemanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A collection zone, named by its id; its points carry the name in {@code assignedZone}
+ */
+@Document(collection = "zones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Zone {
+    @Id
+    private String name;
+    
+    /**
+     * Volume-weighted centre of the zone's points
+     */
+    @Field("centroidLatitude")
+    private Double centroidLatitude;
+    
+    @Field("centroidLongitude")
+    private Double centroidLongitude;
+    
+    /**
+     * Convex hull of the zone's points as [longitude, latitude] pairs, counter-clockwise
+     */
+    @Field("hull")
+    private List<List<Double>> hull;
+    
+    @Field("pointCount")
+    private Integer pointCount;
+    
+    /**
+     * Summed expected volume of the zone's points, in compacted liters
+     */
+    @Field("expectedVolume")
+    private Double expectedVolume;
+    
+    @Field("computedAt")
+    private Instant computedAt;
+}
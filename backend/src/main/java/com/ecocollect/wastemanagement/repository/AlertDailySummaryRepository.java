@@ -0,0 +1,13 @@
+package com.ecocollect.wastemanagement.repository;
+
+import com.ecocollect.wastemanagement.model.AlertDailySummary;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface AlertDailySummaryRepository extends MongoRepository<AlertDailySummary, String> {
+    List<AlertDailySummary> findByDayBetween(Range<String> day, Sort sort);
+}
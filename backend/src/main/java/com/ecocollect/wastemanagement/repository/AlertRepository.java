@@ -1,6 +1,8 @@
 package com.ecocollect.wastemanagement.repository;
 
 import com.ecocollect.wastemanagement.model.Alert;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -10,5 +12,7 @@ public interface AlertRepository extends MongoRepository<Alert, String> {
     List<Alert> findByAcknowledged(Boolean acknowledged);
     List<Alert> findBySeverity(String severity);
     List<Alert> findBySeverityAndAcknowledged(String severity, Boolean acknowledged);
+    Slice<Alert> findByAcknowledgedOrderByTimestampDesc(Boolean acknowledged, Pageable pageable);
+    Slice<Alert> findByAcknowledgedAndSeverityOrderByTimestampDesc(Boolean acknowledged, String severity, Pageable pageable);
 }
 
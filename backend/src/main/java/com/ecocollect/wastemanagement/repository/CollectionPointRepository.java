@@ -10,5 +10,7 @@ public interface CollectionPointRepository extends MongoRepository<CollectionPoi
     List<CollectionPoint> findByStatus(String status);
     List<CollectionPoint> findByWasteType(String wasteType);
     List<CollectionPoint> findByFillLevelGreaterThanEqual(Integer fillLevel);
+    List<CollectionPoint> findByAssignedZone(String zone);
+    List<CollectionPoint> findByAssignedZoneAndFillLevelGreaterThanEqual(String zone, Integer fillLevel);
 }
 
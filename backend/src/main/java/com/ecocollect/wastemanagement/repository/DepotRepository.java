@@ -0,0 +1,9 @@
+package com.ecocollect.wastemanagement.repository;
+
+import com.ecocollect.wastemanagement.model.Depot;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DepotRepository extends MongoRepository<Depot, String> {
+}
@@ -0,0 +1,16 @@
+package com.ecocollect.wastemanagement.repository;
+
+import com.ecocollect.wastemanagement.model.EmployeeReservation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmployeeReservationRepository extends MongoRepository<EmployeeReservation, String> {
+    List<EmployeeReservation> findByDay(String day);
+    void deleteByRouteId(String routeId);
+    void deleteByRouteIdAndDay(String routeId, String day);
+    void deleteByRouteIdIn(Collection<String> routeIds);
+    void deleteByRouteIdAndEmployeeIdIn(String routeId, Collection<String> employeeIds);
+}
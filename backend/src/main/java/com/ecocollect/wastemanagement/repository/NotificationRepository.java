@@ -1,6 +1,8 @@
 package com.ecocollect.wastemanagement.repository;
 
 import com.ecocollect.wastemanagement.model.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -9,5 +11,7 @@ import java.util.List;
 public interface NotificationRepository extends MongoRepository<Notification, String> {
     List<Notification> findByRead(Boolean read);
     List<Notification> findByType(String type);
+    Slice<Notification> findByReadOrderByTimestampDesc(Boolean read, Pageable pageable);
+    long countByRead(Boolean read);
 }
 
@@ -0,0 +1,12 @@
+package com.ecocollect.wastemanagement.repository;
+
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking read access for the streaming endpoints; writes go through {@link CollectionPointRepository}
+ */
+@Repository
+public interface ReactiveCollectionPointRepository extends ReactiveMongoRepository<CollectionPoint, String> {
+}
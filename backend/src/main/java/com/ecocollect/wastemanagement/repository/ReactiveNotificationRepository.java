@@ -0,0 +1,12 @@
+package com.ecocollect.wastemanagement.repository;
+
+import com.ecocollect.wastemanagement.model.Notification;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking read access for the streaming endpoints; writes go through {@link NotificationRepository}
+ */
+@Repository
+public interface ReactiveNotificationRepository extends ReactiveMongoRepository<Notification, String> {
+}
@@ -1,8 +1,10 @@
 package com.ecocollect.wastemanagement.repository;
 
 import com.ecocollect.wastemanagement.model.Route;
+import org.springframework.data.domain.Range;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
 import java.util.List;
 
 @Repository
@@ -10,5 +12,6 @@ public interface RouteRepository extends MongoRepository<Route, String> {
     List<Route> findByStatus(String status);
     List<Route> findByZone(String zone);
     List<Route> findByAssignedVehicle(String vehicleId);
+    List<Route> findByStatusAndScheduledStartBetween(String status, Range<Instant> scheduledStart);
 }
 
@@ -10,5 +10,6 @@ import java.util.Optional;
 public interface VehicleRepository extends MongoRepository<Vehicle, String> {
     List<Vehicle> findByStatus(String status);
     Optional<Vehicle> findByPlateNumber(String plateNumber);
+    long countByDepotId(String depotId);
 }
 
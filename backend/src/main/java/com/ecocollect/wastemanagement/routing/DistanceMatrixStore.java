@@ -0,0 +1,394 @@
+package com.ecocollect.wastemanagement.routing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persistent travel time / distance matrix indexed by location ordinal, backed by a memory-mapped file.
+ * <p>
+ * File layout (little endian): a 32-byte header, one fixed-size slot per ordinal holding the location id,
+ * its coordinates and a coordinate version, then the {@code capacity x capacity} seconds matrix followed by
+ * the meters matrix. Slots whose version is negative were being recomputed when the file was last written
+ * and are discarded on open. Reads go straight to the mapping. Writes ({@link #assign}, {@link #remove},
+ * {@link #put}, {@link #markComplete}) must be serialized by the caller, as must the ordinal lookups a
+ * {@link #view} is built from. A removed ordinal is only reused once every view taken before the removal
+ * has been closed, so such a view keeps reading the legs it was taken for; until then new locations get
+ * fresh ordinals.
+ */
+public final class DistanceMatrixStore implements Closeable {
+
+    private static final int MAGIC = 0x45434D53; // "ECMS"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int MAX_ID_BYTES = 62;
+    private static final int SLOT_BYTES = 96;
+    private static final int SLOT_LAT = 64;
+    private static final int SLOT_LON = 72;
+    private static final int SLOT_VERSION = 80;
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Largest capacity whose square matrix of floats still fits a single mapping
+     */
+    public static final int MAX_CAPACITY = 23_170;
+
+    private final Path file;
+    private final long fingerprint;
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final Deque<Freed> freeOrdinals = new ArrayDeque<>();
+    /**
+     * Open views by the epoch they were taken in, with their count; guarded by itself, as views are
+     * closed without the caller's serialization
+     */
+    private final TreeMap<Long, Integer> openViews = new TreeMap<>();
+    /**
+     * Bumped by every {@link #remove}; a view taken in an epoch up to a removal's may read its ordinal
+     */
+    private long epoch;
+    private volatile Mapping mapping;
+    private int highWater;
+
+    private DistanceMatrixStore(Path file, long fingerprint) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Open the store at {@code file}, starting empty when the file is missing, corrupt
+     * or was computed for another road network ({@code fingerprint} mismatch)
+     */
+    public static DistanceMatrixStore open(Path file, long fingerprint) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        DistanceMatrixStore store = new DistanceMatrixStore(file, fingerprint);
+        if (Files.exists(file)) {
+            Mapping existing = Mapping.open(file);
+            if (existing != null && existing.header.getLong(16) == fingerprint) {
+                store.mapping = existing;
+                store.loadSlots();
+                return store;
+            }
+        }
+        store.mapping = Mapping.create(file, INITIAL_CAPACITY, fingerprint);
+        return store;
+    }
+
+    private void loadSlots() {
+        Mapping m = mapping;
+        highWater = m.header.getInt(12);
+        for (int ord = 0; ord < highWater; ord++) {
+            long version = m.header.getLong(slotOffset(ord) + SLOT_VERSION);
+            if (version > 0) {
+                ordinals.put(readId(m, ord), ord);
+            } else {
+                m.header.putLong(slotOffset(ord) + SLOT_VERSION, 0L);
+                // No view of this process ever read it
+                freeOrdinals.add(new Freed(ord, -1));
+            }
+        }
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+
+    public int ordinalOf(String id) {
+        Integer ord = ordinals.get(id);
+        return ord != null ? ord : -1;
+    }
+
+    /**
+     * True when {@code id} is stored with exactly these coordinates and its row/column are complete
+     */
+    public boolean isCurrent(String id, double lat, double lon) {
+        int ord = ordinalOf(id);
+        if (ord < 0) {
+            return false;
+        }
+        Mapping m = mapping;
+        return m.header.getLong(slotOffset(ord) + SLOT_VERSION) > 0
+                && m.header.getDouble(slotOffset(ord) + SLOT_LAT) == lat
+                && m.header.getDouble(slotOffset(ord) + SLOT_LON) == lon;
+    }
+
+    public long coordinateVersion(int ordinal) {
+        return Math.abs(mapping.header.getLong(slotOffset(ordinal) + SLOT_VERSION));
+    }
+
+    public double latitude(int ordinal) {
+        return mapping.header.getDouble(slotOffset(ordinal) + SLOT_LAT);
+    }
+
+    public double longitude(int ordinal) {
+        return mapping.header.getDouble(slotOffset(ordinal) + SLOT_LON);
+    }
+
+    /**
+     * Ids of every stored location
+     */
+    public Set<String> ids() {
+        return Set.copyOf(ordinals.keySet());
+    }
+
+    /**
+     * Ordinals of every stored location, including ones still pending
+     */
+    public int[] liveOrdinals() {
+        return ordinals.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * Register {@code id} at new coordinates and bump its coordinate version. The slot stays pending
+     * until {@link #markComplete(int)} is called once its row and column have been rewritten.
+     */
+    public int assign(String id, double lat, double lon) throws IOException {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        if (idBytes.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Location id longer than " + MAX_ID_BYTES + " bytes: " + id);
+        }
+        Integer existing = ordinals.get(id);
+        int ord;
+        if (existing != null) {
+            ord = existing;
+        } else if (!freeOrdinals.isEmpty() && freeOrdinals.peek().epoch() < oldestOpenView()) {
+            ord = freeOrdinals.poll().ordinal();
+        } else {
+            ord = highWater;
+            if (ord == mapping.capacity) {
+                grow();
+            }
+            highWater++;
+            mapping.header.putInt(12, highWater);
+        }
+
+        Mapping m = mapping;
+        int slot = slotOffset(ord);
+        long version = Math.abs(m.header.getLong(slot + SLOT_VERSION)) + 1;
+        m.header.putShort(slot, (short) idBytes.length);
+        m.header.put(slot + 2, idBytes);
+        m.header.putDouble(slot + SLOT_LAT, lat);
+        m.header.putDouble(slot + SLOT_LON, lon);
+        m.header.putLong(slot + SLOT_VERSION, -version);
+        ordinals.put(id, ord);
+        return ord;
+    }
+
+    public void markComplete(int ordinal) {
+        int slot = slotOffset(ordinal);
+        Mapping m = mapping;
+        m.header.putLong(slot + SLOT_VERSION, Math.abs(m.header.getLong(slot + SLOT_VERSION)));
+    }
+
+    public void remove(String id) {
+        Integer ord = ordinals.remove(id);
+        if (ord != null) {
+            mapping.header.putLong(slotOffset(ord) + SLOT_VERSION, 0L);
+            freeOrdinals.add(new Freed(ord, epoch++));
+        }
+    }
+
+    public void put(int from, int to, float seconds, float meters) {
+        Mapping m = mapping;
+        int cell = from * m.capacity + to;
+        m.seconds.put(cell, seconds);
+        m.meters.put(cell, meters);
+    }
+
+    public float seconds(int from, int to) {
+        Mapping m = mapping;
+        return m.seconds.get(from * m.capacity + to);
+    }
+
+    public float meters(int from, int to) {
+        Mapping m = mapping;
+        return m.meters.get(from * m.capacity + to);
+    }
+
+    /**
+     * Zero-copy view over the given ordinals; index {@code i} of the view is {@code ordinals[i]}.
+     * Ordinals removed after the view was taken are not reused before it is closed.
+     */
+    public TravelMatrix view(int[] ordinals) {
+        Mapping m = mapping;
+        int[] ords = ordinals.clone();
+        long viewEpoch = epoch;
+        synchronized (openViews) {
+            openViews.merge(viewEpoch, 1, Integer::sum);
+        }
+        AtomicBoolean closed = new AtomicBoolean();
+        return new TravelMatrix() {
+            @Override
+            public int size() {
+                return ords.length;
+            }
+
+            @Override
+            public float seconds(int from, int to) {
+                return m.seconds.get(ords[from] * m.capacity + ords[to]);
+            }
+
+            @Override
+            public float meters(int from, int to) {
+                return m.meters.get(ords[from] * m.capacity + ords[to]);
+            }
+
+            @Override
+            public void close() {
+                if (closed.compareAndSet(false, true)) {
+                    synchronized (openViews) {
+                        openViews.computeIfPresent(viewEpoch, (e, count) -> count > 1 ? count - 1 : null);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Epoch of the oldest view still open, {@link Long#MAX_VALUE} when there is none
+     */
+    private long oldestOpenView() {
+        synchronized (openViews) {
+            return openViews.isEmpty() ? Long.MAX_VALUE : openViews.firstKey();
+        }
+    }
+
+    public void flush() {
+        Mapping m = mapping;
+        m.header.force();
+        m.secondsRaw.force();
+        m.metersRaw.force();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Double the capacity into a fresh file, then swap it in place of the current one.
+     * Views created earlier keep reading the previous mapping.
+     */
+    private void grow() throws IOException {
+        Mapping old = mapping;
+        int capacity = Math.min(old.capacity * 2, MAX_CAPACITY);
+        if (capacity == old.capacity) {
+            throw new IllegalStateException("Distance matrix is full (" + MAX_CAPACITY + " locations)");
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".grow");
+        Mapping grown = Mapping.create(tmp, capacity, fingerprint);
+        grown.header.putInt(12, old.header.getInt(12));
+        for (int i = 0; i < old.capacity * SLOT_BYTES; i++) {
+            grown.header.put(HEADER_BYTES + i, old.header.get(HEADER_BYTES + i));
+        }
+        float[] row = new float[old.capacity];
+        for (int r = 0; r < old.capacity; r++) {
+            old.seconds.get(r * old.capacity, row);
+            grown.seconds.put(r * capacity, row);
+            old.meters.get(r * old.capacity, row);
+            grown.meters.put(r * capacity, row);
+        }
+        grown.header.force();
+        grown.secondsRaw.force();
+        grown.metersRaw.force();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        mapping = grown;
+    }
+
+    private static int slotOffset(int ordinal) {
+        return HEADER_BYTES + ordinal * SLOT_BYTES;
+    }
+
+    private static String readId(Mapping m, int ordinal) {
+        int slot = slotOffset(ordinal);
+        byte[] bytes = new byte[m.header.getShort(slot)];
+        m.header.get(slot + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An ordinal given up in {@code epoch}, queued in removal order
+     */
+    private record Freed(int ordinal, long epoch) {
+    }
+
+    private static final class Mapping {
+        final int capacity;
+        final MappedByteBuffer header;
+        final MappedByteBuffer secondsRaw;
+        final MappedByteBuffer metersRaw;
+        final FloatBuffer seconds;
+        final FloatBuffer meters;
+
+        private Mapping(FileChannel channel, int capacity) throws IOException {
+            this.capacity = capacity;
+            long slotsEnd = HEADER_BYTES + (long) capacity * SLOT_BYTES;
+            long matrixBytes = (long) capacity * capacity * Float.BYTES;
+            this.header = map(channel, 0, slotsEnd);
+            this.secondsRaw = map(channel, slotsEnd, matrixBytes);
+            this.metersRaw = map(channel, slotsEnd + matrixBytes, matrixBytes);
+            this.seconds = secondsRaw.asFloatBuffer();
+            this.meters = metersRaw.asFloatBuffer();
+        }
+
+        static long fileSize(int capacity) {
+            return HEADER_BYTES + (long) capacity * SLOT_BYTES + 2L * capacity * capacity * Float.BYTES;
+        }
+
+        static Mapping create(Path path, int capacity, long fingerprint) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                Mapping m = new Mapping(channel, capacity);
+                m.header.putInt(0, MAGIC);
+                m.header.putInt(4, FORMAT);
+                m.header.putInt(8, capacity);
+                m.header.putInt(12, 0);
+                m.header.putLong(16, fingerprint);
+                float[] empty = new float[capacity];
+                Arrays.fill(empty, Float.POSITIVE_INFINITY);
+                for (int r = 0; r < capacity; r++) {
+                    m.seconds.put(r * capacity, empty);
+                    m.meters.put(r * capacity, empty);
+                }
+                return m;
+            }
+        }
+
+        static Mapping open(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() < HEADER_BYTES) {
+                    return null;
+                }
+                MappedByteBuffer probe = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+                probe.order(ByteOrder.LITTLE_ENDIAN);
+                int capacity = probe.getInt(8);
+                if (probe.getInt(0) != MAGIC || probe.getInt(4) != FORMAT
+                        || capacity <= 0 || capacity > MAX_CAPACITY || channel.size() != fileSize(capacity)) {
+                    return null;
+                }
+                return new Mapping(channel, capacity);
+            }
+        }
+
+        private static MappedByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.ecocollect.wastemanagement.routing;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads a drivable road graph from an OpenStreetMap XML extract ({@code .osm} or {@code .osm.gz}).
+ * Only ways tagged with a motor-vehicle {@code highway} class are kept; speeds come from
+ * {@code maxspeed} when present, otherwise from a per-class default.
+ */
+public final class OsmRoadGraphLoader {
+
+    private static final Map<String, Double> DEFAULT_SPEED_KMH = Map.ofEntries(
+            Map.entry("motorway", 90.0), Map.entry("motorway_link", 50.0),
+            Map.entry("trunk", 70.0), Map.entry("trunk_link", 40.0),
+            Map.entry("primary", 50.0), Map.entry("primary_link", 35.0),
+            Map.entry("secondary", 45.0), Map.entry("secondary_link", 30.0),
+            Map.entry("tertiary", 40.0), Map.entry("tertiary_link", 30.0),
+            Map.entry("unclassified", 30.0), Map.entry("residential", 25.0),
+            Map.entry("living_street", 10.0), Map.entry("service", 15.0)
+    );
+
+    private OsmRoadGraphLoader() {
+    }
+
+    public static RoadGraph load(Path file) throws IOException {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            InputStream in = file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw;
+            return parse(in);
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid OSM extract " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static RoadGraph parse(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader xml = factory.createXMLStreamReader(in);
+
+        // OSM ids are sparse longs; map them to dense indexes in file order
+        Map<Long, Integer> osmIndex = new HashMap<>();
+        double[] lat = new double[1 << 16];
+        double[] lon = new double[1 << 16];
+        int nodeCount = 0;
+
+        EdgeBuffer edges = new EdgeBuffer();
+        long[] wayNodes = new long[256];
+        int wayLength = 0;
+        boolean inWay = false;
+        String highway = null;
+        String maxspeed = null;
+        String oneway = null;
+        String junction = null;
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("node".equals(name)) {
+                    if (nodeCount == lat.length) {
+                        lat = Arrays.copyOf(lat, nodeCount * 2);
+                        lon = Arrays.copyOf(lon, nodeCount * 2);
+                    }
+                    osmIndex.put(Long.parseLong(xml.getAttributeValue(null, "id")), nodeCount);
+                    lat[nodeCount] = Double.parseDouble(xml.getAttributeValue(null, "lat"));
+                    lon[nodeCount] = Double.parseDouble(xml.getAttributeValue(null, "lon"));
+                    nodeCount++;
+                } else if ("way".equals(name)) {
+                    inWay = true;
+                    wayLength = 0;
+                    highway = maxspeed = oneway = junction = null;
+                } else if (inWay && "nd".equals(name)) {
+                    if (wayLength == wayNodes.length) {
+                        wayNodes = Arrays.copyOf(wayNodes, wayLength * 2);
+                    }
+                    wayNodes[wayLength++] = Long.parseLong(xml.getAttributeValue(null, "ref"));
+                } else if (inWay && "tag".equals(name)) {
+                    String k = xml.getAttributeValue(null, "k");
+                    String v = xml.getAttributeValue(null, "v");
+                    switch (k) {
+                        case "highway" -> highway = v;
+                        case "maxspeed" -> maxspeed = v;
+                        case "oneway" -> oneway = v;
+                        case "junction" -> junction = v;
+                        default -> { }
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(xml.getLocalName())) {
+                inWay = false;
+                Double defaultSpeed = highway != null ? DEFAULT_SPEED_KMH.get(highway) : null;
+                if (defaultSpeed == null) {
+                    continue;
+                }
+                double metersPerSecond = parseMaxspeed(maxspeed, defaultSpeed) / 3.6;
+                boolean forward = !"-1".equals(oneway);
+                boolean backward = !("yes".equals(oneway) || "true".equals(oneway) || "1".equals(oneway)
+                        || "roundabout".equals(junction)
+                        || ("motorway".equals(highway) && !"no".equals(oneway)));
+                if ("-1".equals(oneway)) {
+                    backward = true;
+                }
+                for (int i = 1; i < wayLength; i++) {
+                    Integer a = osmIndex.get(wayNodes[i - 1]);
+                    Integer b = osmIndex.get(wayNodes[i]);
+                    if (a == null || b == null) {
+                        continue; // clipped at the extract boundary
+                    }
+                    float meters = (float) GeoUtils.haversineMeters(lat[a], lon[a], lat[b], lon[b]);
+                    float seconds = (float) (meters / metersPerSecond);
+                    if (forward) {
+                        edges.add(a, b, seconds, meters);
+                    }
+                    if (backward) {
+                        edges.add(b, a, seconds, meters);
+                    }
+                }
+            }
+        }
+        xml.close();
+
+        return compact(lat, lon, nodeCount, edges);
+    }
+
+    /**
+     * Drop nodes that no kept way touches and renumber the rest densely
+     */
+    private static RoadGraph compact(double[] lat, double[] lon, int nodeCount, EdgeBuffer edges) {
+        int[] remap = new int[nodeCount];
+        Arrays.fill(remap, -1);
+        int kept = 0;
+        for (int e = 0; e < edges.size; e++) {
+            if (remap[edges.from[e]] < 0) {
+                remap[edges.from[e]] = kept++;
+            }
+            if (remap[edges.to[e]] < 0) {
+                remap[edges.to[e]] = kept++;
+            }
+        }
+        double[] keptLat = new double[kept];
+        double[] keptLon = new double[kept];
+        for (int i = 0; i < nodeCount; i++) {
+            if (remap[i] >= 0) {
+                keptLat[remap[i]] = lat[i];
+                keptLon[remap[i]] = lon[i];
+            }
+        }
+        for (int e = 0; e < edges.size; e++) {
+            edges.from[e] = remap[edges.from[e]];
+            edges.to[e] = remap[edges.to[e]];
+        }
+        return RoadGraph.fromEdges(keptLat, keptLon, edges.from, edges.to, edges.seconds, edges.meters, edges.size);
+    }
+
+    static double parseMaxspeed(String value, double fallbackKmh) {
+        if (value == null || value.isBlank()) {
+            return fallbackKmh;
+        }
+        String v = value.trim();
+        double factor = 1.0;
+        if (v.endsWith("mph")) {
+            factor = 1.609344;
+            v = v.substring(0, v.length() - 3).trim();
+        }
+        try {
+            double kmh = Double.parseDouble(v) * factor;
+            return kmh > 0 ? kmh : fallbackKmh;
+        } catch (NumberFormatException e) {
+            return fallbackKmh; // "signals", "walk", "FR:urban"...
+        }
+    }
+
+    private static final class EdgeBuffer {
+        int[] from = new int[1 << 16];
+        int[] to = new int[1 << 16];
+        float[] seconds = new float[1 << 16];
+        float[] meters = new float[1 << 16];
+        int size;
+
+        void add(int a, int b, float s, float m) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                seconds = Arrays.copyOf(seconds, size * 2);
+                meters = Arrays.copyOf(meters, size * 2);
+            }
+            from[size] = a;
+            to[size] = b;
+            seconds[size] = s;
+            meters[size] = m;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.ecocollect.wastemanagement.routing;
+
+import java.util.Arrays;
+
+/**
+ * Immutable directed road graph stored in compressed sparse row (CSR) form.
+ * Edges leaving node {@code n} are {@code firstEdge[n] .. firstEdge[n + 1] - 1};
+ * each edge carries its free-flow travel time in seconds and its length in meters.
+ * A coarse lat/lon grid is kept alongside to snap coordinates to the nearest node.
+ */
+public final class RoadGraph {
+
+    private static final double CELL_DEGREES = 0.005; // ~500 m at mid latitudes
+
+    private final double[] nodeLat;
+    private final double[] nodeLon;
+    private final int[] firstEdge;
+    private final int[] edgeTarget;
+    private final float[] edgeSeconds;
+    private final float[] edgeMeters;
+
+    // Snapping grid: nodes of cell c are cellNodes[cellStart[c] .. cellStart[c + 1] - 1]
+    private final double minLat;
+    private final double minLon;
+    private final int gridRows;
+    private final int gridCols;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+
+    private final ThreadLocal<SearchScratch> scratch;
+
+    private RoadGraph(double[] nodeLat, double[] nodeLon, int[] firstEdge, int[] edgeTarget,
+                      float[] edgeSeconds, float[] edgeMeters) {
+        this.nodeLat = nodeLat;
+        this.nodeLon = nodeLon;
+        this.firstEdge = firstEdge;
+        this.edgeTarget = edgeTarget;
+        this.edgeSeconds = edgeSeconds;
+        this.edgeMeters = edgeMeters;
+
+        int n = nodeLat.length;
+        double maxLat = -90, maxLon = -180, loLat = 90, loLon = 180;
+        for (int i = 0; i < n; i++) {
+            loLat = Math.min(loLat, nodeLat[i]);
+            maxLat = Math.max(maxLat, nodeLat[i]);
+            loLon = Math.min(loLon, nodeLon[i]);
+            maxLon = Math.max(maxLon, nodeLon[i]);
+        }
+        this.minLat = n == 0 ? 0 : loLat;
+        this.minLon = n == 0 ? 0 : loLon;
+        this.gridRows = n == 0 ? 1 : (int) ((maxLat - loLat) / CELL_DEGREES) + 1;
+        this.gridCols = n == 0 ? 1 : (int) ((maxLon - loLon) / CELL_DEGREES) + 1;
+
+        this.cellStart = new int[gridRows * gridCols + 1];
+        int[] cellOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = cellIndex(row(nodeLat[i]), col(nodeLon[i]));
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < gridRows * gridCols; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        this.cellNodes = new int[n];
+        int[] fill = Arrays.copyOf(cellStart, cellStart.length - 1);
+        for (int i = 0; i < n; i++) {
+            cellNodes[fill[cellOf[i]]++] = i;
+        }
+
+        this.scratch = ThreadLocal.withInitial(() -> new SearchScratch(n));
+    }
+
+    /**
+     * Build a graph from an unordered edge list. Arrays may be longer than {@code edgeCount}.
+     */
+    public static RoadGraph fromEdges(double[] nodeLat, double[] nodeLon, int[] from, int[] to,
+                                      float[] seconds, float[] meters, int edgeCount) {
+        int n = nodeLat.length;
+        int[] firstEdge = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            firstEdge[from[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            firstEdge[i + 1] += firstEdge[i];
+        }
+        int[] target = new int[edgeCount];
+        float[] sec = new float[edgeCount];
+        float[] len = new float[edgeCount];
+        int[] fill = Arrays.copyOf(firstEdge, n);
+        for (int e = 0; e < edgeCount; e++) {
+            int slot = fill[from[e]]++;
+            target[slot] = to[e];
+            sec[slot] = seconds[e];
+            len[slot] = meters[e];
+        }
+        return new RoadGraph(nodeLat, nodeLon, firstEdge, target, sec, len);
+    }
+
+    /**
+     * Same nodes with every edge reversed, used for many-to-one searches
+     */
+    public RoadGraph reversed() {
+        int m = edgeTarget.length;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        for (int n = 0; n < nodeCount(); n++) {
+            for (int e = firstEdge[n]; e < firstEdge[n + 1]; e++) {
+                from[e] = edgeTarget[e];
+                to[e] = n;
+            }
+        }
+        return fromEdges(nodeLat, nodeLon, from, to, edgeSeconds, edgeMeters, m);
+    }
+
+    public int nodeCount() {
+        return nodeLat.length;
+    }
+
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    public double nodeLatitude(int node) {
+        return nodeLat[node];
+    }
+
+    public double nodeLongitude(int node) {
+        return nodeLon[node];
+    }
+
+    /**
+     * Find the node closest to the given coordinate, or -1 when the graph is empty
+     */
+    public int nearestNode(double lat, double lon) {
+        if (nodeCount() == 0) {
+            return -1;
+        }
+        int r0 = clamp(row(lat), gridRows);
+        int c0 = clamp(col(lon), gridCols);
+        int best = -1;
+        double bestMeters = Double.MAX_VALUE;
+        int maxRing = Math.max(gridRows, gridCols);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = r0 - ring; r <= r0 + ring; r++) {
+                if (r < 0 || r >= gridRows) {
+                    continue;
+                }
+                for (int c = c0 - ring; c <= c0 + ring; c++) {
+                    if (c < 0 || c >= gridCols
+                            || (Math.abs(r - r0) != ring && Math.abs(c - c0) != ring)) {
+                        continue;
+                    }
+                    int cell = cellIndex(r, c);
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int node = cellNodes[k];
+                        double d = GeoUtils.haversineMeters(lat, lon, nodeLat[node], nodeLon[node]);
+                        if (d < bestMeters) {
+                            bestMeters = d;
+                            best = node;
+                        }
+                    }
+                }
+            }
+            // Every unexplored cell is at least `ring` cells away from the query
+            if (best >= 0 && bestMeters < ring * CELL_DEGREES * 111_000.0 * Math.cos(Math.toRadians(lat))) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Time-shortest paths from {@code source} to every node in {@code targets}.
+     * Unreached or invalid (-1) targets get {@link Float#POSITIVE_INFINITY}.
+     * The search stops as soon as all targets are settled.
+     */
+    public void travelTo(int source, int[] targets, float[] outSeconds, float[] outMeters) {
+        Arrays.fill(outSeconds, Float.POSITIVE_INFINITY);
+        Arrays.fill(outMeters, Float.POSITIVE_INFINITY);
+        if (source < 0) {
+            return;
+        }
+        SearchScratch s = scratch.get();
+        s.reset();
+
+        int pending = 0;
+        for (int target : targets) {
+            if (target >= 0 && s.markTarget(target)) {
+                pending++;
+            }
+        }
+
+        s.relax(source, 0f, 0f);
+        while (pending > 0 && !s.heapEmpty()) {
+            int node = s.pop();
+            if (s.isTarget(node)) {
+                pending--;
+            }
+            float base = s.seconds[node];
+            float baseMeters = s.meters[node];
+            for (int e = firstEdge[node]; e < firstEdge[node + 1]; e++) {
+                s.relax(edgeTarget[e], base + edgeSeconds[e], baseMeters + edgeMeters[e]);
+            }
+        }
+
+        for (int i = 0; i < targets.length; i++) {
+            int target = targets[i];
+            if (target >= 0 && s.isSettled(target)) {
+                outSeconds[i] = s.seconds[target];
+                outMeters[i] = s.meters[target];
+            }
+        }
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat - minLat) / CELL_DEGREES);
+    }
+
+    private int col(double lon) {
+        return (int) Math.floor((lon - minLon) / CELL_DEGREES);
+    }
+
+    private int cellIndex(int r, int c) {
+        return r * gridCols + c;
+    }
+
+    private static int clamp(int v, int size) {
+        return Math.max(0, Math.min(size - 1, v));
+    }
+
+    /**
+     * Per-thread Dijkstra state. A generation stamp avoids clearing node-sized arrays between searches.
+     */
+    private static final class SearchScratch {
+        final float[] seconds;
+        final float[] meters;
+        final int[] stamp;
+        final int[] heapPos; // >= 0 while queued, -1 once settled
+        final boolean[] target;
+        final int[] heap;
+        int heapSize;
+        int generation;
+
+        SearchScratch(int n) {
+            seconds = new float[n];
+            meters = new float[n];
+            stamp = new int[n];
+            heapPos = new int[n];
+            target = new boolean[n];
+            heap = new int[n];
+        }
+
+        void reset() {
+            heapSize = 0;
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+        }
+
+        private void touch(int node) {
+            if (stamp[node] != generation) {
+                stamp[node] = generation;
+                seconds[node] = Float.POSITIVE_INFINITY;
+                meters[node] = Float.POSITIVE_INFINITY;
+                heapPos[node] = -2; // unseen
+                target[node] = false;
+            }
+        }
+
+        boolean markTarget(int node) {
+            touch(node);
+            if (target[node]) {
+                return false;
+            }
+            target[node] = true;
+            return true;
+        }
+
+        boolean isTarget(int node) {
+            return stamp[node] == generation && target[node];
+        }
+
+        boolean isSettled(int node) {
+            return stamp[node] == generation && heapPos[node] == -1;
+        }
+
+        boolean heapEmpty() {
+            return heapSize == 0;
+        }
+
+        void relax(int node, float s, float m) {
+            touch(node);
+            if (heapPos[node] == -1 || s >= seconds[node]) {
+                return;
+            }
+            seconds[node] = s;
+            meters[node] = m;
+            if (heapPos[node] == -2) {
+                heap[heapSize] = node;
+                heapPos[node] = heapSize;
+                heapSize++;
+            }
+            siftUp(heapPos[node]);
+        }
+
+        int pop() {
+            int top = heap[0];
+            heapPos[top] = -1;
+            heapSize--;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapPos[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int i) {
+            int node = heap[i];
+            float key = seconds[node];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                int p = heap[parent];
+                if (seconds[p] <= key) {
+                    break;
+                }
+                heap[i] = p;
+                heapPos[p] = i;
+                i = parent;
+            }
+            heap[i] = node;
+            heapPos[node] = i;
+        }
+
+        private void siftDown(int i) {
+            int node = heap[i];
+            float key = seconds[node];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && seconds[heap[child + 1]] < seconds[heap[child]]) {
+                    child++;
+                }
+                int c = heap[child];
+                if (seconds[c] >= key) {
+                    break;
+                }
+                heap[i] = c;
+                heapPos[c] = i;
+                i = child;
+            }
+            heap[i] = node;
+            heapPos[node] = i;
+        }
+    }
+}
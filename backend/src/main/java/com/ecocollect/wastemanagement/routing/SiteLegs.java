@@ -0,0 +1,8 @@
+package com.ecocollect.wastemanagement.routing;
+
+/**
+ * Travel between one fixed site (an unload facility) and each node of a tour problem:
+ * {@code from*[i]} is site to node {@code i}, {@code to*[i]} node {@code i} to site
+ */
+public record SiteLegs(float[] fromSeconds, float[] fromMeters, float[] toSeconds, float[] toMeters) {
+}
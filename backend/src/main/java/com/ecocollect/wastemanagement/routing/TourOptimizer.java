@@ -0,0 +1,614 @@
+package com.ecocollect.wastemanagement.routing;
+
+import java.util.Arrays;
+
+/**
+ * Single-vehicle tour construction and improvement with service windows and a shift limit.
+ * <p>
+ * Construction is the priority-weighted nearest neighbour the planner has always used, skipping
+ * stops whose window would already be closed. Improvement is first-improvement local search over
+ * chain relocation (1-3 stops) and swaps. Feasibility of a move is checked in constant time by
+ * concatenating precomputed prefix / suffix segment summaries (duration, time warp, earliest and
+ * latest start), so a whole neighbourhood pass costs O(n²) whatever the windows look like.
+ * <p>
+ * Re-optimization of a tour in progress keeps the fixed prefix (where the vehicle is now),
+ * adds new stops by cheapest insertion and runs the same search on the rest only.
+ * <p>
+ * Vehicle capacity is handled route-first, split-second: once the order is fixed, the trips to
+ * the unload site are placed where they add the least driving time while no trip overflows.
+ */
+public final class TourOptimizer {
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+    private static final double TIME_WARP_PENALTY = 100.0;
+    private static final double SHIFT_PENALTY = 100.0;
+    private static final double EPSILON = 1e-6;
+    private static final int MAX_CHAIN = 3;
+
+    private final TourProblem problem;
+    private final TravelMatrix matrix;
+    private final int n;
+
+    private final Segment[] nodes;
+    private int[] route;
+    private Segment[] prefix; // prefix[i + 1] = start + route[0..i]
+    private Segment[] suffix; // suffix[i] = route[i..n-1], suffix[n] empty
+
+    private TourOptimizer(TourProblem problem) {
+        this.problem = problem;
+        this.matrix = problem.getMatrix();
+        this.n = problem.size();
+        this.nodes = nodeSegments(problem);
+    }
+
+    public static TourSchedule optimize(TourProblem problem) {
+        TourOptimizer optimizer = new TourOptimizer(problem);
+        optimizer.route = optimizer.construct();
+        int iterations = optimizer.improve();
+        TourSchedule schedule = schedule(problem, optimizer.route);
+        schedule.setIterations(iterations);
+        return schedule;
+    }
+
+    /**
+     * Optimize starting from a given visiting order instead of constructing one
+     */
+    public static TourSchedule improve(TourProblem problem, int[] initialOrder) {
+        TourOptimizer optimizer = new TourOptimizer(problem);
+        optimizer.route = initialOrder.clone();
+        int iterations = optimizer.improve();
+        TourSchedule schedule = schedule(problem, optimizer.route);
+        schedule.setIterations(iterations);
+        return schedule;
+    }
+
+    /**
+     * Re-plan the rest of a tour in progress. The first {@code fixedPrefix} nodes (the vehicle's
+     * current position) stay first, and the fixed end (the depot) last; {@code remaining} is the
+     * current order of the stops still to serve; each node of {@code insert}, in the given order, goes where it costs least. A node
+     * that would add lateness or overtime is left out of the returned order.
+     */
+    public static TourSchedule reoptimize(TourProblem problem, int[] remaining, int[] insert) {
+        TourOptimizer optimizer = new TourOptimizer(problem);
+        int fixed = problem.getFixedPrefix();
+        int end = problem.isFixedEnd() ? 1 : 0;
+        int[] order = new int[fixed + remaining.length + end];
+        for (int i = 0; i < fixed; i++) {
+            order[i] = i;
+        }
+        System.arraycopy(remaining, 0, order, fixed, remaining.length);
+        if (end > 0) {
+            order[order.length - 1] = problem.size() - 1;
+        }
+        for (int node : insert) {
+            int[] extended = optimizer.insertCheapest(order, node);
+            if (extended != null) {
+                order = extended;
+            }
+        }
+        optimizer.route = order;
+        int iterations = optimizer.improve();
+        TourSchedule schedule = schedule(problem, optimizer.route);
+        schedule.setIterations(iterations);
+        return schedule;
+    }
+
+    // ---------------------------------------------------------------- construction
+
+    private int[] construct() {
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int pos = 0;
+        int lastMovable = problem.isFixedEnd() ? n - 1 : n;
+
+        for (int i = 0; i < problem.getFixedPrefix(); i++) {
+            order[pos++] = i;
+            visited[i] = true;
+        }
+        if (problem.isFixedEnd()) {
+            visited[n - 1] = true;
+        }
+
+        double time = 0;
+        int current = -1;
+        if (pos > 0) {
+            time = simulate(order, pos);
+            current = order[pos - 1];
+        } else if (lastMovable > 0) {
+            // Open tour: start at the fullest container (callers sort nodes by fill level)
+            current = 0;
+            order[pos++] = 0;
+            visited[0] = true;
+            time = Math.max(0, problem.getWindowOpen()[0]) + problem.getServiceSeconds()[0];
+        }
+
+        while (pos < lastMovable) {
+            int best = -1;
+            double bestScore = INF;
+            boolean bestFeasible = false;
+            for (int c = 0; c < n; c++) {
+                if (visited[c]) {
+                    continue;
+                }
+                double arrival = time + matrix.seconds(current, c);
+                boolean feasible = arrival <= problem.getWindowClose()[c];
+                // Consider fill level as priority (higher fill = closer in priority space)
+                double score = matrix.meters(current, c) / (1 + problem.getFillLevel()[c] / 100.0);
+                if ((feasible && !bestFeasible) || (feasible == bestFeasible && score < bestScore)) {
+                    best = c;
+                    bestScore = score;
+                    bestFeasible = feasible;
+                }
+            }
+            double arrival = time + matrix.seconds(current, best);
+            time = Math.max(arrival, problem.getWindowOpen()[best]) + problem.getServiceSeconds()[best];
+            order[pos++] = best;
+            visited[best] = true;
+            current = best;
+        }
+        if (problem.isFixedEnd()) {
+            order[pos] = n - 1;
+        }
+        return order;
+    }
+
+    /**
+     * {@code partial} with {@code node} inserted at its cheapest position after the fixed prefix,
+     * or {@code null} when every position adds lateness or overtime
+     */
+    private int[] insertCheapest(int[] partial, int node) {
+        int len = partial.length;
+        Segment[] before = new Segment[len + 1];
+        Segment[] after = new Segment[len + 1];
+        before[0] = new Segment();
+        before[0].start();
+        for (int i = 0; i < len; i++) {
+            before[i + 1] = new Segment().copy(before[i]).append(node(partial[i]), matrix);
+        }
+        after[len] = new Segment();
+        for (int i = len - 1; i >= 0; i--) {
+            after[i] = new Segment().copy(after[i + 1]).prepend(node(partial[i]), matrix);
+        }
+        double basePenalty = penalty(before[len]);
+
+        Segment total = new Segment();
+        int best = -1;
+        double bestCost = INF;
+        int last = len - (problem.isFixedEnd() ? 1 : 0);
+        for (int p = problem.getFixedPrefix(); p <= last; p++) {
+            total.copy(before[p]).append(node(node), matrix).append(after[p], matrix);
+            if (penalty(total) > basePenalty) {
+                continue;
+            }
+            double candidate = cost(total);
+            if (candidate < bestCost) {
+                best = p;
+                bestCost = candidate;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        int[] extended = new int[len + 1];
+        System.arraycopy(partial, 0, extended, 0, best);
+        extended[best] = node;
+        System.arraycopy(partial, best, extended, best + 1, len - best);
+        return extended;
+    }
+
+    private double simulate(int[] order, int length) {
+        double time = 0;
+        for (int p = 0; p < length; p++) {
+            if (p > 0) {
+                time += matrix.seconds(order[p - 1], order[p]);
+            }
+            time = Math.max(time, problem.getWindowOpen()[order[p]]) + problem.getServiceSeconds()[order[p]];
+        }
+        return time;
+    }
+
+    // ---------------------------------------------------------------- local search
+
+    private int improve() {
+        // A re-optimized tour may leave nodes out, so work on the route's own length
+        int n = route.length;
+        int lo = problem.getFixedPrefix();
+        int hi = n - 1 - (problem.isFixedEnd() ? 1 : 0);
+        if (hi - lo < 1) {
+            return 0;
+        }
+        long deadline = System.nanoTime() + problem.getTimeBudgetMillis() * 1_000_000L;
+        prefix = new Segment[n + 1];
+        suffix = new Segment[n + 1];
+        for (int i = 0; i <= n; i++) {
+            prefix[i] = new Segment();
+            suffix[i] = new Segment();
+        }
+        Scratch s = new Scratch();
+        int iterations = 0;
+        rebuildSegments();
+        double current = cost(prefix[n]);
+
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = false;
+            search:
+            for (int i = lo; i <= hi; i++) {
+                // Relocate route[i .. i+k-1]
+                for (int k = 1; k <= MAX_CHAIN && i + k - 1 <= hi; k++) {
+                    s.chain.clear();
+                    for (int c = i; c < i + k; c++) {
+                        s.chain.append(node(route[c]), matrix);
+                    }
+                    // Backward: insert after position j, j = i-2 .. lo-1
+                    s.middle.clear();
+                    for (int j = i - 2; j >= lo - 1; j--) {
+                        s.middle.prepend(node(route[j + 1]), matrix);
+                        s.total.copy(prefix[j + 1]).append(s.chain, matrix).append(s.middle, matrix)
+                                .append(suffix[i + k], matrix);
+                        double candidate = cost(s.total);
+                        if (candidate < current - EPSILON) {
+                            relocate(i, k, j + 1);
+                            current = candidate;
+                            improved = true;
+                            iterations++;
+                            break search;
+                        }
+                    }
+                    // Forward: insert after position j, j = i+k .. hi
+                    s.middle.clear();
+                    for (int j = i + k; j <= hi; j++) {
+                        s.middle.append(node(route[j]), matrix);
+                        s.total.copy(prefix[i]).append(s.middle, matrix).append(s.chain, matrix)
+                                .append(suffix[j + 1], matrix);
+                        double candidate = cost(s.total);
+                        if (candidate < current - EPSILON) {
+                            relocate(i, k, j + 1);
+                            current = candidate;
+                            improved = true;
+                            iterations++;
+                            break search;
+                        }
+                    }
+                }
+                // Swap route[i] and route[j]
+                s.middle.clear();
+                for (int j = i + 1; j <= hi; j++) {
+                    if (j > i + 1) {
+                        s.middle.append(node(route[j - 1]), matrix);
+                    }
+                    s.total.copy(prefix[i]).append(node(route[j]), matrix).append(s.middle, matrix)
+                            .append(node(route[i]), matrix).append(suffix[j + 1], matrix);
+                    double candidate = cost(s.total);
+                    if (candidate < current - EPSILON) {
+                        int tmp = route[i];
+                        route[i] = route[j];
+                        route[j] = tmp;
+                        current = candidate;
+                        improved = true;
+                        iterations++;
+                        break search;
+                    }
+                }
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+            }
+            if (improved) {
+                rebuildSegments();
+            }
+        }
+        return iterations;
+    }
+
+    /**
+     * Move the chain starting at {@code from} of length {@code k} so that it starts
+     * before the element currently at position {@code to}
+     */
+    private void relocate(int from, int k, int to) {
+        int[] chain = Arrays.copyOfRange(route, from, from + k);
+        if (to < from) {
+            System.arraycopy(route, to, route, to + k, from - to);
+            System.arraycopy(chain, 0, route, to, k);
+        } else {
+            System.arraycopy(route, from + k, route, from, to - from - k);
+            System.arraycopy(chain, 0, route, to - k, k);
+        }
+    }
+
+    private void rebuildSegments() {
+        int n = route.length;
+        prefix[0].start();
+        for (int i = 0; i < n; i++) {
+            prefix[i + 1].copy(prefix[i]).append(node(route[i]), matrix);
+        }
+        suffix[n].clear();
+        for (int i = n - 1; i >= 0; i--) {
+            suffix[i].copy(suffix[i + 1]).prepend(node(route[i]), matrix);
+        }
+    }
+
+    private Segment node(int index) {
+        return nodes[index];
+    }
+
+    private static Segment[] nodeSegments(TourProblem problem) {
+        Segment[] segments = new Segment[problem.size()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = Segment.single(i, problem.getServiceSeconds()[i],
+                    problem.getWindowOpen()[i], problem.getWindowClose()[i]);
+        }
+        return segments;
+    }
+
+    /**
+     * Tour duration (travel + waiting, service time being constant) plus lateness and overtime penalties
+     */
+    private double cost(Segment full) {
+        return full.duration + penalty(full);
+    }
+
+    private double penalty(Segment full) {
+        double overrun = Math.max(0, full.duration - problem.getMaxDurationSeconds());
+        return TIME_WARP_PENALTY * full.timeWarp + SHIFT_PENALTY * overrun;
+    }
+
+    // ---------------------------------------------------------------- schedule
+
+    /**
+     * Timed schedule of a visiting order. The vehicle leaves so that it reaches the first
+     * stop as its window opens; later stops wait for their window or are marked late.
+     * With a capacity, unload trips are added by {@link #splitByCapacity}.
+     */
+    public static TourSchedule schedule(TourProblem problem, int[] order) {
+        TravelMatrix matrix = problem.getMatrix();
+        int n = order.length;
+        int[] unloads = splitByCapacity(problem, order);
+        boolean[] unloadAt = new boolean[n + 1];
+        for (int p : unloads) {
+            unloadAt[p] = true;
+        }
+        SiteLegs site = problem.getUnloadLegs();
+        long load = problem.getInitialLoad();
+        long collected = 0;
+        long overload = 0;
+        long[] arrival = new long[n];
+        long[] start = new long[n];
+        int[] late = new int[n];
+        int lateCount = 0;
+        double travelSeconds = 0;
+        double travelMeters = 0;
+        long service = 0;
+        long wait = 0;
+
+        // Any departure in [earliest, latest] of the whole tour gives the minimal duration
+        Segment[] nodes = nodeSegments(problem);
+        Segment full = new Segment();
+        full.start();
+        for (int node : order) {
+            full.append(nodes[node], matrix);
+        }
+        double time = n > 0 ? Math.max(0, full.earliest) : 0;
+        long departure = Math.round(time);
+        for (int p = 0; p < n; p++) {
+            int node = order[p];
+            if (unloadAt[p]) {
+                if (p > 0) {
+                    travelSeconds += site.toSeconds()[order[p - 1]];
+                    travelMeters += site.toMeters()[order[p - 1]];
+                    time += site.toSeconds()[order[p - 1]];
+                }
+                time += problem.getUnloadServiceSeconds();
+                service += problem.getUnloadServiceSeconds();
+                travelSeconds += site.fromSeconds()[node];
+                travelMeters += site.fromMeters()[node];
+                time += site.fromSeconds()[node];
+                load = 0;
+            } else if (p > 0) {
+                double leg = matrix.seconds(order[p - 1], node);
+                travelSeconds += leg;
+                travelMeters += matrix.meters(order[p - 1], node);
+                time += leg;
+            }
+            if (problem.getDemand() != null) {
+                load += problem.getDemand()[node];
+                collected += problem.getDemand()[node];
+                overload = Math.max(overload, load - problem.getCapacity());
+            }
+            arrival[p] = Math.round(time);
+            if (time < problem.getWindowOpen()[node]) {
+                wait += Math.round(problem.getWindowOpen()[node] - time);
+                time = problem.getWindowOpen()[node];
+            }
+            if (time > problem.getWindowClose()[node]) {
+                late[lateCount++] = p;
+            }
+            start[p] = Math.round(time);
+            time += problem.getServiceSeconds()[node];
+            service += problem.getServiceSeconds()[node];
+        }
+
+        TourSchedule schedule = new TourSchedule();
+        schedule.setOrder(order.clone());
+        schedule.setArrivalSeconds(arrival);
+        schedule.setServiceStartSeconds(start);
+        schedule.setDepartureSeconds(departure);
+        schedule.setTravelSeconds(travelSeconds);
+        schedule.setTravelMeters(travelMeters);
+        schedule.setServiceSeconds(service);
+        schedule.setWaitSeconds(wait);
+        schedule.setDurationSeconds(Math.round(time) - departure);
+        schedule.setLateStops(Arrays.copyOf(late, lateCount));
+        schedule.setShiftOverrunSeconds(Math.max(0, schedule.getDurationSeconds() - problem.getMaxDurationSeconds()));
+        schedule.setUnloadBefore(unloads);
+        schedule.setCollectedLiters(collected);
+        schedule.setOverloadLiters(problem.hasCapacity() ? overload : 0);
+        return schedule;
+    }
+
+    /**
+     * Positions of {@code order} before which to visit the unload site so that no trip carries more
+     * than the capacity, at the least added driving time: a shortest path over the possible trip
+     * boundaries, stopping each scan as soon as a trip overflows. The first trip starts with the
+     * initial load; a full vehicle may unload before its first stop unless the tour starts at fixed
+     * nodes. A stop larger than the capacity makes a trip of its own and is reported as overload.
+     */
+    static int[] splitByCapacity(TourProblem problem, int[] order) {
+        int n = order.length;
+        if (!problem.hasCapacity() || problem.getUnloadLegs() == null || n == 0) {
+            return new int[0];
+        }
+        int[] demand = problem.getDemand();
+        SiteLegs site = problem.getUnloadLegs();
+        TravelMatrix matrix = problem.getMatrix();
+        long capacity = problem.getCapacity();
+        long firstCapacity = Math.max(0, capacity - problem.getInitialLoad());
+        int fixed = problem.getFixedPrefix();
+
+        // best[b]: least added time with an unload right before position b; b = n closes the tour.
+        // previous[b] is the unload the trip ending at b started from, -1 for the tour start.
+        double[] best = new double[n + 1];
+        int[] previous = new int[n + 1];
+        Arrays.fill(best, INF);
+        for (int b = 0; b <= n; b++) {
+            if (b < n && b < fixed) {
+                continue;
+            }
+            double added = 0;
+            if (b == 0) {
+                added = problem.getUnloadServiceSeconds() + site.fromSeconds()[order[0]];
+            } else if (b < n) {
+                added = site.toSeconds()[order[b - 1]] + problem.getUnloadServiceSeconds()
+                    + site.fromSeconds()[order[b]] - matrix.seconds(order[b - 1], order[b]);
+            }
+            long load = 0;
+            boolean overflow = false;
+            for (int s = b - 1; s >= 0 && !overflow; s--) {
+                load += demand[order[s]];
+                overflow = load > capacity && b - s > 1;
+                if (!overflow && best[s] + added < best[b]) {
+                    best[b] = best[s] + added;
+                    previous[b] = s;
+                }
+            }
+            // The stops before the first possible unload are carried whatever they weigh
+            if ((!overflow && load <= firstCapacity || b <= fixed) && added < best[b]) {
+                best[b] = added;
+                previous[b] = -1;
+            }
+        }
+
+        int count = 0;
+        for (int b = previous[n]; b >= 0; b = previous[b]) {
+            count++;
+        }
+        int[] unloads = new int[count];
+        for (int b = previous[n]; b >= 0; b = previous[b]) {
+            unloads[--count] = b;
+        }
+        return unloads;
+    }
+
+    // ---------------------------------------------------------------- segments
+
+    /**
+     * Summary of a contiguous sub-sequence of stops, after Vidal et al. (2013):
+     * minimal duration, unavoidable time warp (lateness), earliest and latest start
+     * of the first service. Concatenation is O(1).
+     */
+    private static final class Segment {
+        boolean empty = true;
+        int first;
+        int last;
+        double duration;
+        double timeWarp;
+        double earliest;
+        double latest;
+
+        static Segment single(int node, int service, int open, int close) {
+            Segment s = new Segment();
+            s.empty = false;
+            s.first = node;
+            s.last = node;
+            s.duration = service;
+            s.earliest = open;
+            s.latest = close == TourProblem.NO_LIMIT ? INF : close;
+            return s;
+        }
+
+        void clear() {
+            empty = true;
+        }
+
+        /**
+         * Virtual tour start at time 0: every later service starts at or after it
+         */
+        void start() {
+            empty = false;
+            first = -1;
+            last = -1;
+            duration = 0;
+            timeWarp = 0;
+            earliest = 0;
+            latest = INF;
+        }
+
+        Segment copy(Segment o) {
+            empty = o.empty;
+            first = o.first;
+            last = o.last;
+            duration = o.duration;
+            timeWarp = o.timeWarp;
+            earliest = o.earliest;
+            latest = o.latest;
+            return this;
+        }
+
+        Segment append(Segment b, TravelMatrix matrix) {
+            concat(this, b, matrix, this);
+            return this;
+        }
+
+        Segment prepend(Segment a, TravelMatrix matrix) {
+            concat(a, this, matrix, this);
+            return this;
+        }
+
+        /**
+         * {@code out = a ⊕ b}; {@code out} may be {@code a} or {@code b}
+         */
+        static void concat(Segment a, Segment b, TravelMatrix matrix, Segment out) {
+            if (b.empty) {
+                out.copy(a);
+                return;
+            }
+            if (a.empty) {
+                out.copy(b);
+                return;
+            }
+            double link = a.last < 0 ? 0 : matrix.seconds(a.last, b.first);
+            double delta = a.duration - a.timeWarp + link;
+            double waitTime = Math.max(b.earliest - delta - a.latest, 0);
+            double warp = Math.max(a.earliest + delta - b.latest, 0);
+            double earliest = Math.max(b.earliest - delta, a.earliest) - waitTime;
+            double latest = Math.min(b.latest - delta, a.latest) + warp;
+            double duration = a.duration + b.duration + link + waitTime;
+            double timeWarp = a.timeWarp + b.timeWarp + warp;
+            int first = a.first;
+            int last = b.last;
+            out.empty = false;
+            out.first = first;
+            out.last = last;
+            out.duration = duration;
+            out.timeWarp = timeWarp;
+            out.earliest = earliest;
+            out.latest = latest;
+        }
+    }
+
+    private static final class Scratch {
+        final Segment chain = new Segment();
+        final Segment middle = new Segment();
+        final Segment total = new Segment();
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecocollect.wastemanagement.routing;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Input of {@link TourOptimizer}. Node {@code i} is row/column {@code i} of the matrix;
+ * times are seconds relative to the tour start.
+ */
+@Data
+@NoArgsConstructor
+public class TourProblem {
+
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    private TravelMatrix matrix;
+
+    /**
+     * Time spent at each node
+     */
+    private int[] serviceSeconds;
+
+    /**
+     * Service window per node; {@code 0} / {@link #NO_LIMIT} when unconstrained
+     */
+    private int[] windowOpen;
+    private int[] windowClose;
+
+    /**
+     * Fill level per node (0-100), used to favour full containers during construction
+     */
+    private int[] fillLevel;
+
+    /**
+     * Maximum tour duration (crew shift), {@link #NO_LIMIT} when unconstrained
+     */
+    private long maxDurationSeconds = NO_LIMIT;
+
+    /**
+     * Nodes {@code 0 .. fixedPrefix-1} are visited first, in index order, and never moved
+     */
+    private int fixedPrefix;
+
+    /**
+     * When set, node {@code n-1} closes the tour and is never moved
+     */
+    private boolean fixedEnd;
+
+    /**
+     * Volume collected at each node (liters); {@code null} when loads are not modelled
+     */
+    private int[] demand;
+
+    /**
+     * Vehicle capacity in liters, {@link #NO_LIMIT} when unconstrained
+     */
+    private long capacity = NO_LIMIT;
+
+    /**
+     * Load already on board at the start of the tour
+     */
+    private long initialLoad;
+
+    /**
+     * Where a full vehicle empties itself mid-tour; {@code null} when there is no such site
+     * and an overflowing tour can only be reported
+     */
+    private SiteLegs unloadLegs;
+
+    /**
+     * Time spent emptying the vehicle at the unload site
+     */
+    private int unloadServiceSeconds;
+
+    /**
+     * Wall-clock budget for local search
+     */
+    private long timeBudgetMillis = 200;
+
+    public int size() {
+        return matrix.size();
+    }
+
+    public boolean hasCapacity() {
+        return demand != null && capacity != NO_LIMIT;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecocollect.wastemanagement.routing;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Output of {@link TourOptimizer}: visiting order and the timed schedule that goes with it.
+ * Times are seconds relative to the tour start.
+ */
+@Data
+@NoArgsConstructor
+public class TourSchedule {
+
+    /**
+     * Node indexes in visiting order
+     */
+    private int[] order;
+
+    /**
+     * Arrival and service start per position of {@link #order}
+     */
+    private long[] arrivalSeconds;
+    private long[] serviceStartSeconds;
+
+    /**
+     * Offset at which the vehicle should leave so that the first service is not early
+     */
+    private long departureSeconds;
+
+    private double travelSeconds;
+    private double travelMeters;
+    private long serviceSeconds;
+    private long waitSeconds;
+
+    /**
+     * Departure to end of last service
+     */
+    private long durationSeconds;
+
+    /**
+     * Positions in {@link #order} served after their window closed
+     */
+    private int[] lateStops;
+
+    private long shiftOverrunSeconds;
+
+    /**
+     * Improving moves applied by local search
+     */
+    private int iterations;
+
+    /**
+     * Positions of {@link #order} before which the vehicle drives to the unload site and empties itself
+     */
+    private int[] unloadBefore = new int[0];
+
+    /**
+     * Volume collected over the tour (liters)
+     */
+    private long collectedLiters;
+
+    /**
+     * Most the load went above the vehicle capacity (0 when it always fit)
+     */
+    private long overloadLiters;
+
+    public boolean isFeasible() {
+        return lateStops.length == 0 && shiftOverrunSeconds == 0 && overloadLiters == 0;
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecocollect.wastemanagement.routing;
+
+import java.util.Arrays;
+
+/**
+ * Travel time (seconds) and driving distance (meters) between {@code size()} locations,
+ * addressed by their position in the list the matrix was requested for. Close it once read:
+ * a view over the distance matrix store holds back the reuse of removed ordinals until then.
+ */
+public interface TravelMatrix extends AutoCloseable {
+
+    int size();
+
+    float seconds(int from, int to);
+
+    float meters(int from, int to);
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Dense row-major matrix over heap arrays
+     */
+    static TravelMatrix of(int size, float[] seconds, float[] meters) {
+        return new TravelMatrix() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public float seconds(int from, int to) {
+                return seconds[from * size + to];
+            }
+
+            @Override
+            public float meters(int from, int to) {
+                return meters[from * size + to];
+            }
+        };
+    }
+
+    /**
+     * {@code stops} behind an extra location at index 0 (a vehicle's current position):
+     * stop {@code i} becomes index {@code i + 1}. Closing it closes {@code stops}.
+     */
+    static TravelMatrix withOrigin(TravelMatrix stops, float[] secondsFrom, float[] metersFrom,
+                                   float[] secondsTo, float[] metersTo) {
+        return new TravelMatrix() {
+            @Override
+            public int size() {
+                return stops.size() + 1;
+            }
+
+            @Override
+            public float seconds(int from, int to) {
+                if (from == to) {
+                    return 0f;
+                }
+                return from == 0 ? secondsFrom[to - 1] : to == 0 ? secondsTo[from - 1] : stops.seconds(from - 1, to - 1);
+            }
+
+            @Override
+            public float meters(int from, int to) {
+                if (from == to) {
+                    return 0f;
+                }
+                return from == 0 ? metersFrom[to - 1] : to == 0 ? metersTo[from - 1] : stops.meters(from - 1, to - 1);
+            }
+
+            @Override
+            public void close() {
+                stops.close();
+            }
+        };
+    }
+
+    /**
+     * {@code stops} followed by an extra location at index {@code stops.size()} (where the tour ends).
+     * Closing it closes {@code stops}.
+     */
+    static TravelMatrix withEnd(TravelMatrix stops, float[] secondsFrom, float[] metersFrom,
+                                float[] secondsTo, float[] metersTo) {
+        int end = stops.size();
+        return new TravelMatrix() {
+            @Override
+            public int size() {
+                return end + 1;
+            }
+
+            @Override
+            public float seconds(int from, int to) {
+                if (from == to) {
+                    return 0f;
+                }
+                return from == end ? secondsFrom[to] : to == end ? secondsTo[from] : stops.seconds(from, to);
+            }
+
+            @Override
+            public float meters(int from, int to) {
+                if (from == to) {
+                    return 0f;
+                }
+                return from == end ? metersFrom[to] : to == end ? metersTo[from] : stops.meters(from, to);
+            }
+
+            @Override
+            public void close() {
+                stops.close();
+            }
+        };
+    }
+
+    /**
+     * {@code stops} between a depot at index 0 and the same depot again at index {@code stops.size() + 1},
+     * for tours that leave from and return to it. No copy: both are views over {@code stops}.
+     */
+    static TravelMatrix closedTour(TravelMatrix stops, SiteLegs depot) {
+        int n = stops.size();
+        TravelMatrix withReturn = withEnd(stops, depot.fromSeconds(), depot.fromMeters(),
+                depot.toSeconds(), depot.toMeters());
+        // Depot to its own copy: zero, as Arrays.copyOf pads
+        return withOrigin(withReturn, Arrays.copyOf(depot.fromSeconds(), n + 1), Arrays.copyOf(depot.fromMeters(), n + 1),
+                Arrays.copyOf(depot.toSeconds(), n + 1), Arrays.copyOf(depot.toMeters(), n + 1));
+    }
+}
@@ -0,0 +1,261 @@
+package com.ecocollect.wastemanagement.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Capacity-constrained k-means over point coordinates, each point weighted by its expected volume.
+ * <p>
+ * Coordinates are projected on a local plane (equirectangular, good enough at city scale).
+ * Every round, the distances to the centroids are computed in parallel; points are then handed
+ * out sequentially, the ones that would lose most by not getting their nearest centroid (highest
+ * regret) first, each to the nearest cluster that still has room. Centroids move to the weighted
+ * mean of their members, again in parallel, until the assignment stops changing.
+ * <p>
+ * The capacity only caps a cluster; to fill the light ones too, each cluster's distances carry
+ * a bias that grows while it is above the average load and shrinks while it is below.
+ * The most balanced assignment seen is returned.
+ */
+public final class ZoneClusterer {
+
+    private static final double BIAS_STEP = 0.5;
+
+    private final int n;
+    private final int k;
+    private final double[] x;
+    private final double[] y;
+    private final double[] weight;
+    private final double[] cx;
+    private final double[] cy;
+    private final double[] bias;
+    private final double capacity;
+    private final double average;
+
+    private ZoneClusterer(double[] latitude, double[] longitude, double[] weight, int k, double capacitySlack) {
+        this.n = latitude.length;
+        this.k = k;
+        this.weight = weight;
+        this.x = new double[n];
+        this.y = new double[n];
+        double meanLat = Arrays.stream(latitude).average().orElse(0);
+        double scale = Math.cos(Math.toRadians(meanLat));
+        for (int i = 0; i < n; i++) {
+            x[i] = Math.toRadians(longitude[i]) * scale * GeoUtils.EARTH_RADIUS_KM;
+            y[i] = Math.toRadians(latitude[i]) * GeoUtils.EARTH_RADIUS_KM;
+        }
+        this.cx = new double[k];
+        this.cy = new double[k];
+        this.bias = new double[k];
+        this.average = Arrays.stream(weight).sum() / k;
+        this.capacity = average * (1 + capacitySlack);
+    }
+
+    /**
+     * Split the points into {@code k} clusters whose loads stay within {@code capacitySlack}
+     * (0.1 = 10%) of the average, unless single heavy points make that impossible
+     */
+    public static ZoneClustering cluster(double[] latitude, double[] longitude, double[] weight,
+                                         int k, double capacitySlack, int maxIterations, long seed) {
+        if (k < 1 || k > latitude.length) {
+            throw new IllegalArgumentException("k must be between 1 and the number of points");
+        }
+        ZoneClusterer clusterer = new ZoneClusterer(latitude, longitude, weight, k, capacitySlack);
+        clusterer.seed(new Random(seed));
+
+        int[] assignment = new int[clusterer.n];
+        Arrays.fill(assignment, -1);
+        double[] load = new double[k];
+        int[] best = null;
+        double[] bestLoad = null;
+        double[] bestX = null;
+        double[] bestY = null;
+        double bestSpread = Double.POSITIVE_INFINITY;
+        int iterations = 0;
+        boolean changed = true;
+        while (changed && iterations < maxIterations) {
+            iterations++;
+            changed = clusterer.assign(assignment, load);
+            clusterer.moveCentroids(assignment);
+            double spread = Arrays.stream(load).max().orElse(0) - Arrays.stream(load).min().orElse(0);
+            if (spread < bestSpread) {
+                bestSpread = spread;
+                best = assignment.clone();
+                bestLoad = load.clone();
+                bestX = clusterer.cx.clone();
+                bestY = clusterer.cy.clone();
+            }
+        }
+
+        ZoneClustering result = new ZoneClustering();
+        result.setAssignment(best);
+        System.arraycopy(bestX, 0, clusterer.cx, 0, k);
+        System.arraycopy(bestY, 0, clusterer.cy, 0, k);
+        result.setCentroidLatitude(Arrays.stream(clusterer.cy)
+                .map(v -> Math.toDegrees(v / GeoUtils.EARTH_RADIUS_KM)).toArray());
+        double scale = Math.cos(Math.toRadians(Arrays.stream(latitude).average().orElse(0)));
+        result.setCentroidLongitude(Arrays.stream(clusterer.cx)
+                .map(v -> Math.toDegrees(v / (GeoUtils.EARTH_RADIUS_KM * scale))).toArray());
+        result.setLoad(bestLoad);
+        result.setCapacity(clusterer.capacity);
+        result.setIterations(iterations);
+        return result;
+    }
+
+    /**
+     * Convex hull of some of the points, counter-clockwise, as indexes into the coordinate arrays
+     * (monotone chain). Fewer than three distinct points come back as they are.
+     */
+    public static int[] convexHull(double[] latitude, double[] longitude, int[] members) {
+        Integer[] sorted = Arrays.stream(members).boxed().toArray(Integer[]::new);
+        Arrays.sort(sorted, Comparator.<Integer>comparingDouble(i -> longitude[i]).thenComparingDouble(i -> latitude[i]));
+        if (sorted.length < 3) {
+            return Arrays.stream(sorted).mapToInt(Integer::intValue).toArray();
+        }
+        int[] hull = new int[2 * sorted.length];
+        int size = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            int start = size;
+            for (int s = 0; s < sorted.length; s++) {
+                int i = pass == 0 ? sorted[s] : sorted[sorted.length - 1 - s];
+                while (size >= start + 2 && cross(longitude, latitude, hull[size - 2], hull[size - 1], i) <= 0) {
+                    size--;
+                }
+                hull[size++] = i;
+            }
+            size--; // the last point of each half starts the other one
+        }
+        return Arrays.copyOf(hull, Math.max(size, 1));
+    }
+
+    private static double cross(double[] px, double[] py, int o, int a, int b) {
+        return (px[a] - px[o]) * (py[b] - py[o]) - (py[a] - py[o]) * (px[b] - px[o]);
+    }
+
+    /**
+     * k-means++ seeding: each next centroid is a point drawn with probability proportional
+     * to its squared distance from the centroids chosen so far
+     */
+    private void seed(Random random) {
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        int first = random.nextInt(n);
+        cx[0] = x[first];
+        cy[0] = y[first];
+        for (int c = 1; c < k; c++) {
+            int last = c - 1;
+            IntStream.range(0, n).parallel().forEach(i ->
+                    nearest[i] = Math.min(nearest[i], squaredDistance(i, last)));
+            double total = Arrays.stream(nearest).sum();
+            int chosen = n - 1;
+            if (total > 0) {
+                double target = random.nextDouble() * total;
+                for (int i = 0; i < n; i++) {
+                    target -= nearest[i];
+                    if (target <= 0) {
+                        chosen = i;
+                        break;
+                    }
+                }
+            } else {
+                chosen = random.nextInt(n);
+            }
+            cx[c] = x[chosen];
+            cy[c] = y[chosen];
+        }
+    }
+
+    /**
+     * One capacity-constrained assignment round; returns whether any point changed cluster
+     */
+    private boolean assign(int[] assignment, double[] load) {
+        double[] distances = new double[n * k];
+        double[] regret = new double[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            double best = Double.POSITIVE_INFINITY;
+            double second = Double.POSITIVE_INFINITY;
+            for (int c = 0; c < k; c++) {
+                double d = squaredDistance(i, c) + bias[c];
+                distances[i * k + c] = d;
+                if (d < best) {
+                    second = best;
+                    best = d;
+                } else if (d < second) {
+                    second = d;
+                }
+            }
+            regret[i] = k > 1 ? second - best : 0;
+        });
+        Integer[] byRegret = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+        Arrays.sort(byRegret, Comparator.<Integer>comparingDouble(i -> regret[i]).reversed());
+
+        Arrays.fill(load, 0);
+        boolean changed = false;
+        for (int i : byRegret) {
+            int chosen = -1;
+            int roomiest = 0;
+            for (int c = 0; c < k; c++) {
+                if (load[c] + weight[i] <= capacity
+                        && (chosen < 0 || distances[i * k + c] < distances[i * k + chosen])) {
+                    chosen = c;
+                }
+                if (load[c] < load[roomiest]) {
+                    roomiest = c;
+                }
+            }
+            if (chosen < 0) {
+                // Too heavy for any cluster left: put it where it overloads least
+                chosen = roomiest;
+            }
+            load[chosen] += weight[i];
+            changed |= assignment[i] != chosen;
+            assignment[i] = chosen;
+        }
+
+        // Typical squared distance to the own centroid sets the scale of the bias steps
+        double spread = 0;
+        for (int i = 0; i < n; i++) {
+            spread += squaredDistance(i, assignment[i]);
+        }
+        spread /= n;
+        for (int c = 0; c < k; c++) {
+            bias[c] += BIAS_STEP * (load[c] / average - 1) * spread;
+        }
+        return changed;
+    }
+
+    private void moveCentroids(int[] assignment) {
+        List<List<Integer>> members = new ArrayList<>(k);
+        for (int c = 0; c < k; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            members.get(assignment[i]).add(i);
+        }
+        IntStream.range(0, k).parallel().forEach(c -> {
+            double sx = 0;
+            double sy = 0;
+            double sw = 0;
+            for (int i : members.get(c)) {
+                // Weightless points still pull a little, so an all-empty cluster has a centroid
+                double w = Math.max(weight[i], 1e-6);
+                sx += x[i] * w;
+                sy += y[i] * w;
+                sw += w;
+            }
+            if (sw > 0) {
+                cx[c] = sx / sw;
+                cy[c] = sy / sw;
+            }
+        });
+    }
+
+    private double squaredDistance(int i, int c) {
+        double dx = x[i] - cx[c];
+        double dy = y[i] - cy[c];
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecocollect.wastemanagement.routing;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Output of {@link ZoneClusterer}: one cluster per point and the clusters' weighted centroids and loads
+ */
+@Data
+@NoArgsConstructor
+public class ZoneClustering {
+
+    /**
+     * Cluster index of each input point
+     */
+    private int[] assignment;
+
+    private double[] centroidLatitude;
+    private double[] centroidLongitude;
+
+    /**
+     * Summed weight of each cluster
+     */
+    private double[] load;
+
+    /**
+     * Most a cluster may carry: average load plus the allowed slack
+     */
+    private double capacity;
+
+    /**
+     * Assignment rounds run before the clusters stopped changing (or the limit was hit)
+     */
+    private int iterations;
+}
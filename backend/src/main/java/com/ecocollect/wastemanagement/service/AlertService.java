@@ -3,10 +3,16 @@ package com.ecocollect.wastemanagement.service;
 import com.ecocollect.wastemanagement.dto.AlertRequest;
 import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
 import com.ecocollect.wastemanagement.model.Alert;
+import com.ecocollect.wastemanagement.model.AlertDailySummary;
+import com.ecocollect.wastemanagement.repository.AlertDailySummaryRepository;
 import com.ecocollect.wastemanagement.repository.AlertRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,27 +21,63 @@ import java.util.UUID;
 public class AlertService {
     
     private final AlertRepository repository;
+    private final AlertDailySummaryRepository summaryRepository;
+    private final LiveEventService liveEventService;
     
     public List<Alert> getAllAlerts() {
         return repository.findAll();
     }
     
+    /**
+     * One page of alerts, newest first, optionally of one severity (acknowledged_severity_timestamp index)
+     */
+    public List<Alert> getAlerts(boolean acknowledged, String severity, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        return (severity != null
+                ? repository.findByAcknowledgedAndSeverityOrderByTimestampDesc(acknowledged, severity, pageRequest)
+                : repository.findByAcknowledgedOrderByTimestampDesc(acknowledged, pageRequest)).getContent();
+    }
+    
+    /**
+     * Per-day counts of compacted alerts, see RetentionService; bounds are inclusive and optional
+     */
+    public List<AlertDailySummary> getDailySummaries(LocalDate from, LocalDate to) {
+        Range<String> days = Range.from(from != null ? Range.Bound.inclusive(from.toString()) : Range.Bound.<String>unbounded())
+                .to(to != null ? Range.Bound.inclusive(to.toString()) : Range.Bound.unbounded());
+        return summaryRepository.findByDayBetween(days, Sort.by("day"));
+    }
+    
     public Alert getAlertById(String id) {
         return repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Alert", id));
     }
     
     public Alert createAlert(AlertRequest request) {
+        Alert saved = repository.save(newAlert(request));
+        liveEventService.publishAlerts(List.of(saved));
+        return saved;
+    }
+    
+    public List<Alert> createAlerts(List<AlertRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<Alert> saved = repository.saveAll(requests.stream().map(this::newAlert).toList());
+        liveEventService.publishAlerts(saved);
+        return saved;
+    }
+    
+    private Alert newAlert(AlertRequest request) {
         Alert alert = new Alert();
         alert.setId(UUID.randomUUID().toString());
         alert.setSeverity(request.getSeverity());
         alert.setTitle(request.getTitle());
         alert.setDescription(request.getDescription());
         alert.setLocation(request.getLocation());
+        alert.setZone(request.getZone());
         alert.setTimestamp(request.getTimestamp());
         alert.setAcknowledged(request.getAcknowledged() != null ? request.getAcknowledged() : false);
-        
-        return repository.save(alert);
+        return alert;
     }
     
     public Alert updateAlert(String id, AlertRequest request) {
@@ -45,6 +87,7 @@ public class AlertService {
         alert.setTitle(request.getTitle());
         alert.setDescription(request.getDescription());
         alert.setLocation(request.getLocation());
+        alert.setZone(request.getZone());
         alert.setTimestamp(request.getTimestamp());
         if (request.getAcknowledged() != null) {
             alert.setAcknowledged(request.getAcknowledged());
@@ -0,0 +1,284 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
+import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The writes of one bulk request as a single unordered bulk operation.
+ * Driver errors are mapped back to the item that caused them; other items still go through.
+ */
+final class BulkExecution<T> {
+    
+    static final int MAX_ITEMS = 10_000;
+    
+    private static final int DUPLICATE_KEY = 11000;
+    
+    private final MongoTemplate mongoTemplate;
+    private final Class<T> type;
+    private final BulkOperations operations;
+    private final List<BulkResponse.ItemResult> results = new ArrayList<>();
+    private final List<BulkResponse.ItemResult> items = new ArrayList<>();
+    private final List<T> entities = new ArrayList<>();
+    private boolean executed;
+    
+    BulkExecution(MongoTemplate mongoTemplate, Class<T> type) {
+        this.mongoTemplate = mongoTemplate;
+        this.type = type;
+        this.operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+    }
+    
+    /**
+     * Validate every item and queue the valid ones: creates, then updates, then deletes.
+     * {@code create} builds a new entity; {@code update} applies a request to the stored one.
+     * Either may throw ValidationException (409) or ResourceNotFoundException (404) to reject only that item.
+     */
+    <R> void queue(BulkRequest<R> request, Validator validator, Function<T, String> idOf,
+                   Function<R, T> create, BiConsumer<T, R> update) {
+        List<R> creates = request.getCreate();
+        for (int i = 0; i < creates.size(); i++) {
+            String invalid = violations(validator, creates.get(i));
+            if (invalid != null) {
+                results.add(failure("create", i, null, HttpStatus.BAD_REQUEST, invalid));
+                continue;
+            }
+            try {
+                T entity = create.apply(creates.get(i));
+                insert(entity, result("create", i, idOf.apply(entity), HttpStatus.CREATED));
+            } catch (ValidationException e) {
+                results.add(failure("create", i, null, HttpStatus.CONFLICT, e.getMessage()));
+            } catch (ResourceNotFoundException e) {
+                results.add(failure("create", i, null, HttpStatus.NOT_FOUND, e.getMessage()));
+            }
+        }
+        
+        List<BulkRequest.Update<R>> updates = request.getUpdate();
+        Map<String, T> stored = new HashMap<>();
+        List<String> updateIds = updates.stream().map(BulkRequest.Update::getId).filter(Objects::nonNull).toList();
+        if (!updateIds.isEmpty()) {
+            mongoTemplate.find(Query.query(Criteria.where("_id").in(updateIds)), type)
+                    .forEach(entity -> stored.put(idOf.apply(entity), entity));
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            String id = updates.get(i).getId();
+            R data = updates.get(i).getData();
+            String invalid = id == null ? "id is required" : violations(validator, data);
+            if (invalid != null) {
+                results.add(failure("update", i, id, HttpStatus.BAD_REQUEST, invalid));
+                continue;
+            }
+            T entity = stored.get(id);
+            if (entity == null) {
+                results.add(failure("update", i, id, HttpStatus.NOT_FOUND, "Not found"));
+                continue;
+            }
+            try {
+                update.accept(entity, data);
+                replace(id, entity, result("update", i, id, HttpStatus.OK));
+            } catch (ValidationException e) {
+                results.add(failure("update", i, id, HttpStatus.CONFLICT, e.getMessage()));
+            } catch (ResourceNotFoundException e) {
+                results.add(failure("update", i, id, HttpStatus.NOT_FOUND, e.getMessage()));
+            }
+        }
+        
+        List<String> deletes = request.getDelete();
+        Set<String> existing = deletes.isEmpty() ? Set.of() : existingIds(deletes);
+        for (int i = 0; i < deletes.size(); i++) {
+            String id = deletes.get(i);
+            if (!existing.contains(id)) {
+                results.add(failure("delete", i, id, HttpStatus.NOT_FOUND, "Not found"));
+                continue;
+            }
+            remove(id, result("delete", i, id, HttpStatus.NO_CONTENT));
+        }
+    }
+    
+    BulkResponse response() {
+        return BulkResponse.of(results);
+    }
+    
+    private void insert(T entity, BulkResponse.ItemResult item) {
+        operations.insert(entity);
+        add(entity, item);
+    }
+    
+    private void replace(String id, T entity, BulkResponse.ItemResult item) {
+        operations.replaceOne(byId(id), entity);
+        add(entity, item);
+    }
+    
+    private void remove(String id, BulkResponse.ItemResult item) {
+        operations.remove(byId(id));
+        add(null, item);
+    }
+    
+    private void add(T entity, BulkResponse.ItemResult item) {
+        results.add(item);
+        items.add(item);
+        entities.add(entity);
+    }
+    
+    /**
+     * Run every write; returns the entities of successful inserts and replaces
+     */
+    List<T> execute() {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        try {
+            operations.execute();
+            executed = true;
+        } catch (BulkOperationException e) {
+            executed = true;
+            for (BulkWriteError error : e.getErrors()) {
+                BulkResponse.ItemResult item = items.get(error.getIndex());
+                item.setStatus(error.getCode() == DUPLICATE_KEY ?
+                        HttpStatus.CONFLICT.value() : HttpStatus.INTERNAL_SERVER_ERROR.value());
+                item.setError(error.getMessage());
+            }
+        }
+        List<T> written = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (entities.get(i) != null && items.get(i).isSucceeded()) {
+                written.add(entities.get(i));
+            }
+        }
+        return written;
+    }
+    
+    /**
+     * {@link #execute()} inside a {@link ChangeSequenceService#write} of {@code collection}: removes are
+     * tombstoned first, numbered from {@code seq}, and the tombstones of removes that fail are taken back
+     */
+    List<T> execute(ChangeSequenceService changes, String collection, PrimitiveIterator.OfLong seq) {
+        changes.saveTombstones(collection, removes(false), seq);
+        try {
+            return execute();
+        } finally {
+            changes.removeTombstones(collection, removes(true));
+        }
+    }
+    
+    /**
+     * Entities of inserts and replaces that were queued but not written, for callers to undo
+     * what they did while queueing them; every queued one when the bulk write never ran
+     */
+    List<T> failed() {
+        List<T> failed = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (entities.get(i) != null && (!executed || !items.get(i).isSucceeded())) {
+                failed.add(entities.get(i));
+            }
+        }
+        return failed;
+    }
+    
+    /**
+     * Ids of successful removes
+     */
+    List<String> removedIds() {
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponse.ItemResult item = items.get(i);
+            if (entities.get(i) == null && executed && item.isSucceeded()) {
+                removed.add(item.getId());
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * Ids of queued removes: every one, or only those not carried out
+     */
+    private List<String> removes(boolean failedOnly) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponse.ItemResult item = items.get(i);
+            if (entities.get(i) == null && (!failedOnly || !executed || !item.isSucceeded())) {
+                ids.add(item.getId());
+            }
+        }
+        return ids;
+    }
+    
+    static void checkSize(BulkRequest<?> request) {
+        // Explicit nulls in the JSON body count as empty arrays
+        if (request.getCreate() == null) {
+            request.setCreate(new ArrayList<>());
+        }
+        if (request.getUpdate() == null) {
+            request.setUpdate(new ArrayList<>());
+        }
+        if (request.getDelete() == null) {
+            request.setDelete(new ArrayList<>());
+        }
+        int size = request.getCreate().size() + request.getUpdate().size() + request.getDelete().size();
+        if (size == 0 || size > MAX_ITEMS) {
+            throw new ValidationException("A bulk request must contain between 1 and " + MAX_ITEMS + " items");
+        }
+    }
+    
+    /**
+     * Bean validation messages of one item, or null when valid
+     */
+    private static String violations(Validator validator, Object request) {
+        if (request == null) {
+            return "Item is empty";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+    
+    /**
+     * Which of the given ids exist, reading ids only
+     */
+    private Set<String> existingIds(Collection<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(type)).stream()
+                .map(d -> d.get("_id").toString())
+                .collect(Collectors.toSet());
+    }
+    
+    private static BulkResponse.ItemResult result(String operation, int index, String id, HttpStatus status) {
+        return new BulkResponse.ItemResult(operation, index, id, status.value(), null);
+    }
+    
+    private static BulkResponse.ItemResult failure(String operation, int index, String id, HttpStatus status, String error) {
+        return new BulkResponse.ItemResult(operation, index, id, status.value(), error);
+    }
+    
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+}
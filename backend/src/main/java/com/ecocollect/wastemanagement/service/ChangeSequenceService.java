@@ -0,0 +1,259 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.dto.ChangeFeedResponse;
+import com.ecocollect.wastemanagement.model.ChangeCounter;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.model.Tombstone;
+import com.ecocollect.wastemanagement.model.Vehicle;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+/**
+ * Per-collection change counters, bumped by the services on every write.
+ * The current value identifies the state of a whole collection, so list ETags
+ * can be checked without reading the collection itself.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChangeSequenceService {
+    
+    public static final String COLLECTION_POINTS = "collectionPoints";
+    public static final String ROUTES = "routes";
+    public static final String VEHICLES = "vehicles";
+    
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    
+    /**
+     * First numbers of the reservations whose write has not returned yet, and the last number
+     * handed out (-1 until read from the counter). In memory: the counters of a database are
+     * advanced by one backend instance. The lock is held across the counter's round trip to Mongo,
+     * so it is not a monitor, which would pin a virtual thread to its carrier while it waits.
+     */
+    private static final class InFlight {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final TreeSet<Long> open = new TreeSet<>();
+        private long highest = -1;
+    }
+    
+    /**
+     * Give documents written before change tracking a sequence number, so change feeds
+     * starting from 0 see them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillUntracked() {
+        backfill(COLLECTION_POINTS, CollectionPoint.class);
+        backfill(ROUTES, Route.class);
+        backfill(VEHICLES, Vehicle.class);
+    }
+    
+    private void backfill(String collection, Class<?> type) {
+        Query untracked = Query.query(Criteria.where("changeSeq").exists(false));
+        untracked.fields().include("_id");
+        List<Document> ids = mongoTemplate.find(untracked, Document.class, mongoTemplate.getCollectionName(type));
+        if (ids.isEmpty()) {
+            return;
+        }
+        write(collection, ids.size(), first -> {
+            long seq = first;
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+            for (Document id : ids) {
+                bulk.updateOne(
+                        Query.query(Criteria.where("_id").is(id.get("_id")).and("changeSeq").exists(false)),
+                        Update.update("changeSeq", seq++));
+            }
+            return bulk.execute();
+        });
+        log.info("Assigned change sequence numbers to {} existing {} documents", ids.size(), collection);
+    }
+    
+    /**
+     * Run {@code write} with {@code count} consecutive sequence numbers, the first of which it is given.
+     * Until it returns or throws, those numbers and all later ones stay out of the change feed and
+     * the list ETags, so a write saved after a higher-numbered one is never skipped.
+     */
+    public <T> T write(String collection, int count, LongFunction<T> write) {
+        long first = reserve(collection, count);
+        try {
+            return write.apply(first);
+        } finally {
+            release(collection, first);
+        }
+    }
+    
+    /**
+     * Reserve {@code count} consecutive sequence numbers; returns the first.
+     * The counter is bumped under the collection's lock, so {@link #current} never sees
+     * a number that is handed out but not yet open.
+     */
+    private long reserve(String collection, int count) {
+        InFlight state = inFlight.computeIfAbsent(collection, c -> new InFlight());
+        state.lock.lock();
+        try {
+            ChangeCounter counter = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(collection)),
+                    new Update().inc("seq", count),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    ChangeCounter.class);
+            long first = counter.getSeq() - count + 1;
+            state.open.add(first);
+            state.highest = counter.getSeq();
+            return first;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+    
+    private void release(String collection, long first) {
+        InFlight state = inFlight.get(collection);
+        state.lock.lock();
+        try {
+            state.open.remove(first);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+    
+    /**
+     * Delete one document under a sequence number. The tombstone carrying it is saved first, in the
+     * same write, so a delete is never missing from the change feed; it is taken back if the delete throws.
+     */
+    public void delete(String collection, String id, Runnable delete) {
+        write(collection, 1, first -> {
+            saveTombstones(collection, List.of(id), LongStream.of(first).iterator());
+            try {
+                delete.run();
+            } catch (RuntimeException e) {
+                removeTombstones(collection, List.of(id));
+                throw e;
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Leave a tombstone for each id, numbered from {@code seq}. Only call inside {@link #write}, before
+     * the deletes themselves: the numbers stay hidden until the write returns.
+     */
+    void saveTombstones(String collection, List<String> ids, PrimitiveIterator.OfLong seq) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Tombstone.class);
+        for (String id : ids) {
+            String key = collection + ":" + id;
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(key)),
+                    new Tombstone(key, collection, id, seq.nextLong(), now), FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+    
+    /**
+     * Take back the tombstones of deletes that did not happen, inside the {@link #write} that saved them
+     */
+    void removeTombstones(String collection, List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<String> keys = ids.stream().map(id -> collection + ":" + id).toList();
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(keys)), Tombstone.class);
+    }
+    
+    /**
+     * Documents of {@code type} and tombstones of {@code collection} with a sequence above {@code since},
+     * merged in sequence order and cut at {@code limit} changes.
+     * Only sequences up to {@link #current} are read: a write still in flight holds back
+     * every later one, and clients keep polling from the returned seq, which never goes
+     * past what was actually returned.
+     */
+    public <T> ChangeFeedResponse<T> changesSince(String collection, Class<T> type, Function<T, Long> seqOf,
+                                                  long since, int limit) {
+        long visible = current(collection);
+        Query changed = Query.query(Criteria.where("changeSeq").gt(since).lte(visible))
+                .with(Sort.by("changeSeq")).limit(limit + 1);
+        List<T> upserts = mongoTemplate.find(changed, type);
+        Query deleted = Query.query(Criteria.where("collection").is(collection).and("changeSeq").gt(since).lte(visible))
+                .with(Sort.by("changeSeq")).limit(limit + 1);
+        List<Tombstone> tombstones = mongoTemplate.find(deleted, Tombstone.class);
+        
+        List<T> pageUpserts = new ArrayList<>();
+        List<String> pageDeletes = new ArrayList<>();
+        long seq = since;
+        int u = 0;
+        int d = 0;
+        while (pageUpserts.size() + pageDeletes.size() < limit && (u < upserts.size() || d < tombstones.size())) {
+            boolean takeUpsert = d == tombstones.size() ||
+                    (u < upserts.size() && seqOf.apply(upserts.get(u)) < tombstones.get(d).getChangeSeq());
+            if (takeUpsert) {
+                T entity = upserts.get(u++);
+                pageUpserts.add(entity);
+                seq = seqOf.apply(entity);
+            } else {
+                Tombstone tombstone = tombstones.get(d++);
+                pageDeletes.add(tombstone.getEntityId());
+                seq = tombstone.getChangeSeq();
+            }
+        }
+        boolean hasMore = u < upserts.size() || d < tombstones.size();
+        return new ChangeFeedResponse<>(seq, pageUpserts, pageDeletes, hasMore);
+    }
+    
+    /**
+     * Highest sequence number up to which every write has been saved, 0 before the first tracked write
+     */
+    public long current(String collection) {
+        InFlight state = inFlight.computeIfAbsent(collection, c -> new InFlight());
+        state.lock.lock();
+        try {
+            if (state.highest < 0) {
+                ChangeCounter counter = mongoTemplate.findById(collection, ChangeCounter.class);
+                state.highest = counter != null ? counter.getSeq() : 0;
+            }
+            return state.open.isEmpty() ? state.highest : state.open.first() - 1;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+    
+    /**
+     * Strong ETag for the committed state of a collection: it changes once a write has been saved,
+     * never while the write is still in flight
+     */
+    public String listETag(String collection) {
+        return "\"" + collection + "-" + current(collection) + "\"";
+    }
+    
+    /**
+     * Strong ETag for one entity, or null for documents written before change tracking
+     */
+    public static String entityETag(Long changeSeq) {
+        return changeSeq != null ? "\"" + changeSeq + "\"" : null;
+    }
+}
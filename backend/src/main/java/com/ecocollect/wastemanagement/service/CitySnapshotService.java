@@ -0,0 +1,195 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.SnapshotProperties;
+import com.ecocollect.wastemanagement.dto.ChangeFeedResponse;
+import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.repository.CollectionPointRepository;
+import com.ecocollect.wastemanagement.snapshot.CitySnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a {@link CitySnapshot} of the collection points for the planner, the optimizer,
+ * zone proposals and the dashboard. Loaded in full at startup. Points written through
+ * {@link CollectionPointService} are applied as soon as they are saved; other writes (zone
+ * assignments, bulk updates made elsewhere) come in from the change feed every
+ * city-snapshot.refresh-interval. Each change builds a new snapshot and swaps it in, so
+ * readers never see one half-updated. Writers take turns on a lock rather than a monitor: a
+ * load or refresh holds it while reading Mongo, and a monitor would pin virtual threads waiting for it.
+ */
+@Slf4j
+@Service
+public class CitySnapshotService {
+
+    private final MongoTemplate mongoTemplate;
+    private final CollectionPointRepository collectionPointRepository;
+    private final ChangeSequenceService changeSequenceService;
+    private final SnapshotProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile CitySnapshot snapshot = CitySnapshot.empty();
+    private volatile boolean loaded;
+    private long loadedAtNanos;
+
+    public CitySnapshotService(MongoTemplate mongoTemplate,
+            CollectionPointRepository collectionPointRepository,
+            ChangeSequenceService changeSequenceService,
+            SnapshotProperties properties,
+            MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.collectionPointRepository = collectionPointRepository;
+        this.changeSequenceService = changeSequenceService;
+        this.properties = properties;
+        meterRegistry.gauge("ecocollect.city_snapshot.points", this, s -> s.snapshot.live());
+        meterRegistry.gauge("ecocollect.city_snapshot.bytes", this, s -> s.snapshot.columnBytes());
+    }
+
+    /**
+     * The latest snapshot; hold on to the returned reference for the whole of a scan
+     */
+    public CitySnapshot current() {
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.lock();
+        try {
+            loadLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void loadLocked() {
+        long started = System.nanoTime();
+        // Taken before the scan: changes made meanwhile are replayed by the next refresh
+        long seq = changeSequenceService.current(ChangeSequenceService.COLLECTION_POINTS);
+        Query all = new Query();
+        all.fields().include("_id", "latitude", "longitude", "fillLevel", "status", "wasteType", "assignedZone",
+                "serviceWindowStart", "serviceWindowEnd", "serviceMinutes", "containerLiters", "changeSeq");
+        CitySnapshot.Builder builder = new CitySnapshot.Builder((int) mongoTemplate.estimatedCount(CollectionPoint.class));
+        try (Stream<CollectionPoint> points = mongoTemplate.stream(all, CollectionPoint.class)) {
+            points.forEach(builder::upsert);
+        }
+        snapshot = builder.build(seq);
+        loaded = true;
+        loadedAtNanos = System.nanoTime();
+        log.info("City snapshot loaded: {} collection points, {} KB of columns, in {} ms", snapshot.live(),
+                snapshot.columnBytes() / 1024, Duration.ofNanos(loadedAtNanos - started).toMillis());
+    }
+
+    /**
+     * Apply the changes since the snapshot's sequence, or reload everything once
+     * city-snapshot.full-reload-interval has passed
+     */
+    @Scheduled(fixedDelayString = "#{@snapshotProperties.refreshInterval.toMillis()}")
+    public void refresh() {
+        lock.lock();
+        try {
+            refreshLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refreshLocked() {
+        if (!loaded) {
+            return;
+        }
+        if (System.nanoTime() - loadedAtNanos > properties.getFullReloadInterval().toNanos()) {
+            loadLocked();
+            return;
+        }
+        CitySnapshot current = snapshot;
+        ChangeFeedResponse<CollectionPoint> page;
+        do {
+            page = changeSequenceService.changesSince(ChangeSequenceService.COLLECTION_POINTS, CollectionPoint.class,
+                    CollectionPoint::getChangeSeq, current.seq(), properties.getFeedBatchSize());
+            if (page.getSeq() <= current.seq()) {
+                break;
+            }
+            CitySnapshot.Builder builder = new CitySnapshot.Builder(current, page.getUpserts().size());
+            page.getUpserts().forEach(builder::upsert);
+            page.getDeletes().forEach(builder::delete);
+            current = builder.build(page.getSeq());
+        } while (Boolean.TRUE.equals(page.getHasMore()));
+        snapshot = current;
+    }
+
+    /**
+     * Put points that have just been saved or deleted into the snapshot without waiting for
+     * the next refresh. Copies the columns, like a refresh; a point older than the version
+     * held is ignored, so a concurrent refresh cannot roll it back.
+     */
+    public void apply(List<CollectionPoint> saved, List<String> deleted) {
+        lock.lock();
+        try {
+            if (!loaded || saved.isEmpty() && deleted.isEmpty()) {
+                // Before the first load, the load itself reads these writes
+                return;
+            }
+            CitySnapshot current = snapshot;
+            CitySnapshot.Builder builder = new CitySnapshot.Builder(current, saved.size());
+            saved.forEach(builder::upsert);
+            deleted.forEach(builder::delete);
+            snapshot = builder.build(current.seq());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Points assigned to a zone, as {@link CitySnapshot#point(int)} describes them
+     */
+    public List<CollectionPoint> getPointsInZone(String zone) {
+        CitySnapshot current = snapshot;
+        int[] slots = current.slotsInZone(zone);
+        List<CollectionPoint> points = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            points.add(current.point(slot));
+        }
+        return points;
+    }
+
+    /**
+     * Points by id, in the order given, as {@link CitySnapshot#point(int)} describes them.
+     * Points too recent for the snapshot are read from the database in one query.
+     */
+    public List<CollectionPoint> getPoints(List<String> ids) {
+        CitySnapshot current = snapshot;
+        Map<String, CollectionPoint> byId = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            int slot = current.slotOf(id);
+            if (slot != CitySnapshot.NONE) {
+                byId.put(id, current.point(slot));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            collectionPointRepository.findAllById(missing).forEach(p -> byId.put(p.getId(), p));
+        }
+        List<CollectionPoint> points = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            CollectionPoint point = byId.get(id);
+            if (point == null) {
+                throw new ResourceNotFoundException("CollectionPoint", id);
+            }
+            points.add(point);
+        }
+        return points;
+    }
+}
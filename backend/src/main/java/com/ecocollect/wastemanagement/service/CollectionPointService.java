@@ -1,32 +1,87 @@
 package com.ecocollect.wastemanagement.service;
 
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
+import com.ecocollect.wastemanagement.dto.ChangeFeedResponse;
 import com.ecocollect.wastemanagement.dto.CollectionPointRequest;
 import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
 import com.ecocollect.wastemanagement.model.CollectionPoint;
 import com.ecocollect.wastemanagement.repository.CollectionPointRepository;
+import com.ecocollect.wastemanagement.repository.ReactiveCollectionPointRepository;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.PrimitiveIterator;
 import java.util.UUID;
+import java.util.stream.LongStream;
 
 @Service
 @RequiredArgsConstructor
 public class CollectionPointService {
     
     private final CollectionPointRepository repository;
+    private final ReactiveCollectionPointRepository reactiveRepository;
     private final NotificationService notificationService;
+    private final RoadNetworkService roadNetworkService;
+    private final ChangeSequenceService changeSequenceService;
+    private final CitySnapshotService snapshotService;
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
     
     public List<CollectionPoint> getAllCollectionPoints() {
         return repository.findAll();
     }
     
+    /**
+     * All collection points as they come off the cursor, without buffering the whole list
+     */
+    public Flux<CollectionPoint> streamAllCollectionPoints() {
+        return reactiveRepository.findAll();
+    }
+    
+    public String getListETag() {
+        return changeSequenceService.listETag(ChangeSequenceService.COLLECTION_POINTS);
+    }
+    
+    /**
+     * Points written and deleted after {@code since}, oldest change first
+     */
+    public ChangeFeedResponse<CollectionPoint> getChangesSince(long since, int limit) {
+        return changeSequenceService.changesSince(ChangeSequenceService.COLLECTION_POINTS,
+                CollectionPoint.class, CollectionPoint::getChangeSeq, since, limit);
+    }
+    
+    public List<CollectionPoint> getCollectionPointsInZone(String zone) {
+        return repository.findByAssignedZone(zone);
+    }
+    
     public CollectionPoint getCollectionPointById(String id) {
         return repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("CollectionPoint", id));
     }
     
     public CollectionPoint createCollectionPoint(CollectionPointRequest request) {
+        CollectionPoint point = newCollectionPoint(request);
+        CollectionPoint saved = changeSequenceService.write(ChangeSequenceService.COLLECTION_POINTS, 1, seq -> {
+            point.setChangeSeq(seq);
+            return repository.save(point);
+        });
+        
+        // Add the point's row and column to the travel matrix
+        roadNetworkService.updatePoint(saved);
+        snapshotService.apply(List.of(saved), List.of());
+        
+        // Check for automatic notifications
+        notificationService.checkAndCreateNotifications(saved);
+        
+        return saved;
+    }
+    
+    private CollectionPoint newCollectionPoint(CollectionPointRequest request) {
         CollectionPoint point = new CollectionPoint();
         point.setId(UUID.randomUUID().toString());
         point.setName(request.getName());
@@ -37,18 +92,32 @@ public class CollectionPointService {
         point.setLastCollected(request.getLastCollected());
         point.setLatitude(request.getLatitude());
         point.setLongitude(request.getLongitude());
-        
-        CollectionPoint saved = repository.save(point);
-        
-        // Check for automatic notifications
-        notificationService.checkAndCreateNotifications(saved);
-        
-        return saved;
+        point.setServiceWindowStart(request.getServiceWindowStart());
+        point.setServiceWindowEnd(request.getServiceWindowEnd());
+        point.setServiceMinutes(request.getServiceMinutes());
+        point.setContainerLiters(request.getContainerLiters());
+        return point;
     }
     
     public CollectionPoint updateCollectionPoint(String id, CollectionPointRequest request) {
         CollectionPoint point = getCollectionPointById(id);
+        applyUpdate(point, request);
+        CollectionPoint updated = changeSequenceService.write(ChangeSequenceService.COLLECTION_POINTS, 1, seq -> {
+            point.setChangeSeq(seq);
+            return repository.save(point);
+        });
+        
+        // Recompute travel times only if the point moved
+        roadNetworkService.updatePoint(updated);
+        snapshotService.apply(List.of(updated), List.of());
+        
+        // Check for automatic notifications after update
+        notificationService.checkAndCreateNotifications(updated);
         
+        return updated;
+    }
+    
+    private void applyUpdate(CollectionPoint point, CollectionPointRequest request) {
         point.setName(request.getName());
         point.setAddress(request.getAddress());
         point.setWasteType(request.getWasteType());
@@ -65,20 +134,55 @@ public class CollectionPointService {
         if (request.getLongitude() != null) {
             point.setLongitude(request.getLongitude());
         }
-        
-        CollectionPoint updated = repository.save(point);
-        
-        // Check for automatic notifications after update
-        notificationService.checkAndCreateNotifications(updated);
-        
-        return updated;
+        point.setServiceWindowStart(request.getServiceWindowStart());
+        point.setServiceWindowEnd(request.getServiceWindowEnd());
+        if (request.getServiceMinutes() != null) {
+            point.setServiceMinutes(request.getServiceMinutes());
+        }
+        if (request.getContainerLiters() != null) {
+            point.setContainerLiters(request.getContainerLiters());
+        }
     }
     
     public void deleteCollectionPoint(String id) {
         if (!repository.existsById(id)) {
             throw new ResourceNotFoundException("CollectionPoint", id);
         }
-        repository.deleteById(id);
+        changeSequenceService.delete(ChangeSequenceService.COLLECTION_POINTS, id, () -> repository.deleteById(id));
+        roadNetworkService.removePoint(id);
+        snapshotService.apply(List.of(), List.of(id));
+    }
+    
+    /**
+     * Create, update and delete many points in one unordered bulk write.
+     * Travel matrix updates and notifications run once for the whole batch; tombstones are saved
+     * in the same change sequence write, ahead of the deletes.
+     */
+    public BulkResponse bulkWrite(BulkRequest<CollectionPointRequest> request) {
+        BulkExecution.checkSize(request);
+        BulkExecution<CollectionPoint> execution = new BulkExecution<>(mongoTemplate, CollectionPoint.class);
+        List<CollectionPoint> written = changeSequenceService.write(ChangeSequenceService.COLLECTION_POINTS,
+                Math.max(1, request.getCreate().size() + request.getUpdate().size() + request.getDelete().size()), first -> {
+                    PrimitiveIterator.OfLong seq = LongStream.iterate(first, s -> s + 1).iterator();
+                    execution.queue(request, validator, CollectionPoint::getId,
+                            item -> {
+                                CollectionPoint point = newCollectionPoint(item);
+                                point.setChangeSeq(seq.nextLong());
+                                return point;
+                            },
+                            (point, item) -> {
+                                applyUpdate(point, item);
+                                point.setChangeSeq(seq.nextLong());
+                            });
+                    return execution.execute(changeSequenceService, ChangeSequenceService.COLLECTION_POINTS, seq);
+                });
+        List<String> removed = execution.removedIds();
+        
+        roadNetworkService.updatePoints(written);
+        removed.forEach(roadNetworkService::removePoint);
+        snapshotService.apply(written, removed);
+        notificationService.checkAndCreateNotifications(written);
+        
+        return execution.response();
     }
 }
-
@@ -1,9 +1,17 @@
 package com.ecocollect.wastemanagement.service;
 
 import com.ecocollect.wastemanagement.dto.DashboardStatsResponse;
+import com.ecocollect.wastemanagement.model.Alert;
+import com.ecocollect.wastemanagement.model.Employee;
+import com.ecocollect.wastemanagement.model.Route;
 import com.ecocollect.wastemanagement.repository.*;
+import com.ecocollect.wastemanagement.snapshot.CitySnapshot;
 
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -11,35 +19,31 @@ import java.util.stream.Collectors;
 @Service
 public class DashboardService {
 
-    private final CollectionPointRepository collectionPointRepository;
+    private final CitySnapshotService snapshotService;
     private final RouteRepository routeRepository;
     private final EmployeeRepository employeeRepository;
     private final AlertRepository alertRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
 
-    public DashboardService(CollectionPointRepository collectionPointRepository,
+    public DashboardService(CitySnapshotService snapshotService,
             RouteRepository routeRepository,
             EmployeeRepository employeeRepository,
-            AlertRepository alertRepository) {
-        this.collectionPointRepository = collectionPointRepository;
+            AlertRepository alertRepository,
+            ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.snapshotService = snapshotService;
         this.routeRepository = routeRepository;
         this.employeeRepository = employeeRepository;
         this.alertRepository = alertRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
     }
 
     public DashboardStatsResponse getDashboardStats() {
-        List<com.ecocollect.wastemanagement.model.CollectionPoint> points = collectionPointRepository.findAll();
         List<com.ecocollect.wastemanagement.model.Route> routes = routeRepository.findAll();
         List<com.ecocollect.wastemanagement.model.Employee> employees = employeeRepository.findAll();
         List<com.ecocollect.wastemanagement.model.Alert> alerts = alertRepository.findAll();
 
         // Collection Points Stats
-        long criticalPoints = points.stream()
-                .filter(p -> p.getFillLevel() >= 80 || "full".equals(p.getStatus()))
-                .count();
-
-        DashboardStatsResponse.CollectionPointsStats collectionPointsStats = new DashboardStatsResponse.CollectionPointsStats(
-                points.size(),
-                (int) criticalPoints);
+        DashboardStatsResponse.CollectionPointsStats collectionPointsStats = collectionPointsStats();
 
         // Routes Stats
         long activeRoutes = routes.stream()
@@ -82,4 +86,46 @@ public class DashboardService {
                 employeesStats,
                 alertsStats);
     }
+
+    /**
+     * Same figures as {@link #getDashboardStats()}, computed by six concurrent server-side
+     * counts instead of loading every document; collection points come from the city snapshot
+     */
+    public Mono<DashboardStatsResponse> countDashboardStats() {
+        // Equality on acknowledged (not $ne) so both alert counts are index-only on acknowledged_severity_timestamp
+        Criteria unacknowledged = Criteria.where("acknowledged").is(false);
+        return Mono.zip(
+                Mono.fromSupplier(this::collectionPointsStats),
+                count(new Criteria(), Route.class),
+                count(Criteria.where("status").in("in_progress", "scheduled"), Route.class),
+                count(Criteria.where("status").in("on_duty", "available"), Employee.class),
+                count(Criteria.where("status").is("available"), Employee.class),
+                count(unacknowledged, Alert.class),
+                count(Criteria.where("acknowledged").is(false).and("severity").is("critical"), Alert.class))
+                .map(c -> new DashboardStatsResponse(
+                        c.getT1(),
+                        new DashboardStatsResponse.RoutesStats(c.getT2(), c.getT3()),
+                        new DashboardStatsResponse.EmployeesStats(c.getT4(), c.getT5()),
+                        new DashboardStatsResponse.AlertsStats(c.getT6(), c.getT7())));
+    }
+
+    /**
+     * Total and critical (fill level of 80% or more, or full) points, one pass over the snapshot columns
+     */
+    private DashboardStatsResponse.CollectionPointsStats collectionPointsStats() {
+        CitySnapshot snapshot = snapshotService.current();
+        int full = snapshot.statusCode("full");
+        int critical = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.isLive(i)
+                    && (snapshot.fillLevel(i) >= 80 || (full != CitySnapshot.NONE && snapshot.status(i) == full))) {
+                critical++;
+            }
+        }
+        return new DashboardStatsResponse.CollectionPointsStats(snapshot.live(), critical);
+    }
+
+    private Mono<Integer> count(Criteria criteria, Class<?> type) {
+        return reactiveMongoTemplate.count(Query.query(criteria), type).map(Long::intValue);
+    }
 }
@@ -0,0 +1,114 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.dto.DepotRequest;
+import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Depot;
+import com.ecocollect.wastemanagement.model.Vehicle;
+import com.ecocollect.wastemanagement.repository.DepotRepository;
+import com.ecocollect.wastemanagement.repository.VehicleRepository;
+import com.ecocollect.wastemanagement.routing.SiteLegs;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Depots, and which one a tour starts and ends at when several could serve it
+ */
+@Service
+@RequiredArgsConstructor
+public class DepotService {
+    
+    private final DepotRepository repository;
+    private final VehicleRepository vehicleRepository;
+    private final RoadNetworkService roadNetworkService;
+    
+    /**
+     * A depot with its legs to and from each point of a tour
+     */
+    public record DepotLegs(Depot depot, SiteLegs legs) {
+    }
+    
+    public List<Depot> getAllDepots() {
+        return repository.findAll();
+    }
+    
+    public Depot getDepotById(String id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Depot", id));
+    }
+    
+    public Depot createDepot(DepotRequest request) {
+        Depot depot = new Depot();
+        depot.setId(UUID.randomUUID().toString());
+        applyUpdate(depot, request);
+        return repository.save(depot);
+    }
+    
+    public Depot updateDepot(String id, DepotRequest request) {
+        Depot depot = getDepotById(id);
+        applyUpdate(depot, request);
+        return repository.save(depot);
+    }
+    
+    private void applyUpdate(Depot depot, DepotRequest request) {
+        depot.setName(request.getName());
+        depot.setAddress(request.getAddress());
+        depot.setLatitude(request.getLatitude());
+        depot.setLongitude(request.getLongitude());
+        depot.setUnloadSite(Boolean.TRUE.equals(request.getUnloadSite()));
+    }
+    
+    public void deleteDepot(String id) {
+        if (!repository.existsById(id)) {
+            throw new ResourceNotFoundException("Depot", id);
+        }
+        long vehicles = vehicleRepository.countByDepotId(id);
+        if (vehicles > 0) {
+            throw new ValidationException("Depot " + id + " is the home depot of " + vehicles + " vehicles");
+        }
+        repository.deleteById(id);
+        roadNetworkService.removeDepot(id);
+    }
+    
+    /**
+     * Depot of a tour over {@code points}: {@code depotId} when given, else the vehicle's home
+     * depot, else the one closest to the points by road (fastest way out to one of them plus
+     * fastest way back from one). Empty when there are no depots, the tour then stays open.
+     * The legs come from the travel matrix store, so trying every depot costs lookups only.
+     */
+    public Optional<DepotLegs> tourDepot(String depotId, Vehicle vehicle, List<CollectionPoint> points) {
+        String chosen = depotId != null ? depotId : vehicle != null ? vehicle.getDepotId() : null;
+        if (chosen != null) {
+            Depot depot = getDepotById(chosen);
+            return Optional.of(new DepotLegs(depot, legs(depot, points)));
+        }
+        DepotLegs best = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (Depot depot : repository.findAll()) {
+            SiteLegs legs = legs(depot, points);
+            double cost = min(legs.fromSeconds()) + min(legs.toSeconds());
+            if (cost < bestCost) {
+                best = new DepotLegs(depot, legs);
+                bestCost = cost;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+    
+    private SiteLegs legs(Depot depot, List<CollectionPoint> points) {
+        return roadNetworkService.depotLegs(depot, points);
+    }
+    
+    private static double min(float[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        for (float v : values) {
+            min = Math.min(min, v);
+        }
+        return min;
+    }
+}
@@ -1,13 +1,21 @@
 package com.ecocollect.wastemanagement.service;
 
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
 import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
+import com.ecocollect.wastemanagement.exception.ValidationException;
 import com.ecocollect.wastemanagement.model.Employee;
 import com.ecocollect.wastemanagement.model.Route;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -18,17 +26,29 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class EmployeeAssignmentService {
     
+    // Batch assignment costs: a zone mismatch outweighs any shift imbalance, an empty seat outweighs both
+    private static final double ZONE_MISMATCH_COST = 1_000.0;
+    private static final double SHIFT_COST = 10.0;
+    private static final double UNFILLED_SEAT_COST = 1_000_000.0;
+    private static final double BOOKED_ELSEWHERE_COST = 1_000_000_000.0;
+    
     private final EmployeeService employeeService;
     private final RouteService routeService;
+    private final EmployeeReservationService reservationService;
+    private final SchedulingProperties schedulingProperties;
     
     /**
      * Automatically assign employees to a route
      * Priority: available status > zone match > minimum shifts this week
+     * Employees already booked on another route that day are skipped.
      */
     public Route assignEmployeesToRoute(String routeId, Integer numberOfEmployees) {
         Route route = routeService.getRouteById(routeId);
+        Map<String, String> bookings = reservationService.bookingsForDay(reservationService.dayOf(route));
         
-        List<Employee> allEmployees = employeeService.getAllEmployees();
+        List<Employee> allEmployees = employeeService.getAllEmployees().stream()
+            .filter(e -> !isBookedElsewhere(bookings, e, routeId))
+            .collect(Collectors.toList());
         
         // Filter by zone if route has a zone
         List<Employee> candidates = allEmployees;
@@ -57,16 +77,140 @@ public class EmployeeAssignmentService {
         int count = numberOfEmployees != null ? 
             Math.min(numberOfEmployees, available.size()) : available.size();
         
-        List<String> assignedEmployeeIds = available.stream()
-            .limit(count)
-            .map(Employee::getId)
-            .collect(Collectors.toList());
+        // Book one by one: a concurrent planner may have taken someone since the bookings were read
+        List<String> assignedEmployeeIds = new ArrayList<>();
+        for (Employee employee : available) {
+            if (assignedEmployeeIds.size() == count) {
+                break;
+            }
+            if (reservationService.reserve(employee.getId(), route)) {
+                assignedEmployeeIds.add(employee.getId());
+            }
+        }
         
         route.setAssignedEmployees(assignedEmployeeIds);
         
         return routeService.updateRoute(routeId, convertToRequest(route));
     }
     
+    /**
+     * Assign crews to every scheduled route of a day at once
+     */
+    public List<Route> assignEmployeesForDay(LocalDate date, Integer employeesPerRoute) {
+        ZoneId zone = schedulingProperties.zoneId();
+        Instant from = date.atStartOfDay(zone).toInstant();
+        Instant to = date.plusDays(1).atStartOfDay(zone).toInstant();
+        return assignEmployeesToRoutes(routeService.getScheduledRoutesBetween(from, to), employeesPerRoute);
+    }
+    
+    /**
+     * Assign crews to many routes with one min-cost assignment over (route seat, employee) pairs,
+     * instead of letting earlier routes grab the best-fitting staff.
+     * Each employee gets at most one route; cost favours zone match, then fewest shifts this week.
+     * Every pick is booked before the single bulk update; a pick lost to a concurrent
+     * planner falls back to the seat's next cheapest free employee.
+     */
+    public List<Route> assignEmployeesToRoutes(List<Route> routes, Integer employeesPerRoute) {
+        if (employeesPerRoute == null || employeesPerRoute < 1) {
+            throw new ValidationException("numberOfEmployees must be at least 1 for batch assignment");
+        }
+        if (routes.isEmpty()) {
+            return routes;
+        }
+        
+        List<Employee> available = employeeService.getAllEmployees().stream()
+            .filter(e -> "available".equals(e.getStatus()) || "on_duty".equals(e.getStatus()))
+            .collect(Collectors.toList());
+        
+        Map<String, Map<String, String>> bookingsByDay = new HashMap<>();
+        
+        // One row per seat; one column per employee plus one "leave empty" column per seat
+        int seats = routes.size() * employeesPerRoute;
+        int columns = available.size() + seats;
+        double[][] cost = new double[seats][columns];
+        for (int r = 0; r < routes.size(); r++) {
+            Route route = routes.get(r);
+            String zone = route.getZone();
+            Map<String, String> bookings = bookingsByDay.computeIfAbsent(
+                reservationService.dayOf(route), reservationService::bookingsForDay);
+            double[] seatCost = new double[columns];
+            for (int e = 0; e < available.size(); e++) {
+                Employee employee = available.get(e);
+                if (isBookedElsewhere(bookings, employee, route.getId())) {
+                    seatCost[e] = BOOKED_ELSEWHERE_COST;
+                    continue;
+                }
+                boolean zoneMismatch = zone != null && !zone.isEmpty() && !zone.equals(employee.getAssignedZone());
+                int shifts = employee.getShiftsThisWeek() != null ? employee.getShiftsThisWeek() : 0;
+                seatCost[e] = (zoneMismatch ? ZONE_MISMATCH_COST : 0) + shifts * SHIFT_COST;
+            }
+            for (int d = available.size(); d < columns; d++) {
+                seatCost[d] = UNFILLED_SEAT_COST;
+            }
+            for (int k = 0; k < employeesPerRoute; k++) {
+                cost[r * employeesPerRoute + k] = seatCost;
+            }
+        }
+        
+        int[] assignment = HungarianAssignment.solve(cost);
+        boolean[] taken = new boolean[available.size()];
+        for (int column : assignment) {
+            if (column < available.size()) {
+                taken[column] = true;
+            }
+        }
+        
+        Map<String, List<String>> employeesByRoute = new LinkedHashMap<>();
+        for (int r = 0; r < routes.size(); r++) {
+            Route route = routes.get(r);
+            List<String> crew = new ArrayList<>();
+            for (int k = 0; k < employeesPerRoute; k++) {
+                int seat = r * employeesPerRoute + k;
+                int column = assignment[seat];
+                if (column >= available.size() || cost[seat][column] >= BOOKED_ELSEWHERE_COST) {
+                    continue;
+                }
+                while (column >= 0 && !reservationService.reserve(available.get(column).getId(), route)) {
+                    column = nextCheapestFree(cost[seat], taken);
+                }
+                if (column >= 0) {
+                    crew.add(available.get(column).getId());
+                }
+            }
+            employeesByRoute.put(route.getId(), crew);
+            
+            if (route.getAssignedEmployees() != null) {
+                List<String> dropped = new ArrayList<>(route.getAssignedEmployees());
+                dropped.removeAll(crew);
+                reservationService.release(route.getId(), dropped);
+            }
+        }
+        routeService.bulkAssignEmployees(employeesByRoute);
+        
+        return routeService.getRoutesByIds(new ArrayList<>(employeesByRoute.keySet()));
+    }
+    
+    private static boolean isBookedElsewhere(Map<String, String> bookings, Employee employee, String routeId) {
+        String bookedRoute = bookings.get(employee.getId());
+        return bookedRoute != null && !bookedRoute.equals(routeId);
+    }
+    
+    /**
+     * Cheapest employee column not used by any seat yet (marked taken), or -1
+     */
+    private static int nextCheapestFree(double[] seatCost, boolean[] taken) {
+        int best = -1;
+        for (int e = 0; e < taken.length; e++) {
+            if (!taken[e] && seatCost[e] < UNFILLED_SEAT_COST && (best < 0 || seatCost[e] < seatCost[best])) {
+                best = e;
+            }
+        }
+        if (best >= 0) {
+            taken[best] = true;
+        }
+        return best;
+    }
+    
     private com.ecocollect.wastemanagement.dto.RouteRequest convertToRequest(Route route) {
         com.ecocollect.wastemanagement.dto.RouteRequest request = 
             new com.ecocollect.wastemanagement.dto.RouteRequest();
@@ -80,6 +224,8 @@ public class EmployeeAssignmentService {
         request.setAssignedVehicle(route.getAssignedVehicle());
         request.setAssignedEmployees(route.getAssignedEmployees());
         request.setDistance(route.getDistance());
+        request.setScheduledStart(route.getScheduledStart());
+        request.setPlannedDuration(route.getPlannedDuration());
         return request;
     }
 }
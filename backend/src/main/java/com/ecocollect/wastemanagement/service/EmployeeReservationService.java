@@ -0,0 +1,148 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.ecocollect.wastemanagement.model.EmployeeReservation;
+import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.repository.EmployeeReservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Books employees on routes, at most one route per employee and day.
+ * Bookings are inserted under a {@code day:employeeId} key, so concurrent planners
+ * race on the _id index instead of a global lock; the loser sees the booking and moves on.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmployeeReservationService {
+    
+    private final EmployeeReservationRepository repository;
+    private final SchedulingProperties schedulingProperties;
+    
+    /**
+     * Day a route books its crew for: its scheduled start, today when unscheduled
+     */
+    public String dayOf(Route route) {
+        LocalDate day = route.getScheduledStart() != null ?
+            LocalDate.ofInstant(route.getScheduledStart(), schedulingProperties.zoneId()) :
+            LocalDate.now(schedulingProperties.zoneId());
+        return day.toString();
+    }
+    
+    /**
+     * Route each employee is booked on for the day
+     */
+    public Map<String, String> bookingsForDay(String day) {
+        return repository.findByDay(day).stream()
+            .collect(Collectors.toMap(EmployeeReservation::getEmployeeId, EmployeeReservation::getRouteId));
+    }
+    
+    /**
+     * Book an employee on a route for the route's day.
+     * Idempotent for the same route; false when the employee is already booked elsewhere that day.
+     */
+    public boolean reserve(String employeeId, Route route) {
+        return reserve(employeeId, dayOf(route), route.getId());
+    }
+    
+    private boolean reserve(String employeeId, String day, String routeId) {
+        String key = day + ":" + employeeId;
+        try {
+            repository.insert(new EmployeeReservation(key, employeeId, day, routeId, Instant.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return repository.findById(key)
+                .map(existing -> routeId.equals(existing.getRouteId()))
+                // Released between the insert and the lookup: try once more
+                .orElseGet(() -> reserveOnce(key, employeeId, day, routeId));
+        }
+    }
+    
+    private boolean reserveOnce(String key, String employeeId, String day, String routeId) {
+        try {
+            repository.insert(new EmployeeReservation(key, employeeId, day, routeId, Instant.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Bring a route's bookings in line with its crew after an edit.
+     * Bookings made here are rolled back if any employee turns out to be taken.
+     */
+    public void synchronize(Route route, String previousDay, List<String> previousEmployees) {
+        List<String> employees = route.getAssignedEmployees() != null ? route.getAssignedEmployees() : List.of();
+        String day = dayOf(route);
+        
+        Set<String> toReserve = new HashSet<>(employees);
+        boolean sameDay = day.equals(previousDay);
+        if (sameDay) {
+            toReserve.removeAll(previousEmployees);
+        }
+        
+        List<String> reserved = new ArrayList<>();
+        for (String employeeId : toReserve) {
+            if (!reserve(employeeId, route)) {
+                release(route.getId(), reserved);
+                throw new ValidationException("Employee " + employeeId + " is already assigned to another route on " + day);
+            }
+            reserved.add(employeeId);
+        }
+        
+        if (sameDay) {
+            Set<String> dropped = new HashSet<>(previousEmployees);
+            dropped.removeAll(employees);
+            release(route.getId(), dropped);
+        } else {
+            repository.deleteByRouteIdAndDay(route.getId(), previousDay);
+        }
+    }
+    
+    /**
+     * Undo a {@link #synchronize} whose route write failed: book {@code previousEmployees} on
+     * {@code previousDay} again and drop what was booked for {@code day} and {@code employees}.
+     * An employee taken by another route in the meantime stays with that route.
+     */
+    public void restore(String routeId, String day, List<String> employees,
+                        String previousDay, List<String> previousEmployees) {
+        for (String employeeId : previousEmployees) {
+            reserve(employeeId, previousDay, routeId);
+        }
+        if (day.equals(previousDay)) {
+            Set<String> added = new HashSet<>(employees);
+            added.removeAll(previousEmployees);
+            release(routeId, added);
+        } else {
+            repository.deleteByRouteIdAndDay(routeId, day);
+        }
+    }
+    
+    public void release(String routeId, Collection<String> employeeIds) {
+        if (!employeeIds.isEmpty()) {
+            repository.deleteByRouteIdAndEmployeeIdIn(routeId, employeeIds);
+        }
+    }
+    
+    public void releaseRoute(String routeId) {
+        repository.deleteByRouteId(routeId);
+    }
+    
+    public void releaseRoutes(Collection<String> routeIds) {
+        if (!routeIds.isEmpty()) {
+            repository.deleteByRouteIdIn(routeIds);
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.ecocollect.wastemanagement.service;
 
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
 import com.ecocollect.wastemanagement.dto.EmployeeRequest;
 import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
 import com.ecocollect.wastemanagement.model.Employee;
 import com.ecocollect.wastemanagement.repository.EmployeeRepository;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,6 +19,8 @@ import java.util.UUID;
 public class EmployeeService {
     
     private final EmployeeRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
     
     public List<Employee> getAllEmployees() {
         return repository.findAll();
@@ -26,6 +32,10 @@ public class EmployeeService {
     }
     
     public Employee createEmployee(EmployeeRequest request) {
+        return repository.save(newEmployee(request));
+    }
+    
+    private Employee newEmployee(EmployeeRequest request) {
         Employee employee = new Employee();
         employee.setId(UUID.randomUUID().toString());
         employee.setName(request.getName());
@@ -36,13 +46,17 @@ public class EmployeeService {
         employee.setAssignedZone(request.getAssignedZone());
         employee.setShiftsThisWeek(request.getShiftsThisWeek() != null ? request.getShiftsThisWeek() : 0);
         employee.setJoinDate(request.getJoinDate());
-        
-        return repository.save(employee);
+        return employee;
     }
     
     public Employee updateEmployee(String id, EmployeeRequest request) {
         Employee employee = getEmployeeById(id);
+        applyUpdate(employee, request);
         
+        return repository.save(employee);
+    }
+    
+    private void applyUpdate(Employee employee, EmployeeRequest request) {
         employee.setName(request.getName());
         employee.setRole(request.getRole());
         if (request.getStatus() != null) {
@@ -55,8 +69,6 @@ public class EmployeeService {
             employee.setShiftsThisWeek(request.getShiftsThisWeek());
         }
         employee.setJoinDate(request.getJoinDate());
-        
-        return repository.save(employee);
     }
     
     public void deleteEmployee(String id) {
@@ -73,5 +85,15 @@ public class EmployeeService {
     public List<Employee> getEmployeesByZone(String zone) {
         return repository.findByAssignedZone(zone);
     }
+    
+    /**
+     * Create, update and delete many employees in one unordered bulk write
+     */
+    public BulkResponse bulkWrite(BulkRequest<EmployeeRequest> request) {
+        BulkExecution.checkSize(request);
+        BulkExecution<Employee> execution = new BulkExecution<>(mongoTemplate, Employee.class);
+        execution.queue(request, validator, Employee::getId, this::newEmployee, this::applyUpdate);
+        execution.execute();
+        return execution.response();
+    }
 }
-
@@ -0,0 +1,87 @@
+package com.ecocollect.wastemanagement.service;
+
+import java.util.Arrays;
+
+/**
+ * Rectangular min-cost assignment (Hungarian method with potentials, O(rows² × columns)).
+ * Every row is matched to a distinct column; requires {@code rows <= columns}.
+ */
+final class HungarianAssignment {
+
+    private HungarianAssignment() {
+    }
+
+    /**
+     * @param cost {@code cost[row][column]}
+     * @return column assigned to each row
+     */
+    static int[] solve(double[][] cost) {
+        int n = cost.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int m = cost[0].length;
+        if (n > m) {
+            throw new IllegalArgumentException("More rows (" + n + ") than columns (" + m + ")");
+        }
+
+        // 1-based arrays; column 0 is the virtual source of each augmenting path
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] rowOfColumn = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int row = 1; row <= n; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[column] = true;
+                int r = rowOfColumn[column];
+                double delta = Double.POSITIVE_INFINITY;
+                int next = 0;
+                double[] costRow = cost[r - 1];
+                for (int c = 1; c <= m; c++) {
+                    if (used[c]) {
+                        continue;
+                    }
+                    double slack = costRow[c - 1] - u[r] - v[c];
+                    if (slack < minSlack[c]) {
+                        minSlack[c] = slack;
+                        way[c] = column;
+                    }
+                    if (minSlack[c] < delta) {
+                        delta = minSlack[c];
+                        next = c;
+                    }
+                }
+                for (int c = 0; c <= m; c++) {
+                    if (used[c]) {
+                        u[rowOfColumn[c]] += delta;
+                        v[c] -= delta;
+                    } else {
+                        minSlack[c] -= delta;
+                    }
+                }
+                column = next;
+            } while (rowOfColumn[column] != 0);
+            // Flip the augmenting path back to the source
+            do {
+                int previous = way[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] columnOfRow = new int[n];
+        for (int c = 1; c <= m; c++) {
+            if (rowOfColumn[c] != 0) {
+                columnOfRow[rowOfColumn[c] - 1] = c - 1;
+            }
+        }
+        return columnOfRow;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.LiveEventProperties;
+import com.ecocollect.wastemanagement.dto.LiveEvent;
+import com.ecocollect.wastemanagement.model.Alert;
+import com.ecocollect.wastemanagement.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans new alerts and notifications out to every connected client.
+ * One shared sink feeds all subscribers; each one filters what it wants and reads from its own
+ * bounded buffer, so a stalled client loses its oldest events instead of holding up publishers.
+ */
+@Service
+public class LiveEventService {
+
+    public static final String ALERT = "alert";
+    public static final String NOTIFICATION = "notification";
+
+    private final Sinks.Many<LiveEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final LiveEventProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Counter dropped;
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    public LiveEventService(LiveEventProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.dropped = meterRegistry.counter("ecocollect.live_events.dropped");
+        meterRegistry.gauge("ecocollect.live_events.subscribers", subscribers);
+    }
+
+    public void publishAlerts(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            publish(new LiveEvent(ALERT, alert.getSeverity(), alert.getZone(), alert));
+        }
+    }
+
+    public void publishNotifications(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            publish(new LiveEvent(NOTIFICATION, notification.getType(), notification.getZone(), notification));
+        }
+    }
+
+    /**
+     * Sinks reject concurrent emissions, so publishers take turns; with no subscriber the event is discarded
+     */
+    private synchronized void publish(LiveEvent event) {
+        if (sink.tryEmitNext(event).isSuccess()) {
+            meterRegistry.counter("ecocollect.live_events.published", "kind", event.getKind()).increment();
+        }
+    }
+
+    /**
+     * Events matching every non-empty filter, interleaved with keep-alive comments
+     */
+    public Flux<ServerSentEvent<Object>> subscribe(Set<String> kinds, Set<String> severities, Set<String> zones) {
+        Flux<ServerSentEvent<Object>> events = sink.asFlux()
+                .filter(event -> matches(kinds, event.getKind())
+                        && matches(severities, event.getSeverity())
+                        && matches(zones, event.getZone()))
+                .onBackpressureBuffer(properties.getSubscriberBuffer(), event -> dropped.increment(),
+                        BufferOverflowStrategy.DROP_OLDEST)
+                .map(event -> ServerSentEvent.builder(event.getData()).event(event.getKind()).build());
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(properties.getHeartbeat())
+                .map(tick -> ServerSentEvent.<Object>builder().comment("keep-alive").build());
+        return Flux.merge(events, heartbeats)
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    private static boolean matches(Set<String> filter, String value) {
+        return filter == null || filter.isEmpty() || filter.contains(value);
+    }
+}
@@ -5,11 +5,19 @@ import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
 import com.ecocollect.wastemanagement.model.CollectionPoint;
 import com.ecocollect.wastemanagement.model.Notification;
 import com.ecocollect.wastemanagement.repository.NotificationRepository;
+import com.ecocollect.wastemanagement.repository.ReactiveNotificationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,12 +26,37 @@ import java.util.UUID;
 public class NotificationService {
     
     private final NotificationRepository repository;
+    private final ReactiveNotificationRepository reactiveRepository;
     private final AlertService alertService;
+    private final MeterRegistry meterRegistry;
+    private final MongoTemplate mongoTemplate;
+    private final LiveEventService liveEventService;
     
     public List<Notification> getAllNotifications() {
         return repository.findAll();
     }
     
+    /**
+     * All notifications as they come off the cursor, without buffering the whole list
+     */
+    public Flux<Notification> streamAllNotifications() {
+        return reactiveRepository.findAll();
+    }
+    
+    /**
+     * One page of read or unread notifications, newest first (read_timestamp index)
+     */
+    public List<Notification> getNotifications(boolean read, int page, int size) {
+        return repository.findByReadOrderByTimestampDesc(read, PageRequest.of(page, size)).getContent();
+    }
+    
+    /**
+     * Counted on the read_timestamp index without fetching any document
+     */
+    public long countUnread() {
+        return repository.countByRead(false);
+    }
+    
     public Notification getNotificationById(String id) {
         return repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification", id));
@@ -35,10 +68,14 @@ public class NotificationService {
         notification.setType(request.getType());
         notification.setTitle(request.getTitle());
         notification.setMessage(request.getMessage());
+        notification.setZone(request.getZone());
         notification.setTimestamp(request.getTimestamp());
         notification.setRead(request.getRead() != null ? request.getRead() : false);
+        notification.setReadAt(notification.getRead() ? Instant.now() : null);
         
-        return repository.save(notification);
+        Notification saved = repository.save(notification);
+        liveEventService.publishNotifications(List.of(saved));
+        return saved;
     }
     
     public Notification updateNotification(String id, NotificationRequest request) {
@@ -47,8 +84,14 @@ public class NotificationService {
         notification.setType(request.getType());
         notification.setTitle(request.getTitle());
         notification.setMessage(request.getMessage());
+        notification.setZone(request.getZone());
         notification.setTimestamp(request.getTimestamp());
         if (request.getRead() != null) {
+            if (request.getRead() && notification.getReadAt() == null) {
+                notification.setReadAt(Instant.now());
+            } else if (!request.getRead()) {
+                notification.setReadAt(null);
+            }
             notification.setRead(request.getRead());
         }
         
@@ -62,58 +105,87 @@ public class NotificationService {
         repository.deleteById(id);
     }
     
+    /**
+     * One multi-update; the TTL index on readAt starts counting for all of them from now
+     */
     public void markAllAsRead() {
-        List<Notification> notifications = repository.findByRead(false);
-        for (Notification notification : notifications) {
-            notification.setRead(true);
-            repository.save(notification);
-        }
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("read").is(false)),
+                new Update().set("read", true).set("readAt", Instant.now()),
+                Notification.class);
     }
     
     /**
      * Check collection point and create notifications/alerts if needed
      */
     public void checkAndCreateNotifications(CollectionPoint point) {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        checkAndCreateNotifications(List.of(point));
+    }
+    
+    /**
+     * Batch form of {@link #checkAndCreateNotifications(CollectionPoint)}: one write for
+     * all notifications and one for all alerts
+     */
+    public void checkAndCreateNotifications(List<CollectionPoint> points) {
+        Instant timestamp = Instant.now();
+        List<Notification> notifications = new ArrayList<>();
+        List<com.ecocollect.wastemanagement.dto.AlertRequest> alerts = new ArrayList<>();
         
-        // Check if container is full or nearly full
-        if (point.getFillLevel() >= 80) {
-            // Create notification
-            Notification notification = new Notification();
-            notification.setId(UUID.randomUUID().toString());
-            notification.setType("alert");
-            notification.setTitle("Container Full");
-            notification.setMessage("Container at " + point.getName() + " has reached " + point.getFillLevel() + "% capacity.");
-            notification.setTimestamp(timestamp);
-            notification.setRead(false);
-            repository.save(notification);
+        for (CollectionPoint point : points) {
+            // Check if container is full or nearly full
+            if (point.getFillLevel() >= 80) {
+                // Create notification
+                Notification notification = new Notification();
+                notification.setId(UUID.randomUUID().toString());
+                notification.setType("alert");
+                notification.setTitle("Container Full");
+                notification.setMessage("Container at " + point.getName() + " has reached " + point.getFillLevel() + "% capacity.");
+                notification.setZone(point.getAssignedZone());
+                notification.setTimestamp(timestamp);
+                notification.setRead(false);
+                notifications.add(notification);
             
-            // Create alert if critical
-            if (point.getFillLevel() >= 90) {
-                com.ecocollect.wastemanagement.dto.AlertRequest alertRequest = 
-                    new com.ecocollect.wastemanagement.dto.AlertRequest();
-                alertRequest.setSeverity("critical");
-                alertRequest.setTitle("Container Overflow Risk");
-                alertRequest.setDescription("Container at " + point.getName() + " has reached " + 
-                    point.getFillLevel() + "% capacity and needs immediate attention.");
-                alertRequest.setLocation(point.getAddress());
-                alertRequest.setTimestamp(timestamp);
-                alertRequest.setAcknowledged(false);
-                alertService.createAlert(alertRequest);
+                // Create alert if critical
+                if (point.getFillLevel() >= 90) {
+                    com.ecocollect.wastemanagement.dto.AlertRequest alertRequest = 
+                        new com.ecocollect.wastemanagement.dto.AlertRequest();
+                    alertRequest.setSeverity("critical");
+                    alertRequest.setTitle("Container Overflow Risk");
+                    alertRequest.setDescription("Container at " + point.getName() + " has reached " + 
+                        point.getFillLevel() + "% capacity and needs immediate attention.");
+                    alertRequest.setLocation(point.getAddress());
+                    alertRequest.setZone(point.getAssignedZone());
+                    alertRequest.setTimestamp(timestamp);
+                    alertRequest.setAcknowledged(false);
+                    alerts.add(alertRequest);
+                }
+            }
+        
+            // Check if container is damaged
+            if ("damaged".equals(point.getStatus())) {
+                Notification notification = new Notification();
+                notification.setId(UUID.randomUUID().toString());
+                notification.setType("warning");
+                notification.setTitle("Container Damaged");
+                notification.setMessage("Container at " + point.getName() + " is damaged and requires maintenance.");
+                notification.setZone(point.getAssignedZone());
+                notification.setTimestamp(timestamp);
+                notification.setRead(false);
+                notifications.add(notification);
             }
         }
         
-        // Check if container is damaged
-        if ("damaged".equals(point.getStatus())) {
-            Notification notification = new Notification();
-            notification.setId(UUID.randomUUID().toString());
-            notification.setType("warning");
-            notification.setTitle("Container Damaged");
-            notification.setMessage("Container at " + point.getName() + " is damaged and requires maintenance.");
-            notification.setTimestamp(timestamp);
-            notification.setRead(false);
-            repository.save(notification);
+        if (!notifications.isEmpty()) {
+            liveEventService.publishNotifications(repository.saveAll(notifications));
+        }
+        alertService.createAlerts(alerts);
+        
+        meterRegistry.counter("ecocollect.notifications.checked").increment(points.size());
+        for (Notification notification : notifications) {
+            meterRegistry.counter("ecocollect.notifications.created", "type", notification.getType()).increment();
+        }
+        for (com.ecocollect.wastemanagement.dto.AlertRequest alert : alerts) {
+            meterRegistry.counter("ecocollect.alerts.created", "severity", alert.getSeverity()).increment();
         }
     }
 }
-
@@ -0,0 +1,255 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.RetentionProperties;
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
+import com.ecocollect.wastemanagement.model.Alert;
+import com.ecocollect.wastemanagement.model.AlertDailySummary;
+import com.ecocollect.wastemanagement.model.Notification;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the notifications and alerts collections from growing without bound:
+ * read notifications expire through a TTL index on readAt, and old acknowledged
+ * alerts are rolled into one {@link AlertDailySummary} per day.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RetentionService implements SmartInitializingSingleton {
+
+    static final String READ_TTL_INDEX = "readAt_ttl";
+
+    private static final int MIGRATION_BATCH = 1000;
+    private static final Pattern RELATIVE = Pattern.compile(
+            "(\\d+)\\s*(min|mins|minute|minutes|h|hour|hours|day|days)\\s+ago");
+    private static final List<DateTimeFormatter> LOCAL_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+
+    private final MongoTemplate mongoTemplate;
+    private final RetentionProperties properties;
+    private final SchedulingProperties schedulingProperties;
+
+    /**
+     * Runs once every singleton is created and before the web server starts, so no request
+     * maps a string into an Instant
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrateAndIndex();
+    }
+
+    /**
+     * Convert the string timestamps written by earlier versions and create the TTL index
+     */
+    public void migrateAndIndex() {
+        migrateTimestamps(Notification.class, true);
+        migrateTimestamps(Alert.class, false);
+        ensureReadNotificationTtl();
+    }
+
+    void migrateTimestamps(Class<?> type, boolean trackReads) {
+        Criteria criteria = Criteria.where("timestamp").type(2);
+        if (trackReads) {
+            criteria = new Criteria().orOperator(criteria,
+                    Criteria.where("read").is(true).and("readAt").exists(false));
+        }
+        Query legacy = Query.query(criteria).limit(MIGRATION_BATCH);
+        legacy.fields().include("_id", "timestamp", "read", "readAt");
+        String collection = mongoTemplate.getCollectionName(type);
+        Instant now = Instant.now();
+        int migrated = 0;
+        int unparsed = 0;
+
+        // Every round rewrites what it read, so the same query returns the next batch
+        List<Document> batch;
+        while (!(batch = mongoTemplate.find(legacy, Document.class, collection)).isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+            for (Document doc : batch) {
+                Object raw = doc.get("timestamp");
+                Instant timestamp = raw instanceof Date date ? date.toInstant() : null;
+                Update update = new Update();
+                if (raw instanceof String text) {
+                    timestamp = parseLegacyTimestamp(text, schedulingProperties.zoneId(), now);
+                    if (timestamp == null) {
+                        log.warn("Unparseable timestamp '{}' on {} {}, using the migration time", text, collection, doc.get("_id"));
+                        unparsed++;
+                        timestamp = now;
+                    }
+                    update.set("timestamp", timestamp);
+                }
+                if (trackReads && Boolean.TRUE.equals(doc.get("read")) && doc.get("readAt") == null) {
+                    // When it was read is unknown; count its TTL from the notification itself
+                    update.set("readAt", timestamp != null ? timestamp : now);
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(doc.get("_id"))), update);
+            }
+            bulk.execute();
+            migrated += batch.size();
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} {} documents to typed timestamps ({} unparseable)", migrated, collection, unparsed);
+        }
+    }
+
+    /**
+     * Parse the formats earlier versions stored: ISO instants, local date-times
+     * (scheduling time zone) and the seed data's "N min ago"
+     */
+    static Instant parseLegacyTimestamp(String value, ZoneId zone, Instant now) {
+        String text = value.trim();
+        try {
+            return OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeParseException ignored) {
+            // not an offset date-time
+        }
+        for (DateTimeFormatter format : LOCAL_FORMATS) {
+            try {
+                return LocalDateTime.parse(text, format).atZone(zone).toInstant();
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        try {
+            return LocalDate.parse(text).atStartOfDay(zone).toInstant();
+        } catch (DateTimeParseException ignored) {
+            // not a date
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.equals("just now") || lower.equals("now")) {
+            return now;
+        }
+        Matcher relative = RELATIVE.matcher(lower);
+        if (relative.matches()) {
+            long amount = Long.parseLong(relative.group(1));
+            Duration unit = relative.group(2).startsWith("m") ? Duration.ofMinutes(1)
+                    : relative.group(2).startsWith("h") ? Duration.ofHours(1)
+                    : Duration.ofDays(1);
+            return now.minus(unit.multipliedBy(amount));
+        }
+        return null;
+    }
+
+    void ensureReadNotificationTtl() {
+        Duration ttl = properties.getReadNotificationTtl();
+        try {
+            mongoTemplate.indexOps(Notification.class).ensureIndex(
+                    new Index().on("readAt", Sort.Direction.ASC).named(READ_TTL_INDEX).expire(ttl));
+        } catch (DataAccessException e) {
+            // The index exists with another expiry: change it in place rather than rebuilding it
+            try {
+                mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(Notification.class))
+                        .append("index", new Document("name", READ_TTL_INDEX).append("expireAfterSeconds", ttl.toSeconds())));
+            } catch (DataAccessException collModFailed) {
+                log.error("Could not set the read notification TTL to {}", ttl, collModFailed);
+                return;
+            }
+        }
+        log.info("Read notifications expire {} after being read", ttl);
+    }
+
+    /**
+     * Fold acknowledged alerts older than retention.alert-compaction-age into per-day summaries.
+     * Each batch is counted into the summaries before it is deleted, so a crash in between
+     * counts that batch twice on the next run rather than losing it.
+     */
+    @Scheduled(cron = "${retention.alert-compaction-cron:0 30 3 * * *}")
+    public void compactAlerts() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(properties.getAlertCompactionAge());
+        ZoneId zone = schedulingProperties.zoneId();
+        Query old = Query.query(Criteria.where("acknowledged").is(true).and("timestamp").lt(cutoff))
+                .limit(properties.getCompactionBatchSize());
+        old.fields().include("_id", "severity", "title", "timestamp");
+        int compacted = 0;
+
+        List<Alert> batch;
+        while (!(batch = mongoTemplate.find(old, Alert.class)).isEmpty()) {
+            Map<String, DayCounts> days = new TreeMap<>();
+            List<String> ids = new ArrayList<>(batch.size());
+            for (Alert alert : batch) {
+                String day = LocalDate.ofInstant(alert.getTimestamp(), zone).toString();
+                days.computeIfAbsent(day, d -> new DayCounts()).add(alert);
+                ids.add(alert.getId());
+            }
+            BulkOperations summaries = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AlertDailySummary.class);
+            days.forEach((day, counts) -> summaries.upsert(
+                    Query.query(Criteria.where("_id").is(day)), counts.toUpdate(now)));
+            summaries.execute();
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), Alert.class);
+            compacted += batch.size();
+        }
+        if (compacted > 0) {
+            log.info("Compacted {} acknowledged alerts older than {}", compacted, cutoff);
+        }
+    }
+
+    /**
+     * Alert counts of one day within a compaction batch
+     */
+    private static final class DayCounts {
+        private long total;
+        private final Map<String, Long> bySeverity = new HashMap<>();
+        private final Map<String, Long> byTitle = new HashMap<>();
+        private Instant first;
+        private Instant last;
+
+        void add(Alert alert) {
+            total++;
+            bySeverity.merge(key(alert.getSeverity()), 1L, Long::sum);
+            byTitle.merge(key(alert.getTitle()), 1L, Long::sum);
+            Instant at = alert.getTimestamp();
+            first = first == null || at.isBefore(first) ? at : first;
+            last = last == null || at.isAfter(last) ? at : last;
+        }
+
+        Update toUpdate(Instant now) {
+            Update update = new Update().inc("total", total)
+                    .min("firstAt", first)
+                    .max("lastAt", last)
+                    .set("compactedAt", now);
+            bySeverity.forEach((severity, count) -> update.inc("bySeverity." + severity, count));
+            byTitle.forEach((title, count) -> update.inc("byTitle." + title, count));
+            return update;
+        }
+
+        /**
+         * Field names may not contain dots or start with $
+         */
+        private static String key(String value) {
+            return value == null || value.isBlank() ? "unknown" : value.replace('.', '_').replace('$', '_');
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.RoutingProperties;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Depot;
+import com.ecocollect.wastemanagement.repository.CollectionPointRepository;
+import com.ecocollect.wastemanagement.repository.DepotRepository;
+import com.ecocollect.wastemanagement.routing.DistanceMatrixStore;
+import com.ecocollect.wastemanagement.routing.GeoUtils;
+import com.ecocollect.wastemanagement.routing.OsmRoadGraphLoader;
+import com.ecocollect.wastemanagement.routing.RoadGraph;
+import com.ecocollect.wastemanagement.routing.SiteLegs;
+import com.ecocollect.wastemanagement.routing.TravelMatrix;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Service computing point-to-point travel times over the offline road network.
+ * Falls back to straight-line distances when no OSM extract is configured.
+ * <p>
+ * Results live in a {@link DistanceMatrixStore} indexed by collection-point ordinal: only the row and
+ * column of a point that was added or moved are recomputed, and optimizer reads go to the mapped file.
+ * Depots are stored alongside the points, so the legs of a tour to and from its depot are lookups too.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoadNetworkService {
+
+    private static final String STORE_FILE = "travel-matrix.store";
+    private static final String DEPOT_PREFIX = "depot:";
+
+    private final RoutingProperties properties;
+    private final CollectionPointRepository collectionPointRepository;
+    private final DepotRepository depotRepository;
+    private final MeterRegistry meterRegistry;
+
+    private volatile RoadGraph graph;
+    private RoadGraph reverseGraph;
+    private String graphFingerprint = "straight-line";
+    private DistanceMatrixStore store;
+
+    // Serializes every store write and the ordinal lookups views are built from, so an ordinal cannot be
+    // removed between lookup and view. A lock rather than a monitor: waiting on the parallel refresh must
+    // not pin a virtual thread's carrier
+    private final ReentrantLock storeLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        loadGraph();
+        openStore();
+    }
+
+    private void loadGraph() {
+        if (properties.getOsmFile() == null || properties.getOsmFile().isBlank()) {
+            log.info("No OSM extract configured, route distances use straight-line estimates");
+            return;
+        }
+        Path file = Path.of(properties.getOsmFile());
+        try {
+            long start = System.nanoTime();
+            RoadGraph loaded = OsmRoadGraphLoader.load(file);
+            reverseGraph = loaded.reversed();
+            graph = loaded;
+            graphFingerprint = file.toAbsolutePath() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+            log.info("Loaded road graph from {}: {} nodes, {} edges in {} ms", file,
+                    graph.nodeCount(), graph.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.error("Could not load OSM extract {}, falling back to straight-line estimates", file, e);
+        }
+    }
+
+    private void openStore() {
+        String dir = properties.getCacheDir();
+        Path file = Path.of(dir == null || dir.isBlank() ? System.getProperty("java.io.tmpdir") : dir, STORE_FILE);
+        long fingerprint = UUID.nameUUIDFromBytes((graphFingerprint + "|" + properties.getFallbackSpeedKmh())
+                .getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+        try {
+            store = DistanceMatrixStore.open(file, fingerprint);
+            log.info("Opened travel matrix store {} with {} points", file, store.size());
+        } catch (IOException e) {
+            log.error("Could not open travel matrix store {}, matrices will be computed per request", file, e);
+        }
+    }
+
+    /**
+     * Bring the store in line with the collection points and depots in Mongo: drop deleted ones and
+     * recompute rows/columns of those that are new or moved since the file was last written
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void synchronizeStore() {
+        if (store == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<CollectionPoint> points = collectionPointRepository.findAll().stream()
+                .filter(p -> p.getLatitude() != null && p.getLongitude() != null)
+                .collect(Collectors.toCollection(ArrayList::new));
+        int pointCount = points.size();
+        depotRepository.findAll().stream()
+                .filter(d -> d.getLatitude() != null && d.getLongitude() != null)
+                .map(RoadNetworkService::depotLocation)
+                .forEach(points::add);
+        Set<String> ids = points.stream().map(CollectionPoint::getId).collect(Collectors.toSet());
+        store.ids().stream().filter(id -> !ids.contains(id)).forEach(this::removePoint);
+        int refreshed = refresh(points);
+        store.flush();
+        log.info("Travel matrix store synchronized: {} points, {} depots, {} recomputed in {} ms",
+                pointCount, points.size() - pointCount, refreshed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    void close() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    public boolean isRoadNetworkAvailable() {
+        return graph != null;
+    }
+
+    /**
+     * Travel time / distance matrix between the given points, in list order.
+     * Points not yet in the store (or moved since) are computed first.
+     */
+    public TravelMatrix travelMatrix(List<CollectionPoint> points) {
+        if (store == null) {
+            return computeDense(points);
+        }
+        int stale;
+        TravelMatrix view;
+        storeLock.lock();
+        try {
+            stale = refresh(points);
+            int[] ordinals = new int[points.size()];
+            for (int i = 0; i < ordinals.length; i++) {
+                ordinals[i] = store.ordinalOf(points.get(i).getId());
+            }
+            view = store.view(ordinals);
+        } finally {
+            storeLock.unlock();
+        }
+        meterRegistry.counter("ecocollect.travel_matrix.lookups", "result", "hit").increment(points.size() - stale);
+        meterRegistry.counter("ecocollect.travel_matrix.lookups", "result", "miss").increment(stale);
+        return view;
+    }
+
+    /**
+     * {@link #travelMatrix} with an arbitrary location (a vehicle's position) added as index 0,
+     * its legs computed by {@link #siteLegs}
+     */
+    public TravelMatrix travelMatrixFrom(double latitude, double longitude, List<CollectionPoint> points) {
+        return travelMatrixFrom(latitude, longitude, points, null);
+    }
+
+    /**
+     * {@link #travelMatrixFrom} where the tour ends at {@code returnTo}, added as the last index;
+     * {@code null} for an open tour
+     */
+    public TravelMatrix travelMatrixFrom(double latitude, double longitude, List<CollectionPoint> points,
+                                         Depot returnTo) {
+        TravelMatrix stops = travelMatrix(points);
+        List<CollectionPoint> targets = points;
+        if (returnTo != null) {
+            SiteLegs end = depotLegs(returnTo, points);
+            stops = TravelMatrix.withEnd(stops, end.fromSeconds(), end.fromMeters(), end.toSeconds(), end.toMeters());
+            targets = new ArrayList<>(points);
+            targets.add(location(returnTo.getLatitude(), returnTo.getLongitude()));
+        }
+        SiteLegs legs = siteLegs(latitude, longitude, targets);
+        return TravelMatrix.withOrigin(stops, legs.fromSeconds(), legs.fromMeters(), legs.toSeconds(), legs.toMeters());
+    }
+
+    /**
+     * A place that is not a collection point (vehicle, depot, unload site), for {@link #siteLegs} targets
+     */
+    public static CollectionPoint location(double latitude, double longitude) {
+        CollectionPoint place = new CollectionPoint();
+        place.setLatitude(latitude);
+        place.setLongitude(longitude);
+        return place;
+    }
+
+    /**
+     * Legs between a depot and each point, both ways, read from the store like {@link #travelMatrix};
+     * the depot's row and column are computed the first time it is used at its current coordinates
+     */
+    public SiteLegs depotLegs(Depot depot, List<CollectionPoint> points) {
+        if (store == null) {
+            return siteLegs(depot.getLatitude(), depot.getLongitude(), points);
+        }
+        CollectionPoint site = depotLocation(depot);
+        List<CollectionPoint> located = new ArrayList<>(points.size() + 1);
+        located.addAll(points);
+        located.add(site);
+        int n = points.size();
+        float[] secondsFrom = new float[n];
+        float[] metersFrom = new float[n];
+        float[] secondsTo = new float[n];
+        float[] metersTo = new float[n];
+        storeLock.lock();
+        try {
+            refresh(located);
+            int d = store.ordinalOf(site.getId());
+            for (int i = 0; i < n; i++) {
+                int ord = store.ordinalOf(points.get(i).getId());
+                secondsFrom[i] = store.seconds(d, ord);
+                metersFrom[i] = store.meters(d, ord);
+                secondsTo[i] = store.seconds(ord, d);
+                metersTo[i] = store.meters(ord, d);
+            }
+        } finally {
+            storeLock.unlock();
+        }
+        return new SiteLegs(secondsFrom, metersFrom, secondsTo, metersTo);
+    }
+
+    /**
+     * Legs between an arbitrary location (a vehicle, an unload site) and each point, both ways:
+     * one search over the road graph from the location and one over the reversed graph to it.
+     * Not cached, since such locations are neither collection points nor depots.
+     */
+    public SiteLegs siteLegs(double latitude, double longitude, List<CollectionPoint> points) {
+        int n = points.size();
+        float[] secondsFrom = new float[n];
+        float[] metersFrom = new float[n];
+        float[] secondsTo = new float[n];
+        float[] metersTo = new float[n];
+        RoadGraph roads = graph;
+        int site = roads != null ? roads.nearestNode(latitude, longitude) : -1;
+        float siteAccess = site < 0 ? 0f : (float) GeoUtils.haversineMeters(
+                latitude, longitude, roads.nodeLatitude(site), roads.nodeLongitude(site));
+        int[] targets = new int[n];
+        float[] targetAccess = new float[n];
+        float[] outSeconds = new float[n];
+        float[] outMeters = new float[n];
+        float[] backSeconds = new float[n];
+        float[] backMeters = new float[n];
+        Arrays.fill(outSeconds, Float.POSITIVE_INFINITY);
+        Arrays.fill(backSeconds, Float.POSITIVE_INFINITY);
+        if (site >= 0) {
+            for (int i = 0; i < n; i++) {
+                CollectionPoint p = points.get(i);
+                targets[i] = roads.nearestNode(p.getLatitude(), p.getLongitude());
+                targetAccess[i] = targets[i] < 0 ? 0f : (float) GeoUtils.haversineMeters(p.getLatitude(),
+                        p.getLongitude(), roads.nodeLatitude(targets[i]), roads.nodeLongitude(targets[i]));
+            }
+            roads.travelTo(site, targets, outSeconds, outMeters);
+            if (reverseGraph != null) {
+                reverseGraph.travelTo(site, targets, backSeconds, backMeters);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            CollectionPoint p = points.get(i);
+            float[] from = leg(latitude, longitude, siteAccess, p.getLatitude(), p.getLongitude(),
+                    targetAccess[i], outSeconds[i], outMeters[i], false);
+            secondsFrom[i] = from[0];
+            metersFrom[i] = from[1];
+            float[] back = leg(p.getLatitude(), p.getLongitude(), targetAccess[i], latitude, longitude,
+                    siteAccess, backSeconds[i], backMeters[i], false);
+            secondsTo[i] = back[0];
+            metersTo[i] = back[1];
+        }
+        return new SiteLegs(secondsFrom, metersFrom, secondsTo, metersTo);
+    }
+
+    /**
+     * Called when a collection point is created or updated; a no-op unless its coordinates changed
+     */
+    public void updatePoint(CollectionPoint point) {
+        updatePoints(List.of(point));
+    }
+
+    /**
+     * Batch form of {@link #updatePoint}: all moved points are recomputed in one pass
+     */
+    public void updatePoints(List<CollectionPoint> points) {
+        if (store == null) {
+            return;
+        }
+        List<CollectionPoint> located = points.stream()
+                .filter(p -> p.getLatitude() != null && p.getLongitude() != null)
+                .collect(Collectors.toList());
+        if (!located.isEmpty()) {
+            refresh(located);
+        }
+    }
+
+    public void removePoint(String id) {
+        if (store == null) {
+            return;
+        }
+        storeLock.lock();
+        try {
+            store.remove(id);
+        } finally {
+            storeLock.unlock();
+        }
+    }
+
+    public void removeDepot(String id) {
+        removePoint(DEPOT_PREFIX + id);
+    }
+
+    /**
+     * A depot as a store location; the prefix keeps it apart from collection point ids
+     */
+    private static CollectionPoint depotLocation(Depot depot) {
+        CollectionPoint place = location(depot.getLatitude(), depot.getLongitude());
+        place.setId(DEPOT_PREFIX + depot.getId());
+        return place;
+    }
+
+    /**
+     * Recompute the row and column of every stale point; returns how many were stale
+     */
+    private int refresh(List<CollectionPoint> points) {
+        if (points.stream().allMatch(this::isCurrent)) {
+            return 0;
+        }
+        storeLock.lock();
+        try {
+            List<CollectionPoint> stale = points.stream()
+                    .filter(p -> !isCurrent(p))
+                    .collect(Collectors.toList());
+            if (stale.isEmpty()) {
+                return 0;
+            }
+            try {
+                for (CollectionPoint p : stale) {
+                    store.assign(p.getId(), p.getLatitude(), p.getLongitude());
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not grow travel matrix store", e);
+            }
+
+            int[] live = store.liveOrdinals();
+            int[] staleOrds = stale.stream().mapToInt(p -> store.ordinalOf(p.getId())).toArray();
+            Set<Integer> staleSet = Arrays.stream(staleOrds).boxed().collect(Collectors.toSet());
+            int[] fresh = Arrays.stream(live).filter(o -> !staleSet.contains(o)).toArray();
+
+            Locations all = locate(live);
+            Locations unchanged = locate(fresh);
+
+            // Rows of stale points cover every pair among them; columns only need the unchanged sources
+            IntStream.range(0, staleOrds.length).parallel().forEach(k -> {
+                int ord = staleOrds[k];
+                int source = indexOf(live, ord);
+                fillRow(ord, all, source);
+                if (fresh.length > 0) {
+                    fillColumn(ord, all.node[source], all.access[source], unchanged);
+                }
+            });
+            for (int ord : staleOrds) {
+                store.markComplete(ord);
+            }
+            return stale.size();
+        } finally {
+            storeLock.unlock();
+        }
+    }
+
+    private boolean isCurrent(CollectionPoint p) {
+        return store.isCurrent(p.getId(), p.getLatitude(), p.getLongitude());
+    }
+
+    private void fillRow(int ord, Locations targets, int source) {
+        int n = targets.ordinals.length;
+        float[] sec = new float[n];
+        float[] len = new float[n];
+        RoadGraph roads = graph;
+        if (roads != null) {
+            roads.travelTo(targets.node[source], targets.node, sec, len);
+        }
+        for (int j = 0; j < n; j++) {
+            float[] leg = leg(targets.lat[source], targets.lon[source], targets.access[source],
+                    targets.lat[j], targets.lon[j], targets.access[j], sec[j], len[j], source == j);
+            store.put(ord, targets.ordinals[j], leg[0], leg[1]);
+        }
+    }
+
+    private void fillColumn(int ord, int node, float access, Locations sources) {
+        int n = sources.ordinals.length;
+        float[] sec = new float[n];
+        float[] len = new float[n];
+        double lat = store.latitude(ord);
+        double lon = store.longitude(ord);
+        if (reverseGraph != null) {
+            reverseGraph.travelTo(node, sources.node, sec, len);
+        }
+        for (int j = 0; j < n; j++) {
+            float[] leg = leg(sources.lat[j], sources.lon[j], sources.access[j],
+                    lat, lon, access, sec[j], len[j], false);
+            store.put(sources.ordinals[j], ord, leg[0], leg[1]);
+        }
+    }
+
+    /**
+     * Combine a node-to-node road path with the straight access legs at both ends,
+     * or fall back to straight-line when there is no road path
+     */
+    private float[] leg(double lat1, double lon1, float access1, double lat2, double lon2, float access2,
+                        float roadSeconds, float roadMeters, boolean same) {
+        double fallbackMetersPerSecond = properties.getFallbackSpeedKmh() / 3.6;
+        if (same) {
+            return new float[]{0f, 0f};
+        }
+        if (graph == null || Float.isInfinite(roadSeconds)) {
+            float m = (float) GeoUtils.haversineMeters(lat1, lon1, lat2, lon2);
+            return new float[]{(float) (m / fallbackMetersPerSecond), m};
+        }
+        float access = access1 + access2;
+        return new float[]{roadSeconds + (float) (access / fallbackMetersPerSecond), roadMeters + access};
+    }
+
+    private Locations locate(int[] ordinals) {
+        int n = ordinals.length;
+        Locations l = new Locations(ordinals);
+        RoadGraph roads = graph;
+        for (int i = 0; i < n; i++) {
+            l.lat[i] = store.latitude(ordinals[i]);
+            l.lon[i] = store.longitude(ordinals[i]);
+            l.node[i] = roads != null ? roads.nearestNode(l.lat[i], l.lon[i]) : -1;
+            l.access[i] = l.node[i] < 0 ? 0f : (float) GeoUtils.haversineMeters(
+                    l.lat[i], l.lon[i], roads.nodeLatitude(l.node[i]), roads.nodeLongitude(l.node[i]));
+        }
+        return l;
+    }
+
+    private static int indexOf(int[] sorted, int value) {
+        return Arrays.binarySearch(sorted, value);
+    }
+
+    /**
+     * Per-request matrix used only when the store could not be opened
+     */
+    private TravelMatrix computeDense(List<CollectionPoint> points) {
+        int n = points.size();
+        float[] seconds = new float[n * n];
+        float[] meters = new float[n * n];
+        double fallbackMetersPerSecond = properties.getFallbackSpeedKmh() / 3.6;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                float m = (float) GeoUtils.haversineMeters(points.get(i).getLatitude(), points.get(i).getLongitude(),
+                        points.get(j).getLatitude(), points.get(j).getLongitude());
+                meters[i * n + j] = m;
+                seconds[i * n + j] = (float) (m / fallbackMetersPerSecond);
+            }
+        }
+        return TravelMatrix.of(n, seconds, meters);
+    }
+
+    private static final class Locations {
+        final int[] ordinals;
+        final double[] lat;
+        final double[] lon;
+        final int[] node;
+        final float[] access;
+
+        Locations(int[] ordinals) {
+            this.ordinals = ordinals;
+            this.lat = new double[ordinals.length];
+            this.lon = new double[ordinals.length];
+            this.node = new int[ordinals.length];
+            this.access = new float[ordinals.length];
+        }
+    }
+}
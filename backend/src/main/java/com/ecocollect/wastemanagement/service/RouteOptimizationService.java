@@ -1,52 +1,92 @@
 package com.ecocollect.wastemanagement.service;
 
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
+import com.ecocollect.wastemanagement.config.VolumeProperties;
 import com.ecocollect.wastemanagement.dto.RouteOptimizationRequest;
 import com.ecocollect.wastemanagement.dto.RouteOptimizationResponse;
 import com.ecocollect.wastemanagement.exception.ValidationException;
 import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Depot;
+import com.ecocollect.wastemanagement.model.RouteStop;
 import com.ecocollect.wastemanagement.model.Vehicle;
+import com.ecocollect.wastemanagement.routing.SiteLegs;
+import com.ecocollect.wastemanagement.routing.TourOptimizer;
+import com.ecocollect.wastemanagement.routing.TourProblem;
+import com.ecocollect.wastemanagement.routing.TourSchedule;
+import com.ecocollect.wastemanagement.routing.TravelMatrix;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Service for optimizing collection routes using Dijkstra-like algorithm
- * Optimizes based on distance, fill level priority, and vehicle capacity
+ * Optimizes based on distance, fill level priority, service windows and crew shift length;
+ * trips to the unload site keep the vehicle within its capacity. With depots, tours leave
+ * from and return to one, so the distance covers the whole day's driving.
  */
 @Service
 @RequiredArgsConstructor
 public class RouteOptimizationService {
     
-    private final CollectionPointService collectionPointService;
+    private final CitySnapshotService snapshotService;
     private final VehicleService vehicleService;
+    private final DepotService depotService;
+    private final RoadNetworkService roadNetworkService;
+    private final SchedulingProperties schedulingProperties;
+    private final WasteVolumeService volumeService;
+    private final VolumeProperties volumeProperties;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
     
     /**
-     * Calculate distance between two points using Haversine formula
+     * Optimize route using nearest neighbor heuristic with priority for high fill levels,
+     * then improve it with time-window aware local search
      */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Earth's radius in km
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
+    public RouteOptimizationResponse optimizeRoute(RouteOptimizationRequest request) {
+        // Timer ecocollect.optimizer.duration and the optimization span
+        Observation observation = Observation.createNotStarted("ecocollect.optimizer.duration", observationRegistry)
+            .contextualName("optimize-route")
+            .lowCardinalityKeyValue("outcome", "error")
+            .highCardinalityKeyValue("points", String.valueOf(request.getCollectionPointIds().size()))
+            .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            RouteOptimizationResponse response = doOptimizeRoute(request);
+            observation.lowCardinalityKeyValue("outcome", feasible(response.getWithinShift(),
+                response.getLateStopIds(), response.getWithinCapacity()) ? "feasible" : "infeasible");
+            return response;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
     }
     
-    /**
-     * Optimize route using nearest neighbor heuristic with priority for high fill levels
-     */
-    public RouteOptimizationResponse optimizeRoute(RouteOptimizationRequest request) {
+    private <T> T stage(String name, Supplier<T> step) {
+        return Observation.createNotStarted("ecocollect.optimizer.stage", observationRegistry)
+            .contextualName(name)
+            .lowCardinalityKeyValue("stage", name)
+            .observe(step);
+    }
+    
+    private RouteOptimizationResponse doOptimizeRoute(RouteOptimizationRequest request) {
         // Get vehicle
         Vehicle vehicle = vehicleService.getVehicleById(request.getVehicleId());
         
-        // Get collection points
-        List<CollectionPoint> points = request.getCollectionPointIds().stream()
-                .map(collectionPointService::getCollectionPointById)
-                .collect(Collectors.toList());
+        // Get collection points, from the snapshot when it has them
+        List<CollectionPoint> points = stage("load-points", () -> snapshotService.getPoints(request.getCollectionPointIds()));
         
         if (points.isEmpty()) {
             throw new ValidationException("No collection points provided");
@@ -61,63 +101,256 @@ public class RouteOptimizationService {
         // Sort points by fill level (priority: higher fill level first)
         points.sort((p1, p2) -> Integer.compare(p2.getFillLevel(), p1.getFillLevel()));
         
-        // Use nearest neighbor algorithm starting from the highest priority point
-        List<String> optimizedOrder = new ArrayList<>();
-        List<CollectionPoint> remaining = new ArrayList<>(points);
-        CollectionPoint current = remaining.remove(0);
-        optimizedOrder.add(current.getId());
-        
-        double totalDistance = 0.0;
-        
-        while (!remaining.isEmpty()) {
-            CollectionPoint nearest = null;
-            double minDistance = Double.MAX_VALUE;
-            int nearestIndex = -1;
+        // Road-network travel times between every pair of points (indexes follow the sorted list)
+        try (TravelMatrix stopsMatrix = stage("travel-matrix", () -> roadNetworkService.travelMatrix(points))) {
+            
+            // Depot as node 0 and again as the last node, both views over the points' matrix
+            Optional<DepotService.DepotLegs> depot = stage("depot",
+                () -> depotService.tourDepot(request.getDepotId(), vehicle, points));
+            TravelMatrix matrix = depot.map(d -> TravelMatrix.closedTour(stopsMatrix, d.legs())).orElse(stopsMatrix);
+            int offset = depot.isPresent() ? 1 : 0;
+            
+            Instant startTime = request.getStartTime() != null ? request.getStartTime() : Instant.now();
+            int shiftMinutes = request.getShiftMinutes() != null ?
+                request.getShiftMinutes() : schedulingProperties.getDefaultShiftMinutes();
             
-            // Find nearest unvisited point
-            for (int i = 0; i < remaining.size(); i++) {
-                CollectionPoint candidate = remaining.get(i);
-                double distance = calculateDistance(
-                    current.getLatitude(), current.getLongitude(),
-                    candidate.getLatitude(), candidate.getLongitude()
-                );
-                
-                // Consider fill level as priority (higher fill = closer in priority space)
-                double priorityDistance = distance / (1 + candidate.getFillLevel() / 100.0);
-                
-                if (priorityDistance < minDistance) {
-                    minDistance = priorityDistance;
-                    nearest = candidate;
-                    nearestIndex = i;
-                }
+            // Service windows, service times and shift limit, relative to the planned start
+            TourProblem problem = buildProblem(points, matrix, startTime, shiftMinutes, depot.isPresent(), depot.isPresent());
+            double[] depotLocation = depot.map(d -> new double[]{d.depot().getLatitude(), d.depot().getLongitude()}).orElse(null);
+            applyLoad(problem, nodes(depotLocation, points, depotLocation), vehicle, depot.map(DepotService.DepotLegs::depot).orElse(null),
+                depot.map(d -> closedTourLegs(d.legs())).orElse(null));
+            TourSchedule schedule = stage("local-search", () -> TourOptimizer.optimize(problem));
+            recordTourMetrics(points.size(), schedule);
+            
+            List<String> optimizedOrder = new ArrayList<>();
+            List<Instant> serviceStarts = new ArrayList<>();
+            int end = schedule.getOrder().length - (problem.isFixedEnd() ? 1 : 0);
+            for (int p = offset; p < end; p++) {
+                optimizedOrder.add(points.get(schedule.getOrder()[p] - offset).getId());
+                serviceStarts.add(startTime.plusSeconds(schedule.getServiceStartSeconds()[p]));
             }
+            List<String> lateStopIds = Arrays.stream(schedule.getLateStops())
+                .filter(p -> p >= offset && p < end)
+                .mapToObj(p -> optimizedOrder.get(p - offset))
+                .collect(Collectors.toList());
+            
+            double totalDistance = schedule.getTravelMeters() / 1000.0;
+            Duration plannedDuration = Duration.ofSeconds(schedule.getDurationSeconds());
+            String estimatedDuration = plannedDuration.toHours() + "h " + plannedDuration.toMinutesPart() + "m";
+            
+            RouteOptimizationResponse response = new RouteOptimizationResponse();
+            response.setOptimizedPointIds(optimizedOrder);
+            response.setTotalDistance(Math.round(totalDistance * 100.0) / 100.0);
+            response.setEstimatedDuration(estimatedDuration);
+            response.setStartTime(startTime.plusSeconds(schedule.getDepartureSeconds()));
+            response.setPlannedDuration(plannedDuration);
+            response.setTravelTime(Duration.ofSeconds(Math.round(schedule.getTravelSeconds())));
+            response.setServiceTime(Duration.ofSeconds(schedule.getServiceSeconds()));
+            response.setWaitingTime(Duration.ofSeconds(schedule.getWaitSeconds()));
+            response.setServiceStarts(serviceStarts);
+            response.setLateStopIds(lateStopIds);
+            response.setWithinShift(schedule.getShiftOverrunSeconds() == 0);
+            response.setDistanceMeters((int) Math.round(schedule.getTravelMeters()));
+            response.setStops(stops(points, problem, schedule, startTime, offset));
+            response.setDepotId(depot.map(d -> d.depot().getId()).orElse(null));
+            response.setCollectedLiters(schedule.getCollectedLiters());
+            response.setUnloadTrips(schedule.getUnloadBefore().length);
+            response.setWithinCapacity(schedule.getOverloadLiters() == 0);
+            response.setOverloadLiters(schedule.getOverloadLiters());
+            response.setMessage("Route optimized successfully. " + points.size() + 
+                " points ordered by priority, distance and service windows" +
+                (schedule.isFeasible() ? "." : " (" + lateStopIds.size() + " late stops, shift exceeded by " +
+                    schedule.getShiftOverrunSeconds() / 60 + " min, capacity exceeded by " +
+                    schedule.getOverloadLiters() + " l)."));
             
-            if (nearest != null) {
-                double actualDistance = calculateDistance(
-                    current.getLatitude(), current.getLongitude(),
-                    nearest.getLatitude(), nearest.getLongitude()
-                );
-                totalDistance += actualDistance;
-                optimizedOrder.add(nearest.getId());
-                remaining.remove(nearestIndex);
-                current = nearest;
+            return response;
+        }
+    }
+    
+    static boolean feasible(Boolean withinShift, List<String> lateStopIds, Boolean withinCapacity) {
+        return withinShift && lateStopIds.isEmpty() && !Boolean.FALSE.equals(withinCapacity);
+    }
+    
+    /**
+     * Stops of a schedule with their legs; {@code offset} is 1 when node 0 is the vehicle's
+     * position or the depot, which then counts as the origin of the first leg. The return to
+     * the depot (fixed end) is not a stop. A leg with an unload trip goes through the unload site.
+     */
+    static List<RouteStop> stops(List<CollectionPoint> points, TourProblem problem, TourSchedule schedule,
+                                 Instant startTime, int offset) {
+        TravelMatrix matrix = problem.getMatrix();
+        SiteLegs site = problem.getUnloadLegs();
+        int[] order = schedule.getOrder();
+        boolean[] unload = new boolean[order.length];
+        Arrays.stream(schedule.getUnloadBefore()).forEach(p -> unload[p] = true);
+        int end = order.length - (problem.isFixedEnd() ? 1 : 0);
+        List<RouteStop> stops = new ArrayList<>(Math.max(0, end - offset));
+        for (int p = offset; p < end; p++) {
+            float meters = p == 0 ? 0 : matrix.meters(order[p - 1], order[p]);
+            float seconds = p == 0 ? 0 : matrix.seconds(order[p - 1], order[p]);
+            if (unload[p]) {
+                meters = (p == 0 ? 0 : site.toMeters()[order[p - 1]]) + site.fromMeters()[order[p]];
+                seconds = (p == 0 ? 0 : site.toSeconds()[order[p - 1]]) + site.fromSeconds()[order[p]];
             }
+            stops.add(new RouteStop(points.get(order[p] - offset).getId(), Math.round(meters), Math.round(seconds),
+                startTime.plusSeconds(schedule.getArrivalSeconds()[p]), unload[p] ? Boolean.TRUE : null));
+        }
+        return stops;
+    }
+    
+    /**
+     * Depot legs over the nodes of a closed tour: the depot, the points, the depot again (zero legs)
+     */
+    static SiteLegs closedTourLegs(SiteLegs depot) {
+        int n = depot.fromSeconds().length;
+        return new SiteLegs(pad(depot.fromSeconds(), n), pad(depot.fromMeters(), n),
+            pad(depot.toSeconds(), n), pad(depot.toMeters(), n));
+    }
+    
+    private static float[] pad(float[] legs, int n) {
+        float[] padded = new float[n + 2];
+        System.arraycopy(legs, 0, padded, 1, n);
+        return padded;
+    }
+    
+    /**
+     * One entry per matrix node: {@code start} (vehicle or depot, may be null), the points,
+     * then {@code end} (the depot returned to, may be null)
+     */
+    static List<CollectionPoint> nodes(double[] start, List<CollectionPoint> points, double[] end) {
+        if (start == null && end == null) {
+            return points;
+        }
+        List<CollectionPoint> nodes = new ArrayList<>(points.size() + 2);
+        if (start != null) {
+            nodes.add(RoadNetworkService.location(start[0], start[1]));
+        }
+        nodes.addAll(points);
+        if (end != null) {
+            nodes.add(RoadNetworkService.location(end[0], end[1]));
+        }
+        return nodes;
+    }
+    
+    /**
+     * Volume of each stop ({@code nodes} as built by {@link #nodes}; places that are not
+     * collection points carry none) and the vehicle's capacity and current load. With an unload
+     * site, also its legs to every node: the depot when it takes waste, else volume.unload-*.
+     * {@code depotLegs}, when not null, are the depot's legs to every node, already computed.
+     */
+    void applyLoad(TourProblem problem, List<CollectionPoint> nodes, Vehicle vehicle, Depot depot, SiteLegs depotLegs) {
+        if (vehicle == null || vehicle.getCapacity() == null) {
+            return;
+        }
+        int[] demand = new int[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i).getId() != null) {
+                demand[i] = (int) Math.round(volumeService.expectedLiters(nodes.get(i)));
+            }
+        }
+        problem.setDemand(demand);
+        problem.setCapacity(vehicle.getCapacity());
+        problem.setInitialLoad(vehicle.getCurrentLoad() != null ? vehicle.getCurrentLoad() : 0);
+        boolean atDepot = depot != null && Boolean.TRUE.equals(depot.getUnloadSite());
+        double[] site = atDepot
+            ? new double[]{depot.getLatitude(), depot.getLongitude()}
+            : volumeProperties.hasUnloadSite()
+                ? new double[]{volumeProperties.getUnloadLatitude(), volumeProperties.getUnloadLongitude()}
+                : null;
+        if (site == null) {
+            return;
+        }
+        problem.setUnloadLegs(atDepot && depotLegs != null ? depotLegs : roadNetworkService.siteLegs(site[0], site[1], nodes));
+        problem.setUnloadServiceSeconds(volumeProperties.getUnloadMinutes() * 60);
+    }
+    
+    private void recordTourMetrics(int pointCount, TourSchedule schedule) {
+        DistributionSummary.builder("ecocollect.optimizer.points")
+            .description("Collection points per optimized route")
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(pointCount);
+        DistributionSummary.builder("ecocollect.optimizer.distance")
+            .description("Travel distance of optimized routes")
+            .baseUnit("kilometers")
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(schedule.getTravelMeters() / 1000.0);
+        DistributionSummary.builder("ecocollect.optimizer.iterations")
+            .description("Improving local search moves per optimization")
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(schedule.getIterations());
+    }
+    
+    /**
+     * Optimizer input for {@code points}. With {@code fromOrigin} the matrix has the vehicle's
+     * position or the depot as node 0 (point {@code i} is node {@code i + 1}) and that node is
+     * kept first; with {@code toEnd} its last node is the depot and is kept last.
+     */
+    TourProblem buildProblem(List<CollectionPoint> points, TravelMatrix matrix,
+                             Instant startTime, int shiftMinutes, boolean fromOrigin, boolean toEnd) {
+        int offset = fromOrigin ? 1 : 0;
+        int n = points.size() + offset + (toEnd ? 1 : 0);
+        int[] service = new int[n];
+        int[] open = new int[n];
+        int[] close = new int[n];
+        int[] fill = new int[n];
+        ZoneId zone = schedulingProperties.zoneId();
+        if (fromOrigin) {
+            close[0] = TourProblem.NO_LIMIT;
+        }
+        if (toEnd) {
+            close[n - 1] = TourProblem.NO_LIMIT;
         }
         
-        // Estimate duration (assuming average speed of 30 km/h and 10 min per stop)
-        double estimatedHours = (totalDistance / 30.0) + (points.size() * 10.0 / 60.0);
-        int hours = (int) estimatedHours;
-        int minutes = (int) ((estimatedHours - hours) * 60);
-        String estimatedDuration = hours + "h " + minutes + "m";
-        
-        RouteOptimizationResponse response = new RouteOptimizationResponse();
-        response.setOptimizedPointIds(optimizedOrder);
-        response.setTotalDistance(Math.round(totalDistance * 100.0) / 100.0);
-        response.setEstimatedDuration(estimatedDuration);
-        response.setMessage("Route optimized successfully. " + points.size() + 
-            " points ordered by priority and distance.");
+        for (int i = offset; i < offset + points.size(); i++) {
+            CollectionPoint point = points.get(i - offset);
+            int minutes = point.getServiceMinutes() != null ?
+                point.getServiceMinutes() : schedulingProperties.getDefaultServiceMinutes();
+            service[i] = minutes * 60;
+            fill[i] = point.getFillLevel() != null ? point.getFillLevel() : 0;
+            open[i] = 0;
+            close[i] = TourProblem.NO_LIMIT;
+            if (point.getServiceWindowStart() != null && point.getServiceWindowEnd() != null) {
+                ServiceWindow window = serviceWindow(point.getServiceWindowStart(), point.getServiceWindowEnd(),
+                    startTime, zone);
+                open[i] = (int) Math.max(0, Duration.between(startTime, window.open()).getSeconds());
+                close[i] = (int) Duration.between(startTime, window.close()).getSeconds();
+            }
+        }
         
-        return response;
+        TourProblem problem = new TourProblem();
+        problem.setMatrix(matrix);
+        problem.setServiceSeconds(service);
+        problem.setWindowOpen(open);
+        problem.setWindowClose(close);
+        problem.setFillLevel(fill);
+        problem.setMaxDurationSeconds(shiftMinutes * 60L);
+        problem.setFixedPrefix(offset);
+        problem.setFixedEnd(toEnd);
+        problem.setTimeBudgetMillis(schedulingProperties.getLocalSearchMillis());
+        return problem;
+    }
+    
+    record ServiceWindow(Instant open, Instant close) {
+    }
+    
+    /**
+     * The first occurrence of a daily window that is still open after {@code startTime}: one
+     * already open (an overnight window from the day before included), else the next to open.
+     * A window whose end is not after its start runs overnight.
+     */
+    static ServiceWindow serviceWindow(LocalTime start, LocalTime end, Instant startTime, ZoneId zone) {
+        LocalDate day = startTime.atZone(zone).toLocalDate().minusDays(1);
+        while (true) {
+            Instant open = day.atTime(start).atZone(zone).toInstant();
+            Instant close = (end.isAfter(start) ? day : day.plusDays(1)).atTime(end).atZone(zone).toInstant();
+            if (close.isAfter(startTime)) {
+                return new ServiceWindow(open, close);
+            }
+            day = day.plusDays(1);
+        }
     }
 }
 
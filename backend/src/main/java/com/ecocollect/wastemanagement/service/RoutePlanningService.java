@@ -1,55 +1,137 @@
 package com.ecocollect.wastemanagement.service;
 
+import com.ecocollect.wastemanagement.config.VolumeProperties;
 import com.ecocollect.wastemanagement.dto.RouteRequest;
 import com.ecocollect.wastemanagement.exception.ValidationException;
 import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Depot;
 import com.ecocollect.wastemanagement.model.Route;
 import com.ecocollect.wastemanagement.model.Vehicle;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Service for intelligent route planning
- * Automatically plans routes based on zone, vehicle capacity, and collection point fill levels
+ * Automatically plans routes based on zone, vehicle capacity, and collection point fill levels;
+ * with several depots, each route leaves from the vehicle's home depot or the one closest to its zone
  */
 @Service
 @RequiredArgsConstructor
 public class RoutePlanningService {
     
-    private final CollectionPointService collectionPointService;
+    // Re-optimizations allowed after dropping points from a tour that came out over capacity
+    private static final int MAX_CAPACITY_TRIMS = 3;
+    
+    private final CitySnapshotService snapshotService;
     private final VehicleService vehicleService;
     private final RouteOptimizationService optimizationService;
     private final EmployeeAssignmentService assignmentService;
     private final RouteService routeService;
+    private final DepotService depotService;
+    private final WasteVolumeService volumeService;
+    private final VolumeProperties volumeProperties;
+    private final ObservationRegistry observationRegistry;
     
     /**
      * Plan an intelligent route automatically
      */
     public Route planRoute(String zone, String vehicleId, Integer numberOfEmployees) {
+        return planRoute(zone, vehicleId, numberOfEmployees, null, null);
+    }
+    
+    /**
+     * Plan an intelligent route starting at {@code startTime} (default: in one hour)
+     * that must fit in {@code shiftMinutes} (default: scheduling.default-shift-minutes)
+     */
+    public Route planRoute(String zone, String vehicleId, Integer numberOfEmployees,
+                           Instant startTime, Integer shiftMinutes) {
+        // Timer ecocollect.planning.duration and the root span of the planning trace
+        Observation observation = Observation.createNotStarted("ecocollect.planning.duration", observationRegistry)
+            .contextualName("plan-route")
+            .lowCardinalityKeyValue("outcome", "error")
+            .highCardinalityKeyValue("vehicle.id", String.valueOf(vehicleId))
+            .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            Route route = doPlanRoute(zone, vehicleId, numberOfEmployees, startTime, shiftMinutes);
+            observation.lowCardinalityKeyValue("outcome", "success");
+            return route;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+    
+    /**
+     * One child span (and ecocollect.planning.stage timer) per planning step
+     */
+    private <T> T stage(String name, Supplier<T> step) {
+        return Observation.createNotStarted("ecocollect.planning.stage", observationRegistry)
+            .contextualName(name)
+            .lowCardinalityKeyValue("stage", name)
+            .observe(step);
+    }
+    
+    /**
+     * Points in fill level order whose expected liters add up to what the vehicle can take:
+     * its free capacity, plus volume.max-unload-trips full loads when it can unload on the way.
+     * Points that would not fit are passed over for smaller ones; empty containers, and containers
+     * larger than the vehicle, are left out. Liters are rounded as the optimizer rounds them, so
+     * without unload trips the selection always fits.
+     */
+    private List<CollectionPoint> selectByVolume(List<CollectionPoint> points, Vehicle vehicle, boolean canUnload) {
+        List<CollectionPoint> byFill = points.stream()
+            .sorted((p1, p2) -> Integer.compare(p2.getFillLevel(), p1.getFillLevel()))
+            .collect(Collectors.toList());
+        if (vehicle.getCapacity() == null) {
+            return byFill;
+        }
+        int free = vehicle.getCapacity() - (vehicle.getCurrentLoad() != null ? vehicle.getCurrentLoad() : 0);
+        long budget = Math.max(0, free)
+            + (canUnload ? (long) volumeProperties.getMaxUnloadTrips() * vehicle.getCapacity() : 0);
+        List<CollectionPoint> selected = new ArrayList<>();
+        for (CollectionPoint point : byFill) {
+            long liters = Math.round(volumeService.expectedLiters(point));
+            if (liters > 0 && liters <= budget && liters <= vehicle.getCapacity()) {
+                selected.add(point);
+                budget -= liters;
+            }
+        }
+        return selected;
+    }
+    
+    private Route doPlanRoute(String zone, String vehicleId, Integer numberOfEmployees,
+                              Instant startTime, Integer shiftMinutes) {
         // Get vehicle
-        Vehicle vehicle = vehicleService.getVehicleById(vehicleId);
+        Vehicle vehicle = stage("get-vehicle", () -> vehicleService.getVehicleById(vehicleId));
         
-        // Get collection points in the zone that need attention (fillLevel >= 60)
-        List<CollectionPoint> allPoints = collectionPointService.getAllCollectionPoints();
-        List<CollectionPoint> zonePoints = allPoints.stream()
-            .filter(p -> zone.equals(p.getAssignedZone()) || 
-                        (p.getFillLevel() >= 60 && "operational".equals(p.getStatus())))
-            .collect(Collectors.toList());
+        // Only the zone's own points, from the in-memory snapshot
+        List<CollectionPoint> zonePoints = stage("load-points", () -> snapshotService.getPointsInZone(zone));
         
         if (zonePoints.isEmpty()) {
             throw new ValidationException("No collection points found in zone: " + zone);
         }
         
-        // Limit points based on vehicle capacity
-        // Assuming each point represents a certain load
-        int maxPoints = Math.min(zonePoints.size(), vehicle.getCapacity() / 10); // Simplified calculation
-        List<CollectionPoint> selectedPoints = zonePoints.stream()
-            .sorted((p1, p2) -> Integer.compare(p2.getFillLevel(), p1.getFillLevel()))
-            .limit(maxPoints)
-            .collect(Collectors.toList());
+        // The vehicle's home depot, else the one closest to the zone
+        Depot depot = stage("choose-depot", () -> depotService.tourDepot(null, vehicle, zonePoints)
+            .map(DepotService.DepotLegs::depot).orElse(null));
+        
+        // Fullest points first, as long as their volume fits in the vehicle and its unload trips
+        boolean canUnload = volumeProperties.hasUnloadSite() || depot != null && Boolean.TRUE.equals(depot.getUnloadSite());
+        List<CollectionPoint> selectedPoints = stage("select-points", () -> selectByVolume(zonePoints, vehicle, canUnload));
+        if (selectedPoints.isEmpty()) {
+            throw new ValidationException("Nothing to collect in zone " + zone + " with vehicle " + vehicleId);
+        }
         
         // Optimize route order
         com.ecocollect.wastemanagement.dto.RouteOptimizationRequest optRequest = 
@@ -59,31 +141,70 @@ public class RoutePlanningService {
         );
         optRequest.setVehicleId(vehicleId);
         optRequest.setZone(zone);
+        optRequest.setDepotId(depot != null ? depot.getId() : null);
+        optRequest.setStartTime(startTime != null ? startTime : Instant.now().plus(Duration.ofHours(1)));
+        optRequest.setShiftMinutes(shiftMinutes);
         
-        com.ecocollect.wastemanagement.dto.RouteOptimizationResponse optResponse = 
-            optimizationService.optimizeRoute(optRequest);
+        com.ecocollect.wastemanagement.dto.RouteOptimizationResponse optResponse = optimize(optRequest);
+        
+        // Unload trips may not pack the selection evenly: drop the least full points until every
+        // trip fits the vehicle, and refuse to plan a route it cannot carry
+        for (int trim = 0; Boolean.FALSE.equals(optResponse.getWithinCapacity()); trim++) {
+            if (trim == MAX_CAPACITY_TRIMS || !dropLeastFull(selectedPoints, optResponse.getOverloadLiters())) {
+                throw new ValidationException("Zone " + zone + " cannot be collected within the capacity of vehicle "
+                    + vehicleId + " (" + optResponse.getOverloadLiters() + " l over)");
+            }
+            optRequest.setCollectionPointIds(
+                selectedPoints.stream().map(CollectionPoint::getId).collect(Collectors.toList())
+            );
+            optResponse = optimize(optRequest);
+        }
         
         // Create route
         RouteRequest routeRequest = new RouteRequest();
         routeRequest.setName("Route " + zone + " - " + java.time.LocalDateTime.now().toString());
         routeRequest.setStatus("scheduled");
         routeRequest.setZone(zone);
-        routeRequest.setScheduledTime(java.time.LocalDateTime.now().plusHours(1).toString());
+        routeRequest.setScheduledTime(optResponse.getStartTime().toString());
+        routeRequest.setScheduledStart(optResponse.getStartTime());
         routeRequest.setEstimatedDuration(optResponse.getEstimatedDuration());
+        routeRequest.setPlannedDuration(optResponse.getPlannedDuration());
         routeRequest.setCollectionPoints(selectedPoints.size());
         routeRequest.setCompletedPoints(0);
         routeRequest.setAssignedVehicle(vehicleId);
         routeRequest.setDistance(optResponse.getTotalDistance() + " km");
+        routeRequest.setDistanceMeters(optResponse.getDistanceMeters());
+        routeRequest.setDepotId(optResponse.getDepotId());
+        routeRequest.setStops(optResponse.getStops());
         routeRequest.setAssignedEmployees(new java.util.ArrayList<>());
         
-        Route route = routeService.createRoute(routeRequest);
+        Route route = stage("create-route", () -> routeService.createRoute(routeRequest));
         
         // Auto-assign employees
         if (numberOfEmployees != null && numberOfEmployees > 0) {
-            assignmentService.assignEmployeesToRoute(route.getId(), numberOfEmployees);
+            stage("assign-employees", () -> assignmentService.assignEmployeesToRoute(route.getId(), numberOfEmployees));
         }
         
         return routeService.getRouteById(route.getId());
     }
+    
+    private com.ecocollect.wastemanagement.dto.RouteOptimizationResponse optimize(
+            com.ecocollect.wastemanagement.dto.RouteOptimizationRequest request) {
+        return stage("optimize-route", () -> optimizationService.optimizeRoute(request));
+    }
+    
+    /**
+     * Remove points from the end of {@code selected} (the least full) until their liters cover
+     * {@code overloadLiters}, keeping at least one; false when nothing could be removed
+     */
+    private boolean dropLeastFull(List<CollectionPoint> selected, long overloadLiters) {
+        long dropped = 0;
+        boolean removed = false;
+        while (dropped < overloadLiters && selected.size() > 1) {
+            dropped += Math.round(volumeService.expectedLiters(selected.remove(selected.size() - 1)));
+            removed = true;
+        }
+        return removed;
+    }
 }
 
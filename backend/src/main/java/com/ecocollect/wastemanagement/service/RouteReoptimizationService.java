@@ -0,0 +1,223 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
+import com.ecocollect.wastemanagement.dto.RouteReoptimizationRequest;
+import com.ecocollect.wastemanagement.dto.RouteReoptimizationResponse;
+import com.ecocollect.wastemanagement.dto.VehiclePositionResponse;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Depot;
+import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.model.RouteStop;
+import com.ecocollect.wastemanagement.routing.TourOptimizer;
+import com.ecocollect.wastemanagement.routing.TourProblem;
+import com.ecocollect.wastemanagement.routing.TourSchedule;
+import com.ecocollect.wastemanagement.routing.TravelMatrix;
+import com.ecocollect.wastemanagement.snapshot.CitySnapshot;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Re-plans the rest of a route that is already being driven: the vehicle's current position
+ * is the fixed start, the remaining stops keep their order as the starting tour, newly critical
+ * points are added by cheapest insertion and only that suffix goes through the local search,
+ * within scheduling.reoptimize-millis. A route with a depot still ends there.
+ */
+@Service
+@RequiredArgsConstructor
+public class RouteReoptimizationService {
+
+    static final int CRITICAL_FILL_LEVEL = 90;
+
+    private final RouteService routeService;
+    private final CitySnapshotService snapshotService;
+    private final RoadNetworkService roadNetworkService;
+    private final RouteOptimizationService optimizationService;
+    private final VehicleTrackingService trackingService;
+    private final VehicleService vehicleService;
+    private final DepotService depotService;
+    private final SchedulingProperties schedulingProperties;
+    private final ObservationRegistry observationRegistry;
+
+    public RouteReoptimizationResponse reoptimize(String routeId, RouteReoptimizationRequest request) {
+        // Timer ecocollect.optimizer.reoptimize and its span
+        Observation observation = Observation.createNotStarted("ecocollect.optimizer.reoptimize", observationRegistry)
+            .contextualName("reoptimize-route")
+            .lowCardinalityKeyValue("outcome", "error")
+            .highCardinalityKeyValue("route.id", routeId)
+            .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            RouteReoptimizationResponse response = doReoptimize(routeId, request);
+            observation.lowCardinalityKeyValue("outcome", RouteOptimizationService.feasible(response.getWithinShift(),
+                response.getLateStopIds(), response.getWithinCapacity()) ? "feasible" : "infeasible");
+            return response;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private RouteReoptimizationResponse doReoptimize(String routeId, RouteReoptimizationRequest request) {
+        long started = System.nanoTime();
+        Route route = routeService.getRouteById(routeId);
+        if (!"in_progress".equals(route.getStatus())) {
+            throw new ValidationException("Only in_progress routes can be re-optimized, route " + routeId
+                + " is " + route.getStatus());
+        }
+        double[] position = currentPosition(route, request);
+
+        List<String> remainingIds = remainingPointIds(route, request).stream().distinct().collect(Collectors.toList());
+        Set<String> onRoute = new HashSet<>(remainingIds);
+        Set<String> requestedIds = new LinkedHashSet<>();
+        if (request.getInsertPointIds() != null) {
+            request.getInsertPointIds().stream().filter(id -> !onRoute.contains(id)).forEach(requestedIds::add);
+        }
+        Map<String, CollectionPoint> byId = loadPoints(remainingIds, requestedIds);
+
+        // Explicit insertions first, then critical points of the zone, fullest first
+        List<CollectionPoint> candidates = requestedIds.stream().map(byId::get).collect(Collectors.toList());
+        if (!Boolean.FALSE.equals(request.getIncludeCriticalPoints()) && route.getZone() != null) {
+            CitySnapshot snapshot = snapshotService.current();
+            Arrays.stream(snapshot.slotsInZone(route.getZone()))
+                .filter(slot -> snapshot.fillLevel(slot) >= CRITICAL_FILL_LEVEL)
+                .filter(slot -> !onRoute.contains(snapshot.id(slot)) && !requestedIds.contains(snapshot.id(slot)))
+                .mapToObj(snapshot::point)
+                .sorted((p1, p2) -> Integer.compare(p2.getFillLevel(), p1.getFillLevel()))
+                .forEach(candidates::add);
+        }
+
+        List<CollectionPoint> points = new ArrayList<>(remainingIds.size() + candidates.size());
+        remainingIds.forEach(id -> points.add(byId.get(id)));
+        points.addAll(candidates);
+
+        Instant now = Instant.now();
+        Depot depot = route.getDepotId() != null ? depotService.getDepotById(route.getDepotId()) : null;
+        double[] returnTo = depot != null ? new double[]{depot.getLatitude(), depot.getLongitude()} : null;
+        try (TravelMatrix matrix = roadNetworkService.travelMatrixFrom(position[0], position[1], points, depot)) {
+            TourProblem problem = optimizationService.buildProblem(points, matrix, now, shiftMinutesLeft(route, request, now),
+                true, depot != null);
+            problem.setTimeBudgetMillis(schedulingProperties.getReoptimizeMillis());
+            if (route.getAssignedVehicle() != null) {
+                optimizationService.applyLoad(problem, RouteOptimizationService.nodes(position, points, returnTo),
+                    vehicleService.getVehicleById(route.getAssignedVehicle()), depot, null);
+            }
+
+            // Node 0 is the vehicle, point i is node i + 1
+            int[] remaining = new int[remainingIds.size()];
+            for (int i = 0; i < remaining.length; i++) {
+                remaining[i] = i + 1;
+            }
+            int[] insert = new int[candidates.size()];
+            for (int i = 0; i < insert.length; i++) {
+                insert[i] = remaining.length + i + 1;
+            }
+            TourSchedule schedule = TourOptimizer.reoptimize(problem, remaining, insert);
+
+            List<String> optimizedOrder = new ArrayList<>();
+            List<Instant> serviceStarts = new ArrayList<>();
+            List<String> lateStopIds = new ArrayList<>();
+            int[] order = schedule.getOrder();
+            boolean[] late = new boolean[order.length];
+            Arrays.stream(schedule.getLateStops()).forEach(p -> late[p] = true);
+            int end = order.length - (problem.isFixedEnd() ? 1 : 0);
+            for (int p = problem.getFixedPrefix(); p < end; p++) {
+                String id = points.get(order[p] - 1).getId();
+                optimizedOrder.add(id);
+                serviceStarts.add(now.plusSeconds(schedule.getServiceStartSeconds()[p]));
+                if (late[p]) {
+                    lateStopIds.add(id);
+                }
+            }
+            Set<String> planned = new HashSet<>(optimizedOrder);
+            List<String> insertedIds = new ArrayList<>();
+            List<String> skippedIds = new ArrayList<>();
+            for (CollectionPoint candidate : candidates) {
+                (planned.contains(candidate.getId()) ? insertedIds : skippedIds).add(candidate.getId());
+            }
+
+            RouteReoptimizationResponse response = new RouteReoptimizationResponse();
+            response.setRouteId(route.getId());
+            response.setOptimizedPointIds(optimizedOrder);
+            response.setInsertedPointIds(insertedIds);
+            response.setSkippedPointIds(skippedIds);
+            response.setServiceStarts(serviceStarts);
+            response.setLateStopIds(lateStopIds);
+            response.setWithinShift(schedule.getShiftOverrunSeconds() == 0);
+            response.setTotalDistance(Math.round(schedule.getTravelMeters() / 10.0) / 100.0);
+            response.setRemainingDuration(Duration.ofSeconds(schedule.getDurationSeconds()));
+            response.setStops(RouteOptimizationService.stops(points, problem, schedule, now, problem.getFixedPrefix()));
+            response.setCollectedLiters(schedule.getCollectedLiters());
+            response.setUnloadTrips(schedule.getUnloadBefore().length);
+            response.setWithinCapacity(schedule.getOverloadLiters() == 0);
+            response.setApplied(Boolean.TRUE.equals(request.getApply()));
+            if (response.getApplied()) {
+                int returnMeters = problem.isFixedEnd() ? Math.round(matrix.meters(order[end - 1], order[end])) : 0;
+                routeService.replaceRemainingStops(route, response.getStops(), returnMeters);
+            }
+            response.setComputeMillis(Duration.ofNanos(System.nanoTime() - started).toMillis());
+            return response;
+        }
+    }
+
+    private List<String> remainingPointIds(Route route, RouteReoptimizationRequest request) {
+        if (request.getRemainingPointIds() != null) {
+            return request.getRemainingPointIds();
+        }
+        if (route.getStops() == null) {
+            throw new ValidationException("Route " + route.getId() + " has no stored stops; give remainingPointIds");
+        }
+        int completed = route.getCompletedPoints() != null ? route.getCompletedPoints() : 0;
+        return route.getStops().stream().skip(completed).map(RouteStop::getPointId).collect(Collectors.toList());
+    }
+
+    /**
+     * Position given in the request, else the last ping of the route's vehicle
+     */
+    private double[] currentPosition(Route route, RouteReoptimizationRequest request) {
+        if (request.getLatitude() != null && request.getLongitude() != null) {
+            return new double[]{request.getLatitude(), request.getLongitude()};
+        }
+        if (request.getLatitude() != null || request.getLongitude() != null) {
+            throw new ValidationException("latitude and longitude must be given together");
+        }
+        if (route.getAssignedVehicle() == null) {
+            throw new ValidationException("Route " + route.getId() + " has no vehicle; give latitude and longitude");
+        }
+        VehiclePositionResponse live = trackingService.getPosition(route.getAssignedVehicle())
+            .orElseThrow(() -> new ValidationException("No live position for vehicle " + route.getAssignedVehicle()
+                + "; give latitude and longitude"));
+        return new double[]{live.getLatitude(), live.getLongitude()};
+    }
+
+    /**
+     * All the points named in the request, from the snapshot when it has them
+     */
+    private Map<String, CollectionPoint> loadPoints(List<String> remainingIds, Set<String> insertIds) {
+        Set<String> ids = new LinkedHashSet<>(remainingIds);
+        ids.addAll(insertIds);
+        return snapshotService.getPoints(new ArrayList<>(ids)).stream()
+            .collect(Collectors.toMap(CollectionPoint::getId, Function.identity()));
+    }
+
+    private int shiftMinutesLeft(Route route, RouteReoptimizationRequest request, Instant now) {
+        if (request.getShiftMinutes() != null) {
+            return request.getShiftMinutes();
+        }
+        int shift = schedulingProperties.getDefaultShiftMinutes();
+        if (route.getScheduledStart() == null || route.getScheduledStart().isAfter(now)) {
+            return shift;
+        }
+        long elapsed = Duration.between(route.getScheduledStart(), now).toMinutes();
+        return (int) Math.max(0, shift - elapsed);
+    }
+}
@@ -1,32 +1,75 @@
 package com.ecocollect.wastemanagement.service;
 
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
 import com.ecocollect.wastemanagement.dto.RouteRequest;
+import com.ecocollect.wastemanagement.dto.RouteStopResponse;
 import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
 import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.model.RouteStop;
+import com.ecocollect.wastemanagement.repository.CollectionPointRepository;
 import com.ecocollect.wastemanagement.repository.RouteRepository;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 @Service
 @RequiredArgsConstructor
 public class RouteService {
     
     private final RouteRepository repository;
+    private final CollectionPointRepository collectionPointRepository;
+    private final MongoTemplate mongoTemplate;
+    private final EmployeeReservationService reservationService;
+    private final ChangeSequenceService changeSequenceService;
+    private final Validator validator;
     
     public List<Route> getAllRoutes() {
         return repository.findAll();
     }
     
+    public String getListETag() {
+        return changeSequenceService.listETag(ChangeSequenceService.ROUTES);
+    }
+    
     public Route getRouteById(String id) {
         return repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Route", id));
     }
     
     public Route createRoute(RouteRequest request) {
+        Route route = newRoute(request);
+        reservationService.synchronize(route, reservationService.dayOf(route), List.of());
+        try {
+            return save(route);
+        } catch (RuntimeException e) {
+            reservationService.releaseRoute(route.getId());
+            throw e;
+        }
+    }
+    
+    private Route newRoute(RouteRequest request) {
         Route route = new Route();
         route.setId(UUID.randomUUID().toString());
         route.setName(request.getName());
@@ -39,13 +82,52 @@ public class RouteService {
         route.setAssignedVehicle(request.getAssignedVehicle());
         route.setAssignedEmployees(request.getAssignedEmployees() != null ? request.getAssignedEmployees() : new ArrayList<>());
         route.setDistance(request.getDistance());
-        
-        return repository.save(route);
+        route.setDepotId(request.getDepotId());
+        route.setScheduledStart(request.getScheduledStart());
+        route.setPlannedDuration(request.getPlannedDuration());
+        route.setDistanceMeters(request.getDistanceMeters());
+        if (request.getStops() != null) {
+            route.setStops(request.getStops());
+            route.setCollectionPoints(request.getStops().size());
+        }
+        return route;
     }
     
     public Route updateRoute(String id, RouteRequest request) {
         Route route = getRouteById(id);
-        
+        String previousDay = reservationService.dayOf(route);
+        List<String> previousEmployees = route.getAssignedEmployees() != null ?
+            route.getAssignedEmployees() : List.of();
+        applyUpdate(route, request);
+        reservationService.synchronize(route, previousDay, previousEmployees);
+        try {
+            return save(route);
+        } catch (RuntimeException e) {
+            restoreBookings(route, new Crew(previousDay, previousEmployees));
+            throw e;
+        }
+    }
+    
+    /**
+     * Day and employees a route was booked for before an update
+     */
+    private record Crew(String day, List<String> employees) {
+    }
+    
+    private void restoreBookings(Route route, Crew previous) {
+        List<String> employees = route.getAssignedEmployees() != null ? route.getAssignedEmployees() : List.of();
+        reservationService.restore(route.getId(), reservationService.dayOf(route), employees,
+            previous.day(), previous.employees());
+    }
+    
+    private Route save(Route route) {
+        return changeSequenceService.write(ChangeSequenceService.ROUTES, 1, seq -> {
+            route.setChangeSeq(seq);
+            return repository.save(route);
+        });
+    }
+    
+    private void applyUpdate(Route route, RouteRequest request) {
         route.setName(request.getName());
         if (request.getStatus() != null) {
             route.setStatus(request.getStatus());
@@ -64,15 +146,175 @@ public class RouteService {
             route.setAssignedEmployees(request.getAssignedEmployees());
         }
         route.setDistance(request.getDistance());
-        
-        return repository.save(route);
+        if (request.getDepotId() != null) {
+            route.setDepotId(request.getDepotId());
+        }
+        if (request.getScheduledStart() != null) {
+            route.setScheduledStart(request.getScheduledStart());
+        }
+        if (request.getPlannedDuration() != null) {
+            route.setPlannedDuration(request.getPlannedDuration());
+        }
+        if (request.getDistanceMeters() != null) {
+            route.setDistanceMeters(request.getDistanceMeters());
+        }
+        if (request.getStops() != null) {
+            route.setStops(request.getStops());
+            route.setCollectionPoints(request.getStops().size());
+        }
+    }
+    
+    /**
+     * Stops of a route joined with their collection points, fetched in one query
+     */
+    public List<RouteStopResponse> getRouteStops(String id) {
+        Route route = getRouteById(id);
+        List<RouteStop> stops = route.getStops() != null ? route.getStops() : List.of();
+        Set<String> pointIds = stops.stream().map(RouteStop::getPointId).collect(Collectors.toSet());
+        Map<String, CollectionPoint> points = collectionPointRepository.findAllById(pointIds).stream()
+                .collect(Collectors.toMap(CollectionPoint::getId, Function.identity()));
+        int completed = route.getCompletedPoints() != null ? route.getCompletedPoints() : 0;
+        List<RouteStopResponse> response = new ArrayList<>(stops.size());
+        for (int i = 0; i < stops.size(); i++) {
+            RouteStop stop = stops.get(i);
+            response.add(new RouteStopResponse(i + 1, stop.getPointId(), stop.getLegMeters(), stop.getLegSeconds(),
+                    stop.getEta(), stop.getUnloadBefore(), i < completed, points.get(stop.getPointId())));
+        }
+        return response;
+    }
+    
+    /**
+     * Replace the stops of a route (re-planned while in progress); the completed ones are kept first.
+     * {@code returnMeters} is the drive back to the depot after the last stop, 0 without one.
+     * Only the stops and distance are written, and only while {@code completedPoints} is still the one
+     * the plan started from: progress or a crew change saved meanwhile is kept, a stale plan rejected.
+     */
+    public Route replaceRemainingStops(Route route, List<RouteStop> remaining, int returnMeters) {
+        List<RouteStop> current = route.getStops() != null ? route.getStops() : List.of();
+        int completed = Math.min(current.size(), route.getCompletedPoints() != null ? route.getCompletedPoints() : 0);
+        List<RouteStop> stops = new ArrayList<>(current.subList(0, completed));
+        stops.addAll(remaining);
+        int meters = returnMeters + stops.stream().mapToInt(s -> s.getLegMeters() != null ? s.getLegMeters() : 0).sum();
+        Query unchanged = Query.query(Criteria.where("_id").is(route.getId())
+                .and("completedPoints").is(route.getCompletedPoints()));
+        Route updated = changeSequenceService.write(ChangeSequenceService.ROUTES, 1, seq -> mongoTemplate.findAndModify(
+                unchanged,
+                Update.update("stops", stops)
+                        .set("collectionPoints", stops.size())
+                        .set("distanceMeters", meters)
+                        .set("distance", Math.round(meters / 10.0) / 100.0 + " km")
+                        .set("changeSeq", seq),
+                FindAndModifyOptions.options().returnNew(true),
+                Route.class));
+        if (updated == null) {
+            if (!repository.existsById(route.getId())) {
+                throw new ResourceNotFoundException("Route", route.getId());
+            }
+            throw new ValidationException("Route " + route.getId()
+                    + " progressed while it was being re-optimized, re-optimize it again");
+        }
+        return updated;
+    }
+    
+    public List<Route> getRoutesByIds(List<String> ids) {
+        List<Route> routes = new ArrayList<>();
+        repository.findAllById(ids).forEach(routes::add);
+        return routes;
+    }
+    
+    /**
+     * Scheduled routes starting in [from, to)
+     */
+    public List<Route> getScheduledRoutesBetween(Instant from, Instant to) {
+        return repository.findByStatusAndScheduledStartBetween("scheduled", Range.rightOpen(from, to));
+    }
+    
+    /**
+     * Replace the crews of many routes in one unordered bulk write.
+     * Callers book the employees through {@link EmployeeReservationService} first.
+     */
+    public void bulkAssignEmployees(Map<String, List<String>> employeesByRoute) {
+        if (employeesByRoute.isEmpty()) {
+            return;
+        }
+        changeSequenceService.write(ChangeSequenceService.ROUTES, employeesByRoute.size(), first -> {
+            long seq = first;
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Route.class);
+            for (Map.Entry<String, List<String>> entry : employeesByRoute.entrySet()) {
+                bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(entry.getKey())),
+                    Update.update("assignedEmployees", entry.getValue()).set("changeSeq", seq++));
+            }
+            return bulk.execute();
+        });
     }
     
     public void deleteRoute(String id) {
         if (!repository.existsById(id)) {
             throw new ResourceNotFoundException("Route", id);
         }
-        repository.deleteById(id);
+        changeSequenceService.delete(ChangeSequenceService.ROUTES, id, () -> repository.deleteById(id));
+        reservationService.releaseRoute(id);
+    }
+    
+    /**
+     * Create, update and delete many routes in one unordered bulk write.
+     * Crew bookings are checked per item; a double-booked crew rejects only its route.
+     * Bookings made for an item the write then fails are undone.
+     */
+    public BulkResponse bulkWrite(BulkRequest<RouteRequest> request) {
+        BulkExecution.checkSize(request);
+        BulkExecution<Route> execution = new BulkExecution<>(mongoTemplate, Route.class);
+        Map<String, Crew> previousCrews = new HashMap<>();
+        try {
+            queueAndExecute(request, execution, previousCrews);
+        } finally {
+            undoFailedBookings(execution.failed(), previousCrews);
+        }
+        List<String> removed = execution.removedIds();
+        reservationService.releaseRoutes(removed);
+        
+        return execution.response();
+    }
+    
+    private void queueAndExecute(BulkRequest<RouteRequest> request, BulkExecution<Route> execution,
+                                 Map<String, Crew> previousCrews) {
+        changeSequenceService.write(ChangeSequenceService.ROUTES,
+                Math.max(1, request.getCreate().size() + request.getUpdate().size() + request.getDelete().size()), first -> {
+                    PrimitiveIterator.OfLong seq = LongStream.iterate(first, s -> s + 1).iterator();
+                    execution.queue(request, validator, Route::getId,
+                            item -> {
+                                Route route = newRoute(item);
+                                reservationService.synchronize(route, reservationService.dayOf(route), List.of());
+                                route.setChangeSeq(seq.nextLong());
+                                return route;
+                            },
+                            (route, item) -> {
+                                String previousDay = reservationService.dayOf(route);
+                                List<String> previousEmployees = route.getAssignedEmployees() != null ?
+                                    route.getAssignedEmployees() : List.of();
+                                applyUpdate(route, item);
+                                reservationService.synchronize(route, previousDay, previousEmployees);
+                                previousCrews.put(route.getId(), new Crew(previousDay, previousEmployees));
+                                route.setChangeSeq(seq.nextLong());
+                            });
+                    return execution.execute(changeSequenceService, ChangeSequenceService.ROUTES, seq);
+                });
+    }
+    
+    /**
+     * Free the crews of creates that were not written and give failed updates their previous crew back
+     */
+    private void undoFailedBookings(List<Route> failed, Map<String, Crew> previousCrews) {
+        List<String> failedCreates = new ArrayList<>();
+        for (Route route : failed) {
+            Crew previous = previousCrews.get(route.getId());
+            if (previous == null) {
+                failedCreates.add(route.getId());
+            } else {
+                restoreBookings(route, previous);
+            }
+        }
+        reservationService.releaseRoutes(failedCreates);
     }
 }
-
@@ -1,20 +1,35 @@
 package com.ecocollect.wastemanagement.service;
 
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.BulkResponse;
 import com.ecocollect.wastemanagement.dto.VehicleRequest;
 import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
 import com.ecocollect.wastemanagement.model.Vehicle;
+import com.ecocollect.wastemanagement.repository.DepotRepository;
 import com.ecocollect.wastemanagement.repository.VehicleRepository;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.LongStream;
 
 @Service
 @RequiredArgsConstructor
 public class VehicleService {
     
     private final VehicleRepository repository;
+    private final DepotRepository depotRepository;
+    private final ChangeSequenceService changeSequenceService;
+    private final VehicleTrackingService trackingService;
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
     
     public List<Vehicle> getAllVehicles() {
         return repository.findAll();
@@ -26,6 +41,15 @@ public class VehicleService {
     }
     
     public Vehicle createVehicle(VehicleRequest request) {
+        checkDepot(request);
+        Vehicle vehicle = newVehicle(request);
+        return changeSequenceService.write(ChangeSequenceService.VEHICLES, 1, seq -> {
+            vehicle.setChangeSeq(seq);
+            return repository.save(vehicle);
+        });
+    }
+    
+    private Vehicle newVehicle(VehicleRequest request) {
         Vehicle vehicle = new Vehicle();
         vehicle.setId(UUID.randomUUID().toString());
         vehicle.setPlateNumber(request.getPlateNumber());
@@ -37,13 +61,49 @@ public class VehicleService {
         vehicle.setLastMaintenance(request.getLastMaintenance());
         vehicle.setAssignedDriver(request.getAssignedDriver());
         vehicle.setCurrentRoute(request.getCurrentRoute());
-        
-        return repository.save(vehicle);
+        vehicle.setDepotId(request.getDepotId());
+        return vehicle;
+    }
+    
+    private void checkDepot(VehicleRequest request) {
+        if (request.getDepotId() != null && !depotRepository.existsById(request.getDepotId())) {
+            throw new ResourceNotFoundException("Depot", request.getDepotId());
+        }
+    }
+    
+    /**
+     * Depots referenced by a bulk request that exist, read in one query
+     */
+    private Set<String> knownDepots(BulkRequest<VehicleRequest> request) {
+        Set<String> referenced = new HashSet<>();
+        request.getCreate().stream().filter(Objects::nonNull).map(VehicleRequest::getDepotId).forEach(referenced::add);
+        request.getUpdate().stream().map(BulkRequest.Update::getData).filter(Objects::nonNull)
+                .map(VehicleRequest::getDepotId).forEach(referenced::add);
+        referenced.remove(null);
+        Set<String> known = new HashSet<>();
+        if (!referenced.isEmpty()) {
+            depotRepository.findAllById(referenced).forEach(depot -> known.add(depot.getId()));
+        }
+        return known;
+    }
+    
+    private static void checkDepot(VehicleRequest request, Set<String> knownDepots) {
+        if (request.getDepotId() != null && !knownDepots.contains(request.getDepotId())) {
+            throw new ResourceNotFoundException("Depot", request.getDepotId());
+        }
     }
     
     public Vehicle updateVehicle(String id, VehicleRequest request) {
         Vehicle vehicle = getVehicleById(id);
-        
+        checkDepot(request);
+        applyUpdate(vehicle, request);
+        return changeSequenceService.write(ChangeSequenceService.VEHICLES, 1, seq -> {
+            vehicle.setChangeSeq(seq);
+            return repository.save(vehicle);
+        });
+    }
+    
+    private void applyUpdate(Vehicle vehicle, VehicleRequest request) {
         vehicle.setPlateNumber(request.getPlateNumber());
         vehicle.setType(request.getType());
         if (request.getStatus() != null) {
@@ -59,19 +119,47 @@ public class VehicleService {
         vehicle.setLastMaintenance(request.getLastMaintenance());
         vehicle.setAssignedDriver(request.getAssignedDriver());
         vehicle.setCurrentRoute(request.getCurrentRoute());
-        
-        return repository.save(vehicle);
+        vehicle.setDepotId(request.getDepotId());
     }
     
     public void deleteVehicle(String id) {
         if (!repository.existsById(id)) {
             throw new ResourceNotFoundException("Vehicle", id);
         }
-        repository.deleteById(id);
+        changeSequenceService.delete(ChangeSequenceService.VEHICLES, id, () -> repository.deleteById(id));
+        trackingService.removeVehicle(id);
     }
     
     public List<Vehicle> getAvailableVehicles() {
         return repository.findByStatus("available");
     }
+    
+    /**
+     * Create, update and delete many vehicles in one unordered bulk write
+     */
+    public BulkResponse bulkWrite(BulkRequest<VehicleRequest> request) {
+        BulkExecution.checkSize(request);
+        BulkExecution<Vehicle> execution = new BulkExecution<>(mongoTemplate, Vehicle.class);
+        Set<String> knownDepots = knownDepots(request);
+        changeSequenceService.write(ChangeSequenceService.VEHICLES,
+                Math.max(1, request.getCreate().size() + request.getUpdate().size() + request.getDelete().size()), first -> {
+                    PrimitiveIterator.OfLong seq = LongStream.iterate(first, s -> s + 1).iterator();
+                    execution.queue(request, validator, Vehicle::getId,
+                            item -> {
+                                checkDepot(item, knownDepots);
+                                Vehicle vehicle = newVehicle(item);
+                                vehicle.setChangeSeq(seq.nextLong());
+                                return vehicle;
+                            },
+                            (vehicle, item) -> {
+                                checkDepot(item, knownDepots);
+                                applyUpdate(vehicle, item);
+                                vehicle.setChangeSeq(seq.nextLong());
+                            });
+                    return execution.execute(changeSequenceService, ChangeSequenceService.VEHICLES, seq);
+                });
+        execution.removedIds().forEach(trackingService::removeVehicle);
+        
+        return execution.response();
+    }
 }
-
@@ -0,0 +1,256 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.TrackingProperties;
+import com.ecocollect.wastemanagement.dto.VehiclePingRequest;
+import com.ecocollect.wastemanagement.dto.VehiclePositionResponse;
+import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.ecocollect.wastemanagement.model.VehicleTrackPoint;
+import com.ecocollect.wastemanagement.repository.VehicleRepository;
+import com.ecocollect.wastemanagement.tracking.VehiclePositionStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * GPS pings from the trucks. The latest position of each vehicle lives in a
+ * {@link VehiclePositionStore} slot; downsampled pings are queued and written to
+ * vehicle_tracks in batches by a scheduled flush, never on the ping's request thread.
+ */
+@Slf4j
+@Service
+public class VehicleTrackingService {
+
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
+    private final VehicleRepository vehicleRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TrackingProperties properties;
+    private final VehiclePositionStore store;
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> vehicleIds;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<VehicleTrackPoint> pendingTrack;
+    private final Counter accepted;
+    private final Counter stale;
+    private final Counter trackDropped;
+    private final Counter trackWritten;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Positions as served to the map, with the time they were read from the store
+     */
+    private record Snapshot(List<VehiclePositionResponse> positions, long builtAtNanos) {
+    }
+
+    public VehicleTrackingService(VehicleRepository vehicleRepository,
+            MongoTemplate mongoTemplate,
+            TrackingProperties properties,
+            MeterRegistry meterRegistry) {
+        this.vehicleRepository = vehicleRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.store = new VehiclePositionStore(properties.getMaxVehicles(),
+                properties.getTrackInterval().toMillis(), properties.getTrackDistanceMeters());
+        this.vehicleIds = new AtomicReferenceArray<>(properties.getMaxVehicles());
+        this.pendingTrack = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.accepted = meterRegistry.counter("ecocollect.tracking.pings", "result", "accepted");
+        this.stale = meterRegistry.counter("ecocollect.tracking.pings", "result", "stale");
+        this.trackDropped = meterRegistry.counter("ecocollect.tracking.track_points", "result", "dropped");
+        this.trackWritten = meterRegistry.counter("ecocollect.tracking.track_points", "result", "written");
+        meterRegistry.gaugeCollectionSize("ecocollect.tracking.track_queue", List.of(), pendingTrack);
+    }
+
+    /**
+     * Record a ping; pings older than the vehicle's latest position are ignored
+     */
+    public void recordPing(String vehicleId, VehiclePingRequest ping) {
+        Instant recordedAt = ping.getRecordedAt() != null ? ping.getRecordedAt() : Instant.now();
+        if (recordedAt.isAfter(Instant.now().plus(MAX_CLOCK_SKEW))) {
+            // A fix from the future would hide every later ping of the vehicle
+            throw new ValidationException("recordedAt is in the future");
+        }
+        int slot = slotOf(vehicleId);
+        int result = store.update(slot, ping.getLatitude(), ping.getLongitude(),
+                ping.getSpeedKmh() != null ? ping.getSpeedKmh() : Double.NaN,
+                ping.getHeading() != null ? ping.getHeading() : Double.NaN,
+                recordedAt.toEpochMilli());
+        if (result == VehiclePositionStore.STALE) {
+            stale.increment();
+            return;
+        }
+        accepted.increment();
+        if (result == VehiclePositionStore.UPDATED_AND_TRACKED) {
+            VehicleTrackPoint point = new VehicleTrackPoint(UUID.randomUUID().toString(), vehicleId,
+                    ping.getLatitude(), ping.getLongitude(), ping.getSpeedKmh(), ping.getHeading(), recordedAt);
+            if (!pendingTrack.offer(point)) {
+                trackDropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Latest position of every tracked vehicle. Rebuilt at most once per
+     * tracking.snapshot-max-age, so map clients polling together share one copy.
+     */
+    public List<VehiclePositionResponse> getPositions() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.builtAtNanos() < properties.getSnapshotMaxAge().toNanos()) {
+            return current.positions();
+        }
+        int used = Math.min(nextSlot.get(), store.capacity());
+        List<VehiclePositionResponse> positions = new ArrayList<>(used);
+        for (int slot = 0; slot < used; slot++) {
+            String vehicleId = vehicleIds.get(slot);
+            if (vehicleId == null) {
+                continue;
+            }
+            VehiclePositionResponse position = store.read(slot, (lat, lon, speed, heading, at) ->
+                    new VehiclePositionResponse(vehicleId, lat, lon,
+                            Double.isNaN(speed) ? null : speed,
+                            Double.isNaN(heading) ? null : heading,
+                            Instant.ofEpochMilli(at)));
+            if (position != null) {
+                positions.add(position);
+            }
+        }
+        List<VehiclePositionResponse> result = List.copyOf(positions);
+        snapshot = new Snapshot(result, System.nanoTime());
+        return result;
+    }
+
+    /**
+     * Latest known position of one vehicle, read straight from the store
+     */
+    public Optional<VehiclePositionResponse> getPosition(String vehicleId) {
+        Integer slot = slots.get(vehicleId);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(store.read(slot, (lat, lon, speed, heading, at) ->
+                new VehiclePositionResponse(vehicleId, lat, lon,
+                        Double.isNaN(speed) ? null : speed,
+                        Double.isNaN(heading) ? null : heading,
+                        Instant.ofEpochMilli(at))));
+    }
+
+    /**
+     * Stored track of a vehicle between two instants, oldest first
+     */
+    public List<VehicleTrackPoint> getTrack(String vehicleId, Instant from, Instant to) {
+        Query query = Query.query(Criteria.where("vehicleId").is(vehicleId).and("recordedAt").gte(from).lt(to))
+                .with(Sort.by("recordedAt")).limit(10000);
+        return mongoTemplate.find(query, VehicleTrackPoint.class);
+    }
+
+    /**
+     * Forget a deleted vehicle and give its slot back
+     */
+    public void removeVehicle(String vehicleId) {
+        Integer slot = slots.remove(vehicleId);
+        if (slot != null) {
+            vehicleIds.set(slot, null);
+            store.clear(slot);
+            freeSlots.add(slot);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@trackingProperties.flushInterval.toMillis()}")
+    public void flushTrack() {
+        List<VehicleTrackPoint> batch = new ArrayList<>();
+        while (pendingTrack.drainTo(batch, properties.getFlushBatchSize()) > 0) {
+            try {
+                mongoTemplate.insert(batch, VehicleTrackPoint.class);
+                trackWritten.increment(batch.size());
+            } catch (RuntimeException e) {
+                log.error("Could not write {} track points", batch.size(), e);
+                trackDropped.increment(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushTrack();
+    }
+
+    /**
+     * Put each vehicle's last stored track point back in memory after a restart
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreLatestPositions() {
+        Aggregation latest = Aggregation.newAggregation(
+                Aggregation.sort(Sort.by("vehicleId").ascending().and(Sort.by("recordedAt").descending())),
+                Aggregation.group("vehicleId")
+                        .first("latitude").as("latitude")
+                        .first("longitude").as("longitude")
+                        .first("speedKmh").as("speedKmh")
+                        .first("heading").as("heading")
+                        .first("recordedAt").as("recordedAt"));
+        int restored = 0;
+        for (VehicleTrackPoint point : mongoTemplate.aggregate(latest, VehicleTrackPoint.class, VehicleTrackPoint.class)) {
+            // The group key comes back as _id
+            String vehicleId = point.getId();
+            try {
+                store.update(slotOf(vehicleId), point.getLatitude(), point.getLongitude(),
+                        point.getSpeedKmh() != null ? point.getSpeedKmh() : Double.NaN,
+                        point.getHeading() != null ? point.getHeading() : Double.NaN,
+                        point.getRecordedAt().toEpochMilli());
+                restored++;
+            } catch (ResourceNotFoundException | ValidationException e) {
+                log.debug("Not restoring the position of vehicle {}: {}", vehicleId, e.getMessage());
+            }
+        }
+        if (restored > 0) {
+            log.info("Restored the latest position of {} vehicles", restored);
+        }
+    }
+
+    /**
+     * Slot of a vehicle, given out on its first ping once the vehicle is known to exist
+     */
+    private int slotOf(String vehicleId) {
+        Integer slot = slots.get(vehicleId);
+        if (slot != null) {
+            return slot;
+        }
+        if (!vehicleRepository.existsById(vehicleId)) {
+            throw new ResourceNotFoundException("Vehicle", vehicleId);
+        }
+        return slots.computeIfAbsent(vehicleId, id -> {
+            Integer free = freeSlots.poll();
+            int assigned = free != null ? free : nextSlot.getAndUpdate(n -> n < store.capacity() ? n + 1 : n);
+            if (assigned >= store.capacity()) {
+                throw new ValidationException("Live tracking is limited to " + store.capacity() + " vehicles");
+            }
+            vehicleIds.set(assigned, id);
+            return assigned;
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.VolumeProperties;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Volume a collection point adds to a vehicle: its container size times its fill level,
+ * compacted by the factor of its waste type
+ */
+@Service
+@RequiredArgsConstructor
+public class WasteVolumeService {
+
+    private final VolumeProperties properties;
+
+    /**
+     * Liters the vehicle carries after emptying the point's container
+     */
+    public double expectedLiters(CollectionPoint point) {
+        return expectedLiters(point.getContainerLiters() != null ? point.getContainerLiters() : 0,
+            point.getFillLevel() != null ? point.getFillLevel() : 0, point.getWasteType());
+    }
+
+    /**
+     * Same from column values, as kept by the city snapshot; {@code containerLiters} 0 is the default size
+     */
+    public double expectedLiters(int containerLiters, int fillLevel, String wasteType) {
+        int container = containerLiters > 0 ? containerLiters : properties.getDefaultContainerLiters();
+        return container * fillLevel / 100.0 * compactionFactor(wasteType);
+    }
+
+    public double compactionFactor(String wasteType) {
+        if (wasteType == null) {
+            return properties.getDefaultCompactionFactor();
+        }
+        return properties.getCompactionFactors().getOrDefault(wasteType.toLowerCase(),
+            properties.getDefaultCompactionFactor());
+    }
+}
@@ -0,0 +1,214 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.ZoningProperties;
+import com.ecocollect.wastemanagement.dto.ZoneApplyRequest;
+import com.ecocollect.wastemanagement.dto.ZoneAssignment;
+import com.ecocollect.wastemanagement.dto.ZoneProposalResponse;
+import com.ecocollect.wastemanagement.exception.ResourceNotFoundException;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Zone;
+import com.ecocollect.wastemanagement.repository.CollectionPointRepository;
+import com.ecocollect.wastemanagement.repository.ZoneRepository;
+import com.ecocollect.wastemanagement.routing.ZoneClusterer;
+import com.ecocollect.wastemanagement.routing.ZoneClustering;
+import com.ecocollect.wastemanagement.snapshot.CitySnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Proposes balanced collection zones by clustering the points ({@link ZoneClusterer}),
+ * applies a partition to the points in bulk and keeps each zone's centroid and hull.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ZoneService {
+
+    private final ZoneRepository repository;
+    private final CollectionPointRepository collectionPointRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ChangeSequenceService changeSequenceService;
+    private final ZoningProperties properties;
+    private final WasteVolumeService volumeService;
+    private final CitySnapshotService snapshotService;
+
+    public List<Zone> getAllZones() {
+        return repository.findAll();
+    }
+
+    public Zone getZoneByName(String name) {
+        return repository.findById(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Zone", name));
+    }
+
+    /**
+     * Expected volume of a point in compacted liters, at least 1 so that empty bins
+     * still weigh on the zone that has to visit them
+     */
+    private double expectedVolume(CollectionPoint point) {
+        return Math.max(1, volumeService.expectedLiters(point));
+    }
+
+    /**
+     * Split all located collection points into {@code count} zones of similar expected volume.
+     * Nothing is saved.
+     */
+    public ZoneProposalResponse proposeZones(int count, String prefix) {
+        long started = System.nanoTime();
+        if (count < 1 || count > properties.getMaxZones()) {
+            throw new ValidationException("count must be between 1 and " + properties.getMaxZones());
+        }
+        // Columns of the located points, straight from the snapshot
+        CitySnapshot snapshot = snapshotService.current();
+        int[] slots = new int[snapshot.live()];
+        int n = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.isLive(i) && snapshot.isLocated(i)) {
+                slots[n++] = i;
+            }
+        }
+        if (n < count) {
+            throw new ValidationException("Cannot make " + count + " zones out of " + n + " located points");
+        }
+        double[] latitude = new double[n];
+        double[] longitude = new double[n];
+        double[] weight = new double[n];
+        for (int i = 0; i < n; i++) {
+            int slot = slots[i];
+            latitude[i] = snapshot.latitude(slot);
+            longitude[i] = snapshot.longitude(slot);
+            weight[i] = Math.max(1, volumeService.expectedLiters(snapshot.containerLiters(slot),
+                    snapshot.fillLevel(slot), snapshot.wasteType(slot)));
+        }
+        ZoneClustering clustering = ZoneClusterer.cluster(latitude, longitude, weight, count,
+                properties.getCapacitySlack(), properties.getMaxIterations(), properties.getSeed());
+
+        List<List<Integer>> members = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            members.get(clustering.getAssignment()[i]).add(i);
+        }
+        String base = prefix != null && !prefix.isBlank() ? prefix : "Z";
+        Instant now = Instant.now();
+        List<Zone> zones = new ArrayList<>(count);
+        List<ZoneAssignment> assignments = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            if (members.get(c).isEmpty()) {
+                continue;
+            }
+            String name = base + (c + 1);
+            int[] indexes = members.get(c).stream().mapToInt(Integer::intValue).toArray();
+            zones.add(new Zone(name, clustering.getCentroidLatitude()[c], clustering.getCentroidLongitude()[c],
+                    hull(latitude, longitude, indexes), indexes.length, clustering.getLoad()[c], now));
+            assignments.add(new ZoneAssignment(name, Arrays.stream(indexes)
+                    .mapToObj(i -> snapshot.id(slots[i])).collect(Collectors.toList())));
+        }
+        return new ZoneProposalResponse(zones, assignments, clustering.getCapacity(), clustering.getIterations(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    /**
+     * Set {@code assignedZone} on every listed point in one bulk write and save the zones
+     * with their centroid and hull recomputed from the points. Zones not listed are left as they are.
+     */
+    public List<Zone> applyZones(ZoneApplyRequest request) {
+        Set<String> names = new HashSet<>();
+        Map<String, String> zoneOfPoint = new HashMap<>();
+        for (ZoneAssignment zone : request.getZones()) {
+            if (!names.add(zone.getName())) {
+                throw new ValidationException("Zone " + zone.getName() + " is listed twice");
+            }
+            for (String pointId : zone.getPointIds()) {
+                String previous = zoneOfPoint.put(pointId, zone.getName());
+                if (previous != null && !previous.equals(zone.getName())) {
+                    throw new ValidationException("Collection point " + pointId + " is in zones "
+                            + previous + " and " + zone.getName());
+                }
+            }
+        }
+        Map<String, CollectionPoint> points = collectionPointRepository.findAllById(zoneOfPoint.keySet()).stream()
+                .collect(Collectors.toMap(CollectionPoint::getId, p -> p));
+        for (String pointId : zoneOfPoint.keySet()) {
+            if (!points.containsKey(pointId)) {
+                throw new ResourceNotFoundException("CollectionPoint", pointId);
+            }
+        }
+
+        // Points that were in one of these zones but are not listed any more leave it
+        Query left = Query.query(Criteria.where("assignedZone").in(names).and("_id").nin(zoneOfPoint.keySet()));
+        left.fields().include("_id");
+        List<String> leaving = mongoTemplate.find(left, CollectionPoint.class).stream()
+                .map(CollectionPoint::getId).collect(Collectors.toList());
+
+        changeSequenceService.write(ChangeSequenceService.COLLECTION_POINTS,
+                Math.max(1, zoneOfPoint.size() + leaving.size()), first -> {
+                    long seq = first;
+                    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CollectionPoint.class);
+                    for (Map.Entry<String, String> entry : zoneOfPoint.entrySet()) {
+                        bulk.updateOne(Query.query(Criteria.where("_id").is(entry.getKey())),
+                                Update.update("assignedZone", entry.getValue()).set("changeSeq", seq++));
+                    }
+                    for (String pointId : leaving) {
+                        bulk.updateOne(Query.query(Criteria.where("_id").is(pointId)),
+                                new Update().unset("assignedZone").set("changeSeq", seq++));
+                    }
+                    return bulk.execute();
+                });
+        // Planning reads zones from the snapshot: catch up with these writes now
+        snapshotService.refresh();
+
+        Instant now = Instant.now();
+        List<Zone> zones = request.getZones().stream()
+                .map(zone -> describe(zone.getName(), zone.getPointIds().stream().distinct()
+                        .map(points::get).collect(Collectors.toList()), now))
+                .collect(Collectors.toList());
+        log.info("Applied {} zones to {} collection points ({} left their zone)", zones.size(), zoneOfPoint.size(),
+                leaving.size());
+        return repository.saveAll(zones);
+    }
+
+    private Zone describe(String name, List<CollectionPoint> points, Instant now) {
+        List<CollectionPoint> located = points.stream()
+                .filter(p -> p.getLatitude() != null && p.getLongitude() != null)
+                .collect(Collectors.toList());
+        int n = located.size();
+        double[] latitude = new double[n];
+        double[] longitude = new double[n];
+        double sumLat = 0;
+        double sumLon = 0;
+        double volume = 0;
+        for (int i = 0; i < n; i++) {
+            CollectionPoint point = located.get(i);
+            double w = expectedVolume(point);
+            latitude[i] = point.getLatitude();
+            longitude[i] = point.getLongitude();
+            sumLat += latitude[i] * w;
+            sumLon += longitude[i] * w;
+            volume += w;
+        }
+        return new Zone(name, n > 0 ? sumLat / volume : null, n > 0 ? sumLon / volume : null,
+                n > 0 ? hull(latitude, longitude, IntStream.range(0, n).toArray()) : List.of(),
+                points.size(), points.stream().mapToDouble(this::expectedVolume).sum(), now);
+    }
+
+    private static List<List<Double>> hull(double[] latitude, double[] longitude, int[] members) {
+        return Arrays.stream(ZoneClusterer.convexHull(latitude, longitude, members))
+                .mapToObj(i -> List.of(longitude[i], latitude[i]))
+                .collect(Collectors.toList());
+    }
+}
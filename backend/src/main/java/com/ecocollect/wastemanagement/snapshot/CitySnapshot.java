@@ -0,0 +1,474 @@
+package com.ecocollect.wastemanagement.snapshot;
+
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable columnar copy of the collection points: one primitive array per field, indexed by a
+ * slot number, with status, zone and waste type dictionary-encoded. Scans read the arrays in place
+ * and allocate nothing.
+ * <p>
+ * Ids are found through an open-addressing table of slot numbers, so the index is a plain
+ * {@code int[]} too. A deleted point leaves an empty slot (null id) until the next compaction.
+ * A new snapshot is made by a {@link Builder} started from the previous one; readers of the old
+ * one are not affected.
+ */
+public final class CitySnapshot {
+
+    /** No zone, no service window, unknown dictionary value */
+    public static final int NONE = -1;
+
+    private static final CitySnapshot EMPTY = new Builder(0).build(0);
+
+    private final long seq;
+    private final int size;
+    private final int live;
+    private final String[] ids;
+    private final double[] latitude;
+    private final double[] longitude;
+    private final byte[] fillLevel;
+    private final short[] status;
+    private final short[] zone;
+    private final short[] wasteType;
+    private final int[] windowStart;
+    private final int[] windowEnd;
+    private final short[] serviceMinutes;
+    private final int[] containerLiters;
+    private final long[] changeSeq;
+    private final int[] index;
+    private final Dictionary statuses;
+    private final Dictionary zones;
+    private final Dictionary wasteTypes;
+
+    private CitySnapshot(Builder b, long seq) {
+        this.seq = seq;
+        this.size = b.size;
+        this.live = b.live;
+        this.ids = b.ids;
+        this.latitude = b.latitude;
+        this.longitude = b.longitude;
+        this.fillLevel = b.fillLevel;
+        this.status = b.status;
+        this.zone = b.zone;
+        this.wasteType = b.wasteType;
+        this.windowStart = b.windowStart;
+        this.windowEnd = b.windowEnd;
+        this.serviceMinutes = b.serviceMinutes;
+        this.containerLiters = b.containerLiters;
+        this.changeSeq = b.changeSeq;
+        this.index = b.index;
+        this.statuses = b.statuses;
+        this.zones = b.zones;
+        this.wasteTypes = b.wasteTypes;
+    }
+
+    public static CitySnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Change sequence of the collection points up to which this snapshot is complete
+     */
+    public long seq() {
+        return seq;
+    }
+
+    /**
+     * Number of slots; loops run over {@code 0 .. size()-1} and skip those that are not {@link #isLive}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of points
+     */
+    public int live() {
+        return live;
+    }
+
+    public boolean isLive(int slot) {
+        return ids[slot] != null;
+    }
+
+    /**
+     * Slot of a point, {@link #NONE} when it is not in the snapshot
+     */
+    public int slotOf(String id) {
+        return find(index, ids, id);
+    }
+
+    public String id(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * {@code NaN} when the point has no coordinates
+     */
+    public double latitude(int slot) {
+        return latitude[slot];
+    }
+
+    public double longitude(int slot) {
+        return longitude[slot];
+    }
+
+    public boolean isLocated(int slot) {
+        return !Double.isNaN(latitude[slot]) && !Double.isNaN(longitude[slot]);
+    }
+
+    public int fillLevel(int slot) {
+        return fillLevel[slot];
+    }
+
+    public int status(int slot) {
+        return status[slot];
+    }
+
+    public int zone(int slot) {
+        return zone[slot];
+    }
+
+    public String wasteType(int slot) {
+        return wasteTypes.value(wasteType[slot]);
+    }
+
+    /**
+     * 0 when the point uses the default container size
+     */
+    public int containerLiters(int slot) {
+        return containerLiters[slot];
+    }
+
+    /**
+     * Code of a status for comparison with {@link #status(int)}, {@link #NONE} when no point has it
+     */
+    public int statusCode(String value) {
+        return statuses.code(value);
+    }
+
+    /**
+     * Code of a zone for comparison with {@link #zone(int)}, {@link #NONE} when no point is in it
+     */
+    public int zoneCode(String value) {
+        return zones.code(value);
+    }
+
+    /**
+     * Slots of the points assigned to {@code zoneName}, in slot order
+     */
+    public int[] slotsInZone(String zoneName) {
+        int code = zoneCode(zoneName);
+        if (code == NONE) {
+            return new int[0];
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (zone[i] == code && ids[i] != null) {
+                count++;
+            }
+        }
+        int[] slots = new int[count];
+        int next = 0;
+        for (int i = 0; i < size && next < count; i++) {
+            if (zone[i] == code && ids[i] != null) {
+                slots[next++] = i;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * The point in a slot, with the fields routing reads: id, position, fill level, status, waste type,
+     * zone, service window and minutes, container size, changeSeq. Name, address and lastCollected are not kept.
+     */
+    public CollectionPoint point(int slot) {
+        CollectionPoint p = new CollectionPoint();
+        p.setId(ids[slot]);
+        p.setLatitude(Double.isNaN(latitude[slot]) ? null : latitude[slot]);
+        p.setLongitude(Double.isNaN(longitude[slot]) ? null : longitude[slot]);
+        p.setFillLevel((int) fillLevel[slot]);
+        p.setStatus(statuses.value(status[slot]));
+        p.setWasteType(wasteTypes.value(wasteType[slot]));
+        p.setAssignedZone(zones.value(zone[slot]));
+        p.setServiceWindowStart(windowStart[slot] == NONE ? null : LocalTime.ofSecondOfDay(windowStart[slot]));
+        p.setServiceWindowEnd(windowEnd[slot] == NONE ? null : LocalTime.ofSecondOfDay(windowEnd[slot]));
+        p.setServiceMinutes(serviceMinutes[slot] == NONE ? null : (int) serviceMinutes[slot]);
+        p.setContainerLiters(containerLiters[slot] == 0 ? null : containerLiters[slot]);
+        p.setChangeSeq(changeSeq[slot]);
+        return p;
+    }
+
+    /**
+     * Bytes held by the columns and the index (ids not included)
+     */
+    public long columnBytes() {
+        long perSlot = 8 + 8 + 1 + 2 + 2 + 2 + 4 + 4 + 2 + 4 + 8;
+        return perSlot * latitude.length + 4L * index.length;
+    }
+
+    private static int find(int[] index, String[] ids, String id) {
+        int mask = index.length - 1;
+        for (int h = spread(id.hashCode()) & mask; index[h] != 0; h = (h + 1) & mask) {
+            int slot = index[h] - 1;
+            if (id.equals(ids[slot])) {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    /**
+     * Append-only value table of a dictionary-encoded column; copied only when a value is added
+     */
+    private static final class Dictionary {
+
+        private final List<String> values;
+        private final Map<String, Integer> codes;
+
+        Dictionary() {
+            this(new ArrayList<>(), new HashMap<>());
+        }
+
+        private Dictionary(List<String> values, Map<String, Integer> codes) {
+            this.values = values;
+            this.codes = codes;
+        }
+
+        int code(String value) {
+            return value == null ? NONE : codes.getOrDefault(value, NONE);
+        }
+
+        String value(int code) {
+            return code == NONE ? null : values.get(code);
+        }
+
+        /**
+         * This dictionary if it has the value, else a copy with it added
+         */
+        Dictionary with(String value) {
+            if (value == null || codes.containsKey(value)) {
+                return this;
+            }
+            if (values.size() >= Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct values in a snapshot column");
+            }
+            List<String> v = new ArrayList<>(values);
+            Map<String, Integer> c = new HashMap<>(codes);
+            c.put(value, v.size());
+            v.add(value);
+            return new Dictionary(v, c);
+        }
+    }
+
+    /**
+     * Mutable staging area for the next snapshot, started empty (full load) or from the
+     * current snapshot (incremental update). Not thread-safe; used by one refresher at a time.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int live;
+        private String[] ids;
+        private double[] latitude;
+        private double[] longitude;
+        private byte[] fillLevel;
+        private short[] status;
+        private short[] zone;
+        private short[] wasteType;
+        private int[] windowStart;
+        private int[] windowEnd;
+        private short[] serviceMinutes;
+        private int[] containerLiters;
+        private long[] changeSeq;
+        private int[] index;
+        private Dictionary statuses;
+        private Dictionary zones;
+        private Dictionary wasteTypes;
+
+        public Builder(int expectedPoints) {
+            allocate(Math.max(16, expectedPoints));
+            statuses = new Dictionary();
+            zones = new Dictionary();
+            wasteTypes = new Dictionary();
+        }
+
+        /**
+         * Copy of {@code from} with room for {@code extra} more points
+         */
+        public Builder(CitySnapshot from, int extra) {
+            size = from.size;
+            live = from.live;
+            int capacity = Math.max(16, size + extra);
+            ids = Arrays.copyOf(from.ids, capacity);
+            latitude = Arrays.copyOf(from.latitude, capacity);
+            longitude = Arrays.copyOf(from.longitude, capacity);
+            fillLevel = Arrays.copyOf(from.fillLevel, capacity);
+            status = Arrays.copyOf(from.status, capacity);
+            zone = Arrays.copyOf(from.zone, capacity);
+            wasteType = Arrays.copyOf(from.wasteType, capacity);
+            windowStart = Arrays.copyOf(from.windowStart, capacity);
+            windowEnd = Arrays.copyOf(from.windowEnd, capacity);
+            serviceMinutes = Arrays.copyOf(from.serviceMinutes, capacity);
+            containerLiters = Arrays.copyOf(from.containerLiters, capacity);
+            changeSeq = Arrays.copyOf(from.changeSeq, capacity);
+            index = from.index.length >= 2 * capacity ? from.index.clone() : null;
+            statuses = from.statuses;
+            zones = from.zones;
+            wasteTypes = from.wasteTypes;
+            if (index == null) {
+                reindex();
+            }
+        }
+
+        /**
+         * Add or replace a point; a version older than the one held (lower changeSeq) is ignored
+         */
+        public Builder upsert(CollectionPoint point) {
+            long seq = point.getChangeSeq() != null ? point.getChangeSeq() : 0;
+            int slot = find(index, ids, point.getId());
+            if (slot != NONE && seq < changeSeq[slot]) {
+                return this;
+            }
+            if (slot == NONE) {
+                if (size == ids.length) {
+                    grow();
+                }
+                slot = size++;
+                live++;
+                ids[slot] = point.getId();
+                insert(slot);
+            }
+            latitude[slot] = point.getLatitude() != null ? point.getLatitude() : Double.NaN;
+            longitude[slot] = point.getLongitude() != null ? point.getLongitude() : Double.NaN;
+            int fill = point.getFillLevel() != null ? point.getFillLevel() : 0;
+            fillLevel[slot] = (byte) Math.max(0, Math.min(Byte.MAX_VALUE, fill));
+            statuses = statuses.with(point.getStatus());
+            status[slot] = (short) statuses.code(point.getStatus());
+            zones = zones.with(point.getAssignedZone());
+            zone[slot] = (short) zones.code(point.getAssignedZone());
+            wasteTypes = wasteTypes.with(point.getWasteType());
+            wasteType[slot] = (short) wasteTypes.code(point.getWasteType());
+            windowStart[slot] = point.getServiceWindowStart() != null ? point.getServiceWindowStart().toSecondOfDay() : NONE;
+            windowEnd[slot] = point.getServiceWindowEnd() != null ? point.getServiceWindowEnd().toSecondOfDay() : NONE;
+            serviceMinutes[slot] = point.getServiceMinutes() != null
+                    ? (short) Math.min(Short.MAX_VALUE, point.getServiceMinutes()) : NONE;
+            containerLiters[slot] = point.getContainerLiters() != null ? point.getContainerLiters() : 0;
+            changeSeq[slot] = seq;
+            return this;
+        }
+
+        public Builder delete(String id) {
+            int slot = find(index, ids, id);
+            if (slot != NONE) {
+                ids[slot] = null;
+                live--;
+            }
+            return this;
+        }
+
+        /**
+         * The snapshot, complete up to change {@code seq}. Slots of deleted points are dropped
+         * once they make up a quarter of the arrays.
+         */
+        public CitySnapshot build(long seq) {
+            if (size - live > Math.max(64, size / 4)) {
+                compact();
+            }
+            return new CitySnapshot(this, seq);
+        }
+
+        private void allocate(int capacity) {
+            ids = new String[capacity];
+            latitude = new double[capacity];
+            longitude = new double[capacity];
+            fillLevel = new byte[capacity];
+            status = new short[capacity];
+            zone = new short[capacity];
+            wasteType = new short[capacity];
+            windowStart = new int[capacity];
+            windowEnd = new int[capacity];
+            serviceMinutes = new short[capacity];
+            containerLiters = new int[capacity];
+            changeSeq = new long[capacity];
+            index = new int[tableSize(capacity)];
+        }
+
+        private void grow() {
+            int capacity = ids.length + (ids.length >> 1) + 16;
+            ids = Arrays.copyOf(ids, capacity);
+            latitude = Arrays.copyOf(latitude, capacity);
+            longitude = Arrays.copyOf(longitude, capacity);
+            fillLevel = Arrays.copyOf(fillLevel, capacity);
+            status = Arrays.copyOf(status, capacity);
+            zone = Arrays.copyOf(zone, capacity);
+            wasteType = Arrays.copyOf(wasteType, capacity);
+            windowStart = Arrays.copyOf(windowStart, capacity);
+            windowEnd = Arrays.copyOf(windowEnd, capacity);
+            serviceMinutes = Arrays.copyOf(serviceMinutes, capacity);
+            containerLiters = Arrays.copyOf(containerLiters, capacity);
+            changeSeq = Arrays.copyOf(changeSeq, capacity);
+            reindex();
+        }
+
+        private void compact() {
+            int next = 0;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == null) {
+                    continue;
+                }
+                ids[next] = ids[i];
+                latitude[next] = latitude[i];
+                longitude[next] = longitude[i];
+                fillLevel[next] = fillLevel[i];
+                status[next] = status[i];
+                zone[next] = zone[i];
+                wasteType[next] = wasteType[i];
+                windowStart[next] = windowStart[i];
+                windowEnd[next] = windowEnd[i];
+                serviceMinutes[next] = serviceMinutes[i];
+                containerLiters[next] = containerLiters[i];
+                changeSeq[next] = changeSeq[i];
+                next++;
+            }
+            Arrays.fill(ids, next, size, null);
+            size = next;
+            reindex();
+        }
+
+        private void reindex() {
+            index = new int[tableSize(ids.length)];
+            for (int slot = 0; slot < size; slot++) {
+                if (ids[slot] != null) {
+                    insert(slot);
+                }
+            }
+        }
+
+        private void insert(int slot) {
+            int mask = index.length - 1;
+            int h = spread(ids[slot].hashCode()) & mask;
+            while (index[h] != 0) {
+                h = (h + 1) & mask;
+            }
+            index[h] = slot + 1;
+        }
+
+        /**
+         * Power of two at least twice the capacity, so probes stay short
+         */
+        private static int tableSize(int capacity) {
+            return Integer.highestOneBit(Math.max(16, capacity) * 4 - 1);
+        }
+    }
+}
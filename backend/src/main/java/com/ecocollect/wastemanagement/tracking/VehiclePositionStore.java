@@ -0,0 +1,148 @@
+package com.ecocollect.wastemanagement.tracking;
+
+import com.ecocollect.wastemanagement.routing.GeoUtils;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latest position of each tracked vehicle, in parallel primitive arrays indexed by a slot number.
+ * <p>
+ * Every slot is guarded by a sequence number (seqlock): a writer makes it odd while it writes and
+ * even again afterwards; a reader copies the slot and retries if the sequence was odd or moved.
+ * Readers never block writers, and nothing is allocated per update.
+ * <p>
+ * The store also decides which updates are kept as track points (downsampling). That decision is
+ * taken while the slot is held, so concurrent pings of one vehicle never both become track points.
+ */
+public final class VehiclePositionStore {
+
+    /** Older than (or as old as) the stored position; nothing changed */
+    public static final int STALE = 0;
+    /** Latest position replaced */
+    public static final int UPDATED = 1;
+    /** Latest position replaced, and far enough in time or space from the last track point to keep */
+    public static final int UPDATED_AND_TRACKED = 2;
+
+    /**
+     * Receives a consistent copy of one slot; {@code NaN} speed or heading means unknown
+     */
+    @FunctionalInterface
+    public interface PositionReader<T> {
+        T read(double latitude, double longitude, double speedKmh, double heading, long recordedAtMillis);
+    }
+
+    private final AtomicLongArray sequence;
+    private final double[] latitude;
+    private final double[] longitude;
+    private final double[] speedKmh;
+    private final double[] heading;
+    private final long[] recordedAtMillis;
+
+    // Last track point per slot; only touched by the writer holding the slot
+    private final double[] trackedLatitude;
+    private final double[] trackedLongitude;
+    private final long[] trackedAtMillis;
+
+    private final long trackIntervalMillis;
+    private final double trackDistanceMeters;
+
+    /**
+     * @param capacity            number of slots
+     * @param trackIntervalMillis an update becomes a track point once this long after the previous one...
+     * @param trackDistanceMeters ...or once this far from it
+     */
+    public VehiclePositionStore(int capacity, long trackIntervalMillis, double trackDistanceMeters) {
+        this.sequence = new AtomicLongArray(capacity);
+        this.latitude = new double[capacity];
+        this.longitude = new double[capacity];
+        this.speedKmh = new double[capacity];
+        this.heading = new double[capacity];
+        this.recordedAtMillis = new long[capacity];
+        this.trackedLatitude = new double[capacity];
+        this.trackedLongitude = new double[capacity];
+        this.trackedAtMillis = new long[capacity];
+        this.trackIntervalMillis = trackIntervalMillis;
+        this.trackDistanceMeters = trackDistanceMeters;
+    }
+
+    public int capacity() {
+        return recordedAtMillis.length;
+    }
+
+    /**
+     * Store a position unless the slot already holds a newer one
+     *
+     * @return {@link #STALE}, {@link #UPDATED} or {@link #UPDATED_AND_TRACKED}
+     */
+    public int update(int slot, double lat, double lon, double speed, double bearing, long atMillis) {
+        long seq = lock(slot);
+        if (atMillis <= recordedAtMillis[slot]) {
+            // Nothing written: restore the same even value, readers need not retry
+            sequence.setRelease(slot, seq);
+            return STALE;
+        }
+        latitude[slot] = lat;
+        longitude[slot] = lon;
+        speedKmh[slot] = speed;
+        heading[slot] = bearing;
+        recordedAtMillis[slot] = atMillis;
+
+        boolean tracked = trackedAtMillis[slot] == 0
+                || atMillis - trackedAtMillis[slot] >= trackIntervalMillis
+                || GeoUtils.haversineMeters(trackedLatitude[slot], trackedLongitude[slot], lat, lon) >= trackDistanceMeters;
+        if (tracked) {
+            trackedLatitude[slot] = lat;
+            trackedLongitude[slot] = lon;
+            trackedAtMillis[slot] = atMillis;
+        }
+        sequence.setRelease(slot, seq + 2);
+        return tracked ? UPDATED_AND_TRACKED : UPDATED;
+    }
+
+    /**
+     * Empty a slot so it can be given to another vehicle
+     */
+    public void clear(int slot) {
+        long seq = lock(slot);
+        recordedAtMillis[slot] = 0;
+        trackedAtMillis[slot] = 0;
+        sequence.setRelease(slot, seq + 2);
+    }
+
+    /**
+     * Consistent copy of a slot, or {@code null} when it holds no position
+     */
+    public <T> T read(int slot, PositionReader<T> reader) {
+        while (true) {
+            long before = sequence.getAcquire(slot);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            double lat = latitude[slot];
+            double lon = longitude[slot];
+            double speed = speedKmh[slot];
+            double bearing = heading[slot];
+            long at = recordedAtMillis[slot];
+            // Keep the copies above from being reordered after the re-check
+            VarHandle.acquireFence();
+            if (sequence.get(slot) == before) {
+                return at == 0 ? null : reader.read(lat, lon, speed, bearing, at);
+            }
+        }
+    }
+
+    /**
+     * Take the slot's write side: move its sequence from even to odd
+     */
+    private long lock(int slot) {
+        while (true) {
+            long seq = sequence.get(slot);
+            if ((seq & 1) == 0 && sequence.compareAndSet(slot, seq, seq + 1)) {
+                return seq;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
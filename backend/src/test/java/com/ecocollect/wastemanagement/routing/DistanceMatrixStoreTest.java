@@ -0,0 +1,63 @@
+package com.ecocollect.wastemanagement.routing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void removedOrdinalIsNotReusedWhileAViewMayStillReadIt() throws Exception {
+        DistanceMatrixStore store = DistanceMatrixStore.open(dir.resolve("matrix.store"), 1L);
+        int a = store.assign("a", 36.80, 10.18);
+        int b = store.assign("b", 36.81, 10.19);
+        store.put(a, b, 120f, 900f);
+        TravelMatrix view = store.view(new int[]{a, b});
+
+        store.remove("b");
+        int c = store.assign("c", 36.90, 10.30);
+        store.put(a, c, 600f, 5000f);
+
+        assertNotEquals(b, c);
+        assertEquals(120f, view.seconds(0, 1));
+        assertEquals(900f, view.meters(0, 1));
+    }
+
+    @Test
+    void removedOrdinalIsReusedOnceOlderViewsAreClosed() throws Exception {
+        DistanceMatrixStore store = DistanceMatrixStore.open(dir.resolve("matrix.store"), 1L);
+        int a = store.assign("a", 36.80, 10.18);
+        int b = store.assign("b", 36.81, 10.19);
+        TravelMatrix before = store.view(new int[]{a, b});
+        store.remove("b");
+        // Taken after the removal, so it cannot be reading b's slot
+        TravelMatrix after = store.view(new int[]{a});
+
+        before.close();
+        int c = store.assign("c", 36.90, 10.30);
+
+        assertEquals(b, c);
+        after.close();
+    }
+
+    @Test
+    void slotsLeftPendingInTheFileAreFreeOnReopen() throws Exception {
+        Path file = dir.resolve("matrix.store");
+        DistanceMatrixStore store = DistanceMatrixStore.open(file, 1L);
+        int a = store.assign("a", 36.80, 10.18);
+        store.markComplete(a);
+        int pending = store.assign("b", 36.81, 10.19);
+        store.close();
+
+        DistanceMatrixStore reopened = DistanceMatrixStore.open(file, 1L);
+        assertEquals(a, reopened.ordinalOf("a"));
+        assertEquals(-1, reopened.ordinalOf("b"));
+        assertEquals(pending, reopened.assign("c", 36.90, 10.30));
+    }
+}
@@ -0,0 +1,208 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.dto.ChangeFeedResponse;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Tombstone;
+import com.ecocollect.wastemanagement.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static com.ecocollect.wastemanagement.service.ChangeSequenceService.COLLECTION_POINTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(InMemoryMongo.class)
+class ChangeSequenceServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private ChangeSequenceService service;
+
+    @BeforeEach
+    void setUp(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        service = new ChangeSequenceService(mongoTemplate);
+    }
+
+    @Test
+    void writeSavedAfterALaterOneIsNotSkipped() throws Exception {
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // A takes seq 1 and is held before saving; B takes seq 2 and saves at once
+            Future<CollectionPoint> slow = executor.submit(() -> service.write(COLLECTION_POINTS, 1, seq -> {
+                reserved.countDown();
+                await(release);
+                return save("A", seq);
+            }));
+            assertTrue(reserved.await(5, TimeUnit.SECONDS));
+            service.write(COLLECTION_POINTS, 1, seq -> save("B", seq));
+
+            ChangeFeedResponse<CollectionPoint> before = changes(0);
+            assertEquals(List.of(), ids(before));
+            assertEquals(0, before.getSeq());
+            assertEquals(0, service.current(COLLECTION_POINTS));
+
+            release.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+
+            ChangeFeedResponse<CollectionPoint> after = changes(before.getSeq());
+            assertEquals(List.of("A", "B"), ids(after));
+            assertEquals(2, after.getSeq());
+            assertEquals(2, service.current(COLLECTION_POINTS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void listETagChangesOnlyOnceTheWriteIsSaved() {
+        String before = service.listETag(COLLECTION_POINTS);
+        String during = service.write(COLLECTION_POINTS, 1, seq -> {
+            String tag = service.listETag(COLLECTION_POINTS);
+            save("A", seq);
+            return tag;
+        });
+        String after = service.listETag(COLLECTION_POINTS);
+
+        assertEquals(before, during);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void failedWriteReleasesItsNumbers() {
+        assertThrows(IllegalStateException.class, () -> service.write(COLLECTION_POINTS, 3, seq -> {
+            throw new IllegalStateException("write failed");
+        }));
+        service.write(COLLECTION_POINTS, 1, seq -> save("after", seq));
+
+        assertEquals(4, service.current(COLLECTION_POINTS));
+        assertEquals(List.of("after"), ids(changes(0)));
+    }
+
+    @Test
+    void deleteIsTombstonedBeforeItRuns() {
+        save("A", service.write(COLLECTION_POINTS, 1, seq -> seq));
+
+        service.delete(COLLECTION_POINTS, "A", () -> {
+            assertEquals(1, mongoTemplate.count(new Query(), Tombstone.class));
+            mongoTemplate.remove(mongoTemplate.findById("A", CollectionPoint.class));
+        });
+
+        ChangeFeedResponse<CollectionPoint> page = changes(1);
+        assertEquals(List.of("A"), page.getDeletes());
+        assertEquals(2, page.getSeq());
+    }
+
+    @Test
+    void failedDeleteLeavesNoTombstone() {
+        save("A", service.write(COLLECTION_POINTS, 1, seq -> seq));
+
+        assertThrows(IllegalStateException.class, () -> service.delete(COLLECTION_POINTS, "A", () -> {
+            throw new IllegalStateException("delete failed");
+        }));
+
+        assertEquals(List.of(), changes(1).getDeletes());
+        assertEquals(2, service.current(COLLECTION_POINTS));
+    }
+
+    @Test
+    void pollingClientSeesEveryInterleavedWrite() throws Exception {
+        int writers = 8;
+        int writesEach = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> writes = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                writes.add(executor.submit(() -> {
+                    await(start);
+                    for (int i = 0; i < writesEach; i++) {
+                        String id = writer + "-" + i;
+                        long pause = ThreadLocalRandom.current().nextLong(3);
+                        service.write(COLLECTION_POINTS, 1, seq -> {
+                            sleep(pause);
+                            return save(id, seq);
+                        });
+                    }
+                    return null;
+                }));
+            }
+
+            // Polls like a client while the writers run, always from the seq it was given
+            Set<String> seen = ConcurrentHashMap.newKeySet();
+            Future<Long> poller = executor.submit(() -> {
+                long since = 0;
+                while (!writes.stream().allMatch(Future::isDone)) {
+                    since = poll(since, seen);
+                }
+                return poll(since, seen);
+            });
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+            long last = poller.get(30, TimeUnit.SECONDS);
+
+            assertEquals(writers * writesEach, seen.size());
+            assertEquals(writers * writesEach, last);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long poll(long since, Set<String> seen) {
+        ChangeFeedResponse<CollectionPoint> page;
+        do {
+            page = changes(since);
+            long previous = since;
+            for (CollectionPoint point : page.getUpserts()) {
+                assertTrue(point.getChangeSeq() > previous, "feed went backwards");
+                previous = point.getChangeSeq();
+                seen.add(point.getId());
+            }
+            since = page.getSeq();
+        } while (Boolean.TRUE.equals(page.getHasMore()));
+        return since;
+    }
+
+    private ChangeFeedResponse<CollectionPoint> changes(long since) {
+        return service.changesSince(COLLECTION_POINTS, CollectionPoint.class, CollectionPoint::getChangeSeq, since, 50);
+    }
+
+    private CollectionPoint save(String id, long seq) {
+        CollectionPoint point = new CollectionPoint();
+        point.setId(id);
+        point.setChangeSeq(seq);
+        return mongoTemplate.save(point);
+    }
+
+    private static List<String> ids(ChangeFeedResponse<CollectionPoint> page) {
+        return page.getUpserts().stream().map(CollectionPoint::getId).collect(Collectors.toList());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
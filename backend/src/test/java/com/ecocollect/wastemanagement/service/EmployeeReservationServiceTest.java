@@ -0,0 +1,164 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
+import com.ecocollect.wastemanagement.dto.RouteRequest;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.ecocollect.wastemanagement.model.Employee;
+import com.ecocollect.wastemanagement.model.EmployeeReservation;
+import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.repository.EmployeeReservationRepository;
+import com.ecocollect.wastemanagement.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(InMemoryMongo.class)
+class EmployeeReservationServiceTest {
+
+    private static final Instant MORNING = Instant.parse("2026-03-02T07:00:00Z");
+
+    private EmployeeReservationRepository repository;
+    private EmployeeReservationService reservationService;
+
+    @BeforeEach
+    void setUp(MongoTemplate mongoTemplate) {
+        repository = new MongoRepositoryFactory(mongoTemplate).getRepository(EmployeeReservationRepository.class);
+        SchedulingProperties scheduling = new SchedulingProperties();
+        scheduling.setTimeZone("UTC");
+        reservationService = new EmployeeReservationService(repository, scheduling);
+    }
+
+    @Test
+    void concurrentAssignmentsNeverBookAnEmployeeTwiceADay() throws Exception {
+        int employeeCount = 20;
+        int routeCount = 12;
+        int perRoute = 4;
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < employeeCount; i++) {
+            Employee employee = new Employee();
+            employee.setId("e" + i);
+            employee.setAssignedZone(i % 2 == 0 ? "Z1" : "Z2");
+            employees.add(employee);
+        }
+        Map<String, Route> routes = new ConcurrentHashMap<>();
+        for (int r = 0; r < routeCount; r++) {
+            Route route = new Route();
+            route.setId("r" + r);
+            route.setZone(r % 2 == 0 ? "Z1" : "Z2");
+            route.setScheduledStart(MORNING.plusSeconds(600L * r));
+            routes.put(route.getId(), route);
+        }
+
+        EmployeeService employeeService = mock(EmployeeService.class);
+        when(employeeService.getAllEmployees()).thenReturn(employees);
+        RouteService routeService = mock(RouteService.class);
+        when(routeService.getRouteById(anyString())).thenAnswer(call -> copy(routes.get(call.<String>getArgument(0))));
+        when(routeService.updateRoute(anyString(), any(RouteRequest.class))).thenAnswer(call -> {
+            Route route = routes.get(call.<String>getArgument(0));
+            route.setAssignedEmployees(call.<RouteRequest>getArgument(1).getAssignedEmployees());
+            return route;
+        });
+        EmployeeAssignmentService assignmentService =
+            new EmployeeAssignmentService(employeeService, routeService, reservationService, new SchedulingProperties());
+
+        // Every route asks for a full crew at the same moment; 48 seats for 20 people
+        ExecutorService executor = Executors.newFixedThreadPool(routeCount);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Route>> assignments = new ArrayList<>();
+            for (String routeId : routes.keySet()) {
+                assignments.add(executor.submit(() -> {
+                    start.await();
+                    return assignmentService.assignEmployeesToRoute(routeId, perRoute);
+                }));
+            }
+            start.countDown();
+            for (Future<Route> assignment : assignments) {
+                assignment.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<String> assigned = routes.values().stream()
+            .flatMap(route -> route.getAssignedEmployees().stream())
+            .collect(Collectors.toList());
+        assertEquals(new HashSet<>(assigned).size(), assigned.size(), "employee on two routes: " + assigned);
+        assertEquals(employeeCount, assigned.size());
+
+        Map<String, String> bookings = reservationService.bookingsForDay("2026-03-02");
+        for (Route route : routes.values()) {
+            assertTrue(route.getAssignedEmployees().size() <= perRoute);
+            for (String employeeId : route.getAssignedEmployees()) {
+                assertEquals(route.getId(), bookings.get(employeeId));
+            }
+        }
+        assertEquals(employeeCount, repository.count());
+    }
+
+    @Test
+    void concurrentCrewEditsLetOnlyOneRouteTakeAnEmployee() throws Exception {
+        int routeCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(routeCount);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> edits = new ArrayList<>();
+            for (int r = 0; r < routeCount; r++) {
+                Route route = new Route();
+                route.setId("r" + r);
+                route.setScheduledStart(MORNING);
+                // Each edit shares "shared" and brings one employee of its own
+                route.setAssignedEmployees(List.of("own" + r, "shared"));
+                edits.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        reservationService.synchronize(route, "2026-03-02", List.of());
+                        return true;
+                    } catch (ValidationException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int accepted = 0;
+            for (Future<Boolean> edit : edits) {
+                accepted += edit.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            assertEquals(1, accepted);
+            List<EmployeeReservation> left = repository.findByDay("2026-03-02");
+            String winner = left.stream()
+                .filter(reservation -> reservation.getEmployeeId().equals("shared"))
+                .map(EmployeeReservation::getRouteId)
+                .findFirst()
+                .orElseThrow();
+            // Rejected edits rolled back their own bookings
+            assertEquals(2, left.size());
+            assertTrue(left.stream().allMatch(reservation -> reservation.getRouteId().equals(winner)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Route copy(Route route) {
+        Route copy = new Route();
+        copy.setId(route.getId());
+        copy.setZone(route.getZone());
+        copy.setScheduledStart(route.getScheduledStart());
+        copy.setAssignedEmployees(route.getAssignedEmployees());
+        return copy;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecocollect.wastemanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteOptimizationServiceTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    @Test
+    void windowClosedTodayMovesToTomorrow() {
+        RouteOptimizationService.ServiceWindow window = window("08:00", "10:00", "2026-03-02T14:00:00Z");
+
+        assertEquals(Instant.parse("2026-03-03T08:00:00Z"), window.open());
+        assertEquals(Instant.parse("2026-03-03T10:00:00Z"), window.close());
+    }
+
+    @Test
+    void openWindowIsTheCurrentOne() {
+        RouteOptimizationService.ServiceWindow window = window("08:00", "10:00", "2026-03-02T09:00:00Z");
+
+        assertEquals(Instant.parse("2026-03-02T08:00:00Z"), window.open());
+        assertEquals(Instant.parse("2026-03-02T10:00:00Z"), window.close());
+    }
+
+    @Test
+    void overnightWindowOpenSinceYesterdayIsKept() {
+        RouteOptimizationService.ServiceWindow window = window("22:00", "02:00", "2026-03-02T01:00:00Z");
+
+        assertEquals(Instant.parse("2026-03-01T22:00:00Z"), window.open());
+        assertEquals(Instant.parse("2026-03-02T02:00:00Z"), window.close());
+    }
+
+    @Test
+    void overnightWindowNotYetOpenIsTonight() {
+        RouteOptimizationService.ServiceWindow window = window("22:00", "02:00", "2026-03-02T03:00:00Z");
+
+        assertEquals(Instant.parse("2026-03-02T22:00:00Z"), window.open());
+        assertEquals(Instant.parse("2026-03-03T02:00:00Z"), window.close());
+    }
+
+    private static RouteOptimizationService.ServiceWindow window(String start, String end, String at) {
+        return RouteOptimizationService.serviceWindow(LocalTime.parse(start), LocalTime.parse(end), Instant.parse(at), UTC);
+    }
+}
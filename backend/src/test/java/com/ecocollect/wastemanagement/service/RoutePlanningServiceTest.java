@@ -0,0 +1,107 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.VolumeProperties;
+import com.ecocollect.wastemanagement.dto.RouteOptimizationRequest;
+import com.ecocollect.wastemanagement.dto.RouteOptimizationResponse;
+import com.ecocollect.wastemanagement.dto.RouteRequest;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.model.Vehicle;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RoutePlanningServiceTest {
+
+    private CitySnapshotService snapshotService;
+    private RouteOptimizationService optimizationService;
+    private RouteService routeService;
+    private RoutePlanningService planningService;
+
+    @BeforeEach
+    void setUp() {
+        snapshotService = mock(CitySnapshotService.class);
+        optimizationService = mock(RouteOptimizationService.class);
+        routeService = mock(RouteService.class);
+        VehicleService vehicleService = mock(VehicleService.class);
+        DepotService depotService = mock(DepotService.class);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId("v1");
+        vehicle.setCapacity(1000);
+        vehicle.setCurrentLoad(0);
+        when(vehicleService.getVehicleById("v1")).thenReturn(vehicle);
+        when(depotService.tourDepot(any(), eq(vehicle), any())).thenReturn(Optional.empty());
+
+        // 500 l per full container, so the vehicle and its two unload trips take six
+        List<CollectionPoint> zone = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            CollectionPoint point = new CollectionPoint();
+            point.setId("p" + i);
+            point.setFillLevel(100 - i);
+            point.setContainerLiters(1000);
+            zone.add(point);
+        }
+        when(snapshotService.getPointsInZone("Z1")).thenReturn(zone);
+
+        Route saved = new Route();
+        saved.setId("r1");
+        when(routeService.createRoute(any(RouteRequest.class))).thenReturn(saved);
+        when(routeService.getRouteById("r1")).thenReturn(saved);
+
+        VolumeProperties volume = new VolumeProperties();
+        volume.setUnloadLatitude(36.8);
+        volume.setUnloadLongitude(10.1);
+        planningService = new RoutePlanningService(snapshotService, vehicleService, optimizationService,
+                mock(EmployeeAssignmentService.class), routeService, depotService, new WasteVolumeService(volume),
+                volume, ObservationRegistry.NOOP);
+    }
+
+    @Test
+    void overloadedTourIsTrimmedBeforeItIsSaved() {
+        when(optimizationService.optimizeRoute(any())).thenReturn(response(700L), response(0L));
+
+        planningService.planRoute("Z1", "v1", null);
+
+        ArgumentCaptor<RouteOptimizationRequest> optimized = ArgumentCaptor.forClass(RouteOptimizationRequest.class);
+        verify(optimizationService, times(2)).optimizeRoute(optimized.capture());
+        // The captor holds the request object itself, which the trim updated in place
+        assertEquals(List.of("p0", "p1", "p2", "p3"), optimized.getValue().getCollectionPointIds());
+        ArgumentCaptor<RouteRequest> route = ArgumentCaptor.forClass(RouteRequest.class);
+        verify(routeService).createRoute(route.capture());
+        assertEquals(4, route.getValue().getCollectionPoints());
+    }
+
+    @Test
+    void tourThatNeverFitsIsRejected() {
+        when(optimizationService.optimizeRoute(any())).thenReturn(response(100L));
+
+        assertThrows(ValidationException.class, () -> planningService.planRoute("Z1", "v1", null));
+        verify(routeService, never()).createRoute(any());
+        verify(routeService, never()).getRouteById(anyString());
+    }
+
+    private static RouteOptimizationResponse response(long overloadLiters) {
+        RouteOptimizationResponse response = new RouteOptimizationResponse();
+        response.setStartTime(Instant.parse("2026-03-02T07:00:00Z"));
+        response.setPlannedDuration(Duration.ofHours(4));
+        response.setTotalDistance(12.0);
+        response.setWithinCapacity(overloadLiters == 0);
+        response.setOverloadLiters(overloadLiters);
+        return response;
+    }
+}
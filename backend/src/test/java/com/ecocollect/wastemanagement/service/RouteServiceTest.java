@@ -0,0 +1,165 @@
+package com.ecocollect.wastemanagement.service;
+
+import com.ecocollect.wastemanagement.config.SchedulingProperties;
+import com.ecocollect.wastemanagement.dto.BulkRequest;
+import com.ecocollect.wastemanagement.dto.RouteRequest;
+import com.ecocollect.wastemanagement.exception.ValidationException;
+import com.ecocollect.wastemanagement.model.Route;
+import com.ecocollect.wastemanagement.model.RouteStop;
+import com.ecocollect.wastemanagement.repository.CollectionPointRepository;
+import com.ecocollect.wastemanagement.repository.EmployeeReservationRepository;
+import com.ecocollect.wastemanagement.repository.RouteRepository;
+import com.ecocollect.wastemanagement.support.InMemoryMongo;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(InMemoryMongo.class)
+class RouteServiceTest {
+
+    private static final Instant MORNING = Instant.parse("2026-03-02T07:00:00Z");
+
+    private MongoTemplate mongoTemplate;
+    private RouteRepository repository;
+    private EmployeeReservationService reservationService;
+    private Validator validator;
+    private RouteService service;
+
+    @BeforeEach
+    void setUp(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        repository = new MongoRepositoryFactory(mongoTemplate).getRepository(RouteRepository.class);
+        SchedulingProperties scheduling = new SchedulingProperties();
+        scheduling.setTimeZone("UTC");
+        reservationService = new EmployeeReservationService(
+                new MongoRepositoryFactory(mongoTemplate).getRepository(EmployeeReservationRepository.class), scheduling);
+        validator = mock(Validator.class);
+        when(validator.validate(any())).thenReturn(Set.of());
+        service = service(repository, mongoTemplate);
+    }
+
+    private RouteService service(RouteRepository routes, MongoTemplate template) {
+        return new RouteService(routes, mock(CollectionPointRepository.class), template, reservationService,
+                new ChangeSequenceService(mongoTemplate), validator);
+    }
+
+    @Test
+    void replacingStopsKeepsProgressAndCrewSavedMeanwhile() {
+        Route planned = repository.save(route(1, List.of("e1")));
+        // The crew changes while the rest of the route is being re-optimized
+        Route stored = repository.findById(planned.getId()).orElseThrow();
+        stored.setAssignedEmployees(List.of("e1", "e2"));
+        repository.save(stored);
+
+        Route updated = service.replaceRemainingStops(planned, List.of(stop("c", 300), stop("b", 200)), 50);
+
+        assertEquals(List.of("a", "c", "b"), updated.getStops().stream().map(RouteStop::getPointId).toList());
+        assertEquals(3, updated.getCollectionPoints());
+        assertEquals(100 + 300 + 200 + 50, updated.getDistanceMeters());
+        assertEquals(List.of("e1", "e2"), updated.getAssignedEmployees());
+        assertEquals(1, updated.getCompletedPoints());
+        assertTrue(updated.getChangeSeq() > 0);
+    }
+
+    @Test
+    void replacingStopsIsRejectedOnceTheRouteProgressed() {
+        Route planned = repository.save(route(1, List.of()));
+        Route stored = repository.findById(planned.getId()).orElseThrow();
+        stored.setCompletedPoints(2);
+        repository.save(stored);
+
+        assertThrows(ValidationException.class,
+                () -> service.replaceRemainingStops(planned, List.of(stop("c", 300)), 0));
+        Route after = repository.findById(planned.getId()).orElseThrow();
+        assertEquals(2, after.getCompletedPoints());
+        assertEquals(List.of("a", "b"), after.getStops().stream().map(RouteStop::getPointId).toList());
+    }
+
+    @Test
+    void failedCreateReleasesItsCrew() {
+        RouteRepository failing = mock(RouteRepository.class);
+        when(failing.save(any())).thenThrow(new DataAccessResourceFailureException("write failed"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> service(failing, mongoTemplate).createRoute(request(List.of("e1", "e2"))));
+
+        assertEquals(Map.of(), reservationService.bookingsForDay("2026-03-02"));
+    }
+
+    @Test
+    void failedUpdateGivesThePreviousCrewBack() {
+        Route created = service.createRoute(request(List.of("e1", "e2")));
+        RouteRepository failing = mock(RouteRepository.class);
+        when(failing.findById(created.getId())).thenReturn(repository.findById(created.getId()));
+        when(failing.save(any())).thenThrow(new DataAccessResourceFailureException("write failed"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> service(failing, mongoTemplate).updateRoute(created.getId(), request(List.of("e2", "e3"))));
+
+        assertEquals(Map.of("e1", created.getId(), "e2", created.getId()), reservationService.bookingsForDay("2026-03-02"));
+    }
+
+    @Test
+    void failedBulkWriteUndoesTheBookingsOfItsItems() {
+        Route existing = service.createRoute(request(List.of("e1")));
+        MongoTemplate failingBulk = spy(mongoTemplate);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("write failed"));
+        doReturn(bulk).when(failingBulk).bulkOps(any(BulkOperations.BulkMode.class), eq(Route.class));
+
+        BulkRequest<RouteRequest> request = new BulkRequest<>();
+        request.setCreate(List.of(request(List.of("e2"))));
+        request.setUpdate(List.of(new BulkRequest.Update<>(existing.getId(), request(List.of("e3")))));
+        assertThrows(DataAccessResourceFailureException.class, () -> service(repository, failingBulk).bulkWrite(request));
+
+        assertEquals(Map.of("e1", existing.getId()), reservationService.bookingsForDay("2026-03-02"));
+    }
+
+    private static RouteRequest request(List<String> crew) {
+        RouteRequest request = new RouteRequest();
+        request.setName("North");
+        request.setZone("Z1");
+        request.setScheduledTime(MORNING.toString());
+        request.setScheduledStart(MORNING);
+        request.setEstimatedDuration("4h 0m");
+        request.setCollectionPoints(0);
+        request.setDistance("0 km");
+        request.setAssignedEmployees(new ArrayList<>(crew));
+        return request;
+    }
+
+    private static Route route(int completed, List<String> crew) {
+        Route route = new Route();
+        route.setId(UUID.randomUUID().toString());
+        route.setStatus("in_progress");
+        route.setStops(List.of(stop("a", 100), stop("b", 200)));
+        route.setCollectionPoints(2);
+        route.setCompletedPoints(completed);
+        route.setAssignedEmployees(crew);
+        return route;
+    }
+
+    private static RouteStop stop(String pointId, int legMeters) {
+        RouteStop stop = new RouteStop();
+        stop.setPointId(pointId);
+        stop.setLegMeters(legMeters);
+        return stop;
+    }
+}
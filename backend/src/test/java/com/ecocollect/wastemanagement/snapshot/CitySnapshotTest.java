@@ -0,0 +1,70 @@
+package com.ecocollect.wastemanagement.snapshot;
+
+import com.ecocollect.wastemanagement.model.CollectionPoint;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CitySnapshotTest {
+
+    @Test
+    void olderVersionDoesNotReplaceNewerOne() {
+        CitySnapshot snapshot = new CitySnapshot.Builder(4)
+                .upsert(point("a", 80, 5))
+                .upsert(point("a", 20, 4))
+                .build(5);
+
+        assertEquals(80, snapshot.fillLevel(snapshot.slotOf("a")));
+
+        CitySnapshot next = new CitySnapshot.Builder(snapshot, 1).upsert(point("a", 30, 6)).build(6);
+        assertEquals(30, next.fillLevel(next.slotOf("a")));
+        assertEquals(80, snapshot.fillLevel(snapshot.slotOf("a")), "earlier snapshot changed");
+    }
+
+    @Test
+    void deletedPointsAreDroppedAndCompacted() {
+        CitySnapshot.Builder builder = new CitySnapshot.Builder(16);
+        for (int i = 0; i < 1000; i++) {
+            builder.upsert(point("p" + i, i % 101, i + 1));
+        }
+        CitySnapshot full = builder.build(1000);
+
+        CitySnapshot.Builder deletes = new CitySnapshot.Builder(full, 0);
+        for (int i = 0; i < 1000; i += 2) {
+            deletes.delete("p" + i);
+        }
+        CitySnapshot half = deletes.build(1500);
+
+        assertEquals(500, half.live());
+        assertEquals(500, half.size(), "deleted slots not compacted");
+        assertEquals(CitySnapshot.NONE, half.slotOf("p0"));
+        assertEquals(999 % 101, half.fillLevel(half.slotOf("p999")));
+        assertEquals(1000, full.live());
+    }
+
+    @Test
+    void zonesAndStatusesAreDictionaryEncoded() {
+        CollectionPoint a = point("a", 90, 1);
+        a.setAssignedZone("Z1");
+        a.setStatus("full");
+        CollectionPoint b = point("b", 10, 2);
+        b.setAssignedZone("Z2");
+        CitySnapshot snapshot = new CitySnapshot.Builder(2).upsert(a).upsert(b).build(2);
+
+        assertArrayEquals(new int[]{snapshot.slotOf("a")}, snapshot.slotsInZone("Z1"));
+        assertEquals(0, snapshot.slotsInZone("Z9").length);
+        assertEquals(snapshot.statusCode("full"), snapshot.status(snapshot.slotOf("a")));
+        assertEquals("Z2", snapshot.point(snapshot.slotOf("b")).getAssignedZone());
+    }
+
+    private static CollectionPoint point(String id, int fill, long seq) {
+        CollectionPoint point = new CollectionPoint();
+        point.setId(id);
+        point.setFillLevel(fill);
+        point.setStatus("operational");
+        point.setLatitude(36.8);
+        point.setLongitude(10.18);
+        point.setChangeSeq(seq);
+        return point;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecocollect.wastemanagement.support;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+/**
+ * In-memory Mongo (mongo-java-server) for tests that need a database. One server is started for the
+ * whole test run; every {@link MongoTemplate} parameter gets a database of its own, so tests never
+ * see each other's documents. Use with {@code @ExtendWith(InMemoryMongo.class)} and take the
+ * template as a parameter of a {@code @BeforeEach} or test method.
+ */
+public class InMemoryMongo implements ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(InMemoryMongo.class);
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameter, ExtensionContext context) {
+        return parameter.getParameter().getType() == MongoTemplate.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameter, ExtensionContext context) {
+        Server server = context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(Server.class);
+        return new MongoTemplate(server.client, "test-" + UUID.randomUUID());
+    }
+
+    /**
+     * Shut down with the root context, once every test class has run
+     */
+    static final class Server implements ExtensionContext.Store.CloseableResource {
+        private final MongoServer mongo = new MongoServer(new MemoryBackend());
+        private final MongoClient client;
+
+        Server() {
+            InetSocketAddress address = mongo.bind();
+            client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        }
+
+        @Override
+        public void close() {
+            client.close();
+            mongo.shutdown();
+        }
+    }
+}